@@ -27,10 +27,83 @@ GRANT ALL ON SCHEMA public TO matching_user;
 GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO matching_user;
 GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA public TO matching_user;
 
+-- Schema added by the matching service since its first release. Every statement is idempotent, so
+-- this script can also be applied with psql to an existing database before upgrading, which
+-- Hibernate's ddl-auto: validate requires.
+ALTER TABLE IF EXISTS matches ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+-- Match membership; the legacy match_pairs table is copied over by the pair-ids-array migration
+ALTER TABLE IF EXISTS matches ADD COLUMN IF NOT EXISTS pair_ids UUID[];
+ALTER TABLE IF EXISTS compatibility ADD COLUMN IF NOT EXISTS success_probability DOUBLE PRECISION;
+
+CREATE TABLE IF NOT EXISTS hospital_match_view (
+    match_id UUID PRIMARY KEY,
+    hospital_id VARCHAR(255),
+    match_type VARCHAR(255),
+    status VARCHAR(255),
+    pair_ids VARCHAR(1000),
+    compatibility_score DOUBLE PRECISION,
+    priority_level INTEGER,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    match_version BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS pair_match_index (
+    pair_id UUID NOT NULL,
+    match_id UUID NOT NULL,
+    indexed_at TIMESTAMP(6),
+    PRIMARY KEY (pair_id, match_id)
+);
+
+CREATE TABLE IF NOT EXISTS bridge_donors (
+    pair_id UUID PRIMARY KEY,
+    kind VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    chain_match_id UUID,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS matching_results (
+    fingerprint VARCHAR(64) PRIMARY KEY,
+    matches TEXT NOT NULL,
+    match_count INTEGER,
+    created_at TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS matching_leases (
+    name VARCHAR(255) PRIMARY KEY,
+    holder VARCHAR(255),
+    acquired_at TIMESTAMP(6) WITH TIME ZONE,
+    expires_at TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS pair_regions (
+    pair_id UUID PRIMARY KEY,
+    region_id VARCHAR(255),
+    shard INTEGER NOT NULL,
+    assigned_at TIMESTAMP(6)
+);
+
+GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO matching_user;
+
 -- Create indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_matches_status ON matches(status);
 CREATE INDEX IF NOT EXISTS idx_matches_hospital_id ON matches(hospital_id);
 CREATE INDEX IF NOT EXISTS idx_matches_created_at ON matches(created_at);
 CREATE INDEX IF NOT EXISTS idx_compatibility_donor_pair ON compatibility(donor_pair_id);
 CREATE INDEX IF NOT EXISTS idx_compatibility_recipient_pair ON compatibility(recipient_pair_id);
-CREATE INDEX IF NOT EXISTS idx_compatibility_score ON compatibility(compatibility_score);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_compatibility_score ON compatibility(compatibility_score);
+-- Keyset pagination for match listings (newest first, optionally per hospital)
+CREATE INDEX IF NOT EXISTS idx_matches_created_at_id ON matches(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_matches_hospital_created_at_id ON matches(hospital_id, created_at DESC, id DESC);
+-- Shard owners load their slice of the pool by shard
+CREATE INDEX IF NOT EXISTS idx_pair_regions_shard ON pair_regions(shard);
+-- Hospital dashboards read the denormalized match view newest first
+CREATE INDEX IF NOT EXISTS idx_hospital_match_view_hospital_created ON hospital_match_view(hospital_id, created_at DESC);
+-- Inverted pair index: lookups by pair use the primary key, removals by match this index
+CREATE INDEX IF NOT EXISTS idx_pair_match_index_match ON pair_match_index(match_id);
+-- Chain searches start from the available bridge donors
+CREATE INDEX IF NOT EXISTS idx_bridge_donors_status ON bridge_donors(status);
+-- Membership queries on the pair id array (pair_ids @> ARRAY[...]::uuid[])
+CREATE INDEX IF NOT EXISTS idx_matches_pair_ids ON matches USING GIN (pair_ids);
@@ -0,0 +1,41 @@
+package com.organsync.matching.algorithm;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Pair numbering shared by the graph stores, which only differ in where edges live.
+ * Pair IDs stay on the heap: there is one per pair, against many edges per pair.
+ */
+abstract class AbstractCompatibilityGraph implements CompatibilityGraph {
+
+    private final UUID[] pairIds;
+
+    AbstractCompatibilityGraph(UUID[] pairIds) {
+        this.pairIds = pairIds;
+    }
+
+    @Override
+    public int vertexCount() {
+        return pairIds.length;
+    }
+
+    @Override
+    public UUID pairId(int vertex) {
+        return pairIds[vertex];
+    }
+
+    @Override
+    public int indexOf(UUID pairId) {
+        int index = Arrays.binarySearch(pairIds, pairId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Set where the out-edges of a vertex start; called for vertices 0..n in order, the last
+     * one closing the edge list
+     */
+    abstract void setFirstEdge(int vertex, int edge);
+
+    abstract void setEdge(int edge, int target, double weight, double probability);
+}
@@ -0,0 +1,128 @@
+package com.organsync.matching.algorithm;
+
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.MatchType;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Cycles or chains found by a search, held as vertex numbers and scores in primitive arrays.
+ *
+ * Searches append candidates without allocating anything but the occasional array growth;
+ * {@link MatchDto}s are only created for the candidates that are selected, once the search is
+ * done. Every candidate takes {@code width} vertex slots, of which the first {@code length(i)}
+ * are used.
+ */
+final class CandidateBuffer {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int width;
+    private int[] vertices;
+    private int[] lengths;
+    private double[] scores;
+    private int size;
+
+    CandidateBuffer(int width) {
+        this.width = width;
+        this.vertices = new int[INITIAL_CAPACITY * width];
+        this.lengths = new int[INITIAL_CAPACITY];
+        this.scores = new double[INITIAL_CAPACITY];
+    }
+
+    int width() {
+        return width;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int length(int candidate) {
+        return lengths[candidate];
+    }
+
+    int vertex(int candidate, int position) {
+        return vertices[candidate * width + position];
+    }
+
+    double score(int candidate) {
+        return scores[candidate];
+    }
+
+    void add(int a, int b, double score) {
+        int slot = reserve(2, score);
+        vertices[slot] = a;
+        vertices[slot + 1] = b;
+    }
+
+    void add(int a, int b, int c, double score) {
+        int slot = reserve(3, score);
+        vertices[slot] = a;
+        vertices[slot + 1] = b;
+        vertices[slot + 2] = c;
+    }
+
+    /**
+     * Add the first {@code length} vertices of a search path
+     */
+    void add(int[] path, int length, double score) {
+        int slot = reserve(length, score);
+        System.arraycopy(path, 0, vertices, slot, length);
+    }
+
+    /**
+     * Whether the candidate visits the vertex at or after the given position
+     */
+    boolean contains(int candidate, int from, int vertex) {
+        for (int i = from; i < lengths[candidate]; i++) {
+            if (vertices[candidate * width + i] == vertex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the candidate visits a marked vertex at or after the given position
+     */
+    boolean containsAny(int candidate, int from, SearchWorkspace.StampSet marked) {
+        for (int i = from; i < lengths[candidate]; i++) {
+            if (marked.contains(vertices[candidate * width + i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    MatchDto toMatch(int candidate, CompatibilityGraph graph, MatchType type) {
+        MatchDto match = new MatchDto();
+        match.setMatchType(type.name());
+        match.setStatus(MatchStatus.PENDING.name());
+        UUID[] pairIds = new UUID[lengths[candidate]];
+        for (int i = 0; i < pairIds.length; i++) {
+            pairIds[i] = graph.pairId(vertices[candidate * width + i]);
+        }
+        match.setPairIds(Arrays.asList(pairIds));
+        match.setCompatibilityScore(scores[candidate]);
+        return match;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private int reserve(int length, double score) {
+        if (size == lengths.length) {
+            int capacity = lengths.length * 2;
+            vertices = Arrays.copyOf(vertices, capacity * width);
+            lengths = Arrays.copyOf(lengths, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+        }
+        lengths[size] = length;
+        scores[size] = score;
+        return size++ * width;
+    }
+}
@@ -0,0 +1,126 @@
+package com.organsync.matching.algorithm;
+
+import com.organsync.matching.entity.Compatibility;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Directed compatibility graph read by the cycle and chain searches, independent of where its
+ * edges are stored.
+ *
+ * Pairs are numbered 0..n-1 in pair ID order. Out-edges of a pair occupy the contiguous edge
+ * slots {@code firstEdge(v)} to {@code endEdge(v) - 1}, ordered by target, so the searches walk
+ * plain int ranges and find an edge by binary search instead of through iterators and hash
+ * lookups.
+ */
+interface CompatibilityGraph {
+
+    int vertexCount();
+
+    int edgeCount();
+
+    UUID pairId(int vertex);
+
+    /**
+     * Vertex of a pair, or -1 when the pair is not in the graph
+     */
+    int indexOf(UUID pairId);
+
+    int firstEdge(int vertex);
+
+    int endEdge(int vertex);
+
+    int target(int edge);
+
+    double weight(int edge);
+
+    /**
+     * Chance that the transplant along the edge goes ahead, 1.0 under raw scoring
+     */
+    double probability(int edge);
+
+    default int outDegree(int vertex) {
+        return endEdge(vertex) - firstEdge(vertex);
+    }
+
+    /**
+     * Edge slot from source to target, or -1 when there is none
+     */
+    default int findEdge(int source, int target) {
+        int low = firstEdge(source);
+        int high = endEdge(source) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int found = target(mid);
+            if (found < target) {
+                low = mid + 1;
+            } else if (found > target) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Build the graph of the fully compatible edges among the given compatibilities, keeping the
+     * first of several compatibilities between the same donor and recipient
+     * @param ordered Compatibilities sorted by donor, recipient and best score first, so the edge
+     *                kept is the one graph reduction keeps
+     * @param offHeap Whether edges are stored in direct memory instead of on the heap
+     */
+    static CompatibilityGraph build(List<Compatibility> ordered, MatchingAlgorithmService.EdgeOdds odds,
+                                    boolean offHeap) {
+        UUID[] pairIds = ordered.stream()
+                .flatMap(c -> Arrays.stream(new UUID[]{c.getDonorPairId(), c.getRecipientPairId()}))
+                .distinct()
+                .sorted()
+                .toArray(UUID[]::new);
+
+        // Count first, so that storage is allocated once at its final size
+        int edgeCount = 0;
+        Compatibility previous = null;
+        for (Compatibility compatibility : ordered) {
+            if (isEdge(compatibility, previous)) {
+                edgeCount++;
+                previous = compatibility;
+            }
+        }
+
+        AbstractCompatibilityGraph graph = offHeap
+                ? new OffHeapCompatibilityGraph(pairIds, edgeCount)
+                : new HeapCompatibilityGraph(pairIds, edgeCount);
+        int edge = 0;
+        int vertex = 0;
+        previous = null;
+        for (Compatibility compatibility : ordered) {
+            if (!isEdge(compatibility, previous)) {
+                continue;
+            }
+            previous = compatibility;
+            int donor = graph.indexOf(compatibility.getDonorPairId());
+            while (vertex <= donor) {
+                graph.setFirstEdge(vertex++, edge);
+            }
+            graph.setEdge(edge++, graph.indexOf(compatibility.getRecipientPairId()),
+                    compatibility.getCompatibilityScore(),
+                    odds.of(compatibility.getDonorPairId(), compatibility.getRecipientPairId()));
+        }
+        while (vertex <= pairIds.length) {
+            graph.setFirstEdge(vertex++, edge);
+        }
+        return graph;
+    }
+
+    private static boolean isEdge(Compatibility compatibility, Compatibility previous) {
+        return Boolean.TRUE.equals(compatibility.getBloodTypeCompatible())
+                && Boolean.TRUE.equals(compatibility.getHlaCompatible())
+                && Boolean.TRUE.equals(compatibility.getCrossmatchCompatible())
+                && !compatibility.getDonorPairId().equals(compatibility.getRecipientPairId())
+                && (previous == null || !previous.getDonorPairId().equals(compatibility.getDonorPairId())
+                        || !previous.getRecipientPairId().equals(compatibility.getRecipientPairId()));
+    }
+}
@@ -0,0 +1,386 @@
+package com.organsync.matching.algorithm;
+
+import com.organsync.matching.entity.Compatibility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Shrinks a compatibility pool before the matching algorithms see it.
+ *
+ * Only edges that could be part of some feasible exchange are kept: an edge must lie on a
+ * cycle of at most the maximum cycle length, or be reachable from a chain source within the
+ * maximum chain length. Reduction runs in four steps:
+ * <ol>
+ *   <li>drop compatibilities that are not fully compatible, and collapse several compatibilities
+ *       between the same donor and recipient into the dominant one (best score, then best success
+ *       probability)</li>
+ *   <li>peel dead ends: edges out of pairs nothing can donate to, and edges into pairs that donate
+ *       to nobody, unless a chain can use them</li>
+ *   <li>drop edges on no short cycle, found by a bounded search back from each edge's recipient</li>
+ *   <li>split what is left into weakly connected components, which can be matched independently</li>
+ * </ol>
+ * The reduction is exact: every cycle and chain within the limits survives it.
+ */
+public final class GraphReducer {
+
+    public static final String INCOMPATIBLE = "incompatible";
+    public static final String DOMINATED = "dominated";
+    public static final String DEAD_END = "dead_end";
+    public static final String NO_CYCLE = "no_cycle";
+
+    private GraphReducer() {
+    }
+
+    /**
+     * Reduce the pool for cycles of up to {@code maxCycleLength} pairs and chains of up to
+     * {@code maxChainLength} pairs starting at the given sources
+     */
+    public static Reduction reduce(List<Compatibility> compatibilities, Collection<UUID> sources,
+                                   int maxCycleLength, int maxChainLength) {
+        Map<String, Long> removed = new LinkedHashMap<>();
+        removed.put(INCOMPATIBLE, 0L);
+        removed.put(DOMINATED, 0L);
+        removed.put(DEAD_END, 0L);
+        removed.put(NO_CYCLE, 0L);
+
+        // Step 1: usable edges, one per donor and recipient
+        Map<UUID, Map<UUID, Compatibility>> dominant = new HashMap<>();
+        TreeSet<UUID> pairs = new TreeSet<>();
+        for (Compatibility compatibility : compatibilities) {
+            pairs.add(compatibility.getDonorPairId());
+            pairs.add(compatibility.getRecipientPairId());
+            if (!isUsable(compatibility)) {
+                removed.merge(INCOMPATIBLE, 1L, Long::sum);
+                continue;
+            }
+            Map<UUID, Compatibility> fromDonor = dominant.computeIfAbsent(compatibility.getDonorPairId(),
+                    d -> new HashMap<>());
+            Compatibility current = fromDonor.get(compatibility.getRecipientPairId());
+            if (current != null) {
+                removed.merge(DOMINATED, 1L, Long::sum);
+            }
+            if (current == null || dominates(compatibility, current)) {
+                fromDonor.put(compatibility.getRecipientPairId(), compatibility);
+            }
+        }
+
+        UUID[] vertices = pairs.toArray(new UUID[0]);
+        Map<UUID, Integer> index = new HashMap<>(vertices.length * 2);
+        for (int i = 0; i < vertices.length; i++) {
+            index.put(vertices[i], i);
+        }
+        List<Compatibility> edges = new ArrayList<>();
+        for (UUID donor : vertices) {
+            Map<UUID, Compatibility> fromDonor = dominant.get(donor);
+            if (fromDonor != null) {
+                fromDonor.values().stream()
+                        .sorted((a, b) -> a.getRecipientPairId().compareTo(b.getRecipientPairId()))
+                        .forEach(edges::add);
+            }
+        }
+        int edgeCount = edges.size();
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            from[e] = index.get(edges.get(e).getDonorPairId());
+            to[e] = index.get(edges.get(e).getRecipientPairId());
+        }
+        int[][] outEdges = adjacency(vertices.length, from, edgeCount);
+        int[][] inEdges = adjacency(vertices.length, to, edgeCount);
+
+        boolean[] isSource = new boolean[vertices.length];
+        for (UUID source : sources) {
+            Integer v = index.get(source);
+            if (v != null) {
+                isSource[v] = true;
+            }
+        }
+        boolean[] alive = new boolean[edgeCount];
+        Arrays.fill(alive, true);
+        boolean[] chainUsable = chainUsableEdges(outEdges, to, isSource, maxChainLength, edgeCount);
+
+        // Step 2: peel dead ends until none are left
+        int[] inDegree = new int[vertices.length];
+        int[] outDegree = new int[vertices.length];
+        for (int e = 0; e < edgeCount; e++) {
+            outDegree[from[e]]++;
+            inDegree[to[e]]++;
+        }
+        int[] queue = new int[vertices.length];
+        boolean[] queued = new boolean[vertices.length];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < vertices.length; v++) {
+            queue[tail++] = v;
+            queued[v] = true;
+        }
+        long deadEnds = 0;
+        while (head < tail) {
+            int v = queue[head++ % vertices.length];
+            queued[v] = false;
+            if (inDegree[v] == 0 && !isSource[v]) {
+                for (int e : outEdges[v]) {
+                    if (alive[e] && !chainUsable[e]) {
+                        alive[e] = false;
+                        deadEnds++;
+                        outDegree[v]--;
+                        if (--inDegree[to[e]] == 0 && !queued[to[e]]) {
+                            queue[tail++ % vertices.length] = to[e];
+                            queued[to[e]] = true;
+                        }
+                    }
+                }
+            }
+            if (outDegree[v] == 0) {
+                for (int e : inEdges[v]) {
+                    if (alive[e] && !chainUsable[e]) {
+                        alive[e] = false;
+                        deadEnds++;
+                        inDegree[v]--;
+                        if (--outDegree[from[e]] == 0 && !queued[from[e]]) {
+                            queue[tail++ % vertices.length] = from[e];
+                            queued[from[e]] = true;
+                        }
+                    }
+                }
+            }
+        }
+        removed.put(DEAD_END, deadEnds);
+
+        // Step 3: an edge u -> v is on a short cycle if v reaches u within maxCycleLength - 1 edges
+        long noCycle = 0;
+        int[] reachedAt = new int[vertices.length];
+        int[] frontier = new int[vertices.length];
+        int[] next = new int[vertices.length];
+        for (int v = 0; v < vertices.length; v++) {
+            boolean anyIn = false;
+            for (int e : inEdges[v]) {
+                anyIn |= alive[e] && !chainUsable[e];
+            }
+            if (!anyIn) {
+                continue;
+            }
+            // reachedAt holds v + 1 for pairs reached from v in this search
+            int stamp = v + 1;
+            reachedAt[v] = stamp;
+            int frontierSize = 0;
+            frontier[frontierSize++] = v;
+            for (int hop = 1; hop < maxCycleLength && frontierSize > 0; hop++) {
+                int nextSize = 0;
+                for (int i = 0; i < frontierSize; i++) {
+                    for (int e : outEdges[frontier[i]]) {
+                        if (alive[e] && reachedAt[to[e]] != stamp) {
+                            reachedAt[to[e]] = stamp;
+                            next[nextSize++] = to[e];
+                        }
+                    }
+                }
+                int[] swap = frontier;
+                frontier = next;
+                next = swap;
+                frontierSize = nextSize;
+            }
+            for (int e : inEdges[v]) {
+                if (alive[e] && !chainUsable[e] && reachedAt[from[e]] != stamp) {
+                    alive[e] = false;
+                    noCycle++;
+                }
+            }
+        }
+        removed.put(NO_CYCLE, noCycle);
+
+        // Step 4: weakly connected components of the surviving edges
+        int[] parent = new int[vertices.length];
+        for (int v = 0; v < vertices.length; v++) {
+            parent[v] = v;
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            if (alive[e]) {
+                union(parent, from[e], to[e]);
+            }
+        }
+        Map<Integer, List<Compatibility>> byRoot = new LinkedHashMap<>();
+        int remaining = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (alive[e]) {
+                byRoot.computeIfAbsent(find(parent, from[e]), root -> new ArrayList<>()).add(edges.get(e));
+                remaining++;
+            }
+        }
+        Map<Integer, List<UUID>> sourcesByRoot = new HashMap<>();
+        int remainingPairs = 0;
+        for (int v = 0; v < vertices.length; v++) {
+            int root = find(parent, v);
+            if (byRoot.containsKey(root)) {
+                remainingPairs++;
+                if (isSource[v]) {
+                    sourcesByRoot.computeIfAbsent(root, r -> new ArrayList<>()).add(vertices[v]);
+                }
+            }
+        }
+        List<Component> components = new ArrayList<>();
+        byRoot.forEach((root, component) -> components.add(
+                new Component(component, sourcesByRoot.getOrDefault(root, List.of()))));
+        return new Reduction(components, vertices.length, compatibilities.size(), remainingPairs, remaining, removed);
+    }
+
+    /**
+     * Edges a chain of at most {@code maxChainLength} pairs from one of the sources can use: the
+     * edge's donor is reached from a source with room left for the edge
+     */
+    private static boolean[] chainUsableEdges(int[][] outEdges, int[] to, boolean[] isSource, int maxChainLength,
+                                              int edgeCount) {
+        boolean[] usable = new boolean[edgeCount];
+        int vertexCount = outEdges.length;
+        int[] hops = new int[vertexCount];
+        Arrays.fill(hops, Integer.MAX_VALUE);
+        int[] queue = new int[vertexCount];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            if (isSource[v]) {
+                hops[v] = 0;
+                queue[tail++] = v;
+            }
+        }
+        // A chain of maxChainLength pairs has maxChainLength - 1 edges
+        while (head < tail) {
+            int v = queue[head++];
+            if (hops[v] + 1 > maxChainLength - 1) {
+                continue;
+            }
+            for (int e : outEdges[v]) {
+                usable[e] = true;
+                int w = to[e];
+                if (hops[w] == Integer.MAX_VALUE && !isSource[w]) {
+                    hops[w] = hops[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return usable;
+    }
+
+    private static int[][] adjacency(int vertexCount, int[] endpoint, int edgeCount) {
+        int[] degree = new int[vertexCount];
+        for (int e = 0; e < edgeCount; e++) {
+            degree[endpoint[e]]++;
+        }
+        int[][] adjacency = new int[vertexCount][];
+        for (int v = 0; v < vertexCount; v++) {
+            adjacency[v] = new int[degree[v]];
+            degree[v] = 0;
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            adjacency[endpoint[e]][degree[endpoint[e]]++] = e;
+        }
+        return adjacency;
+    }
+
+    private static boolean isUsable(Compatibility compatibility) {
+        return Boolean.TRUE.equals(compatibility.getBloodTypeCompatible())
+                && Boolean.TRUE.equals(compatibility.getHlaCompatible())
+                && Boolean.TRUE.equals(compatibility.getCrossmatchCompatible())
+                && compatibility.getCompatibilityScore() != null
+                && !compatibility.getDonorPairId().equals(compatibility.getRecipientPairId());
+    }
+
+    private static boolean dominates(Compatibility candidate, Compatibility current) {
+        int byScore = Double.compare(candidate.getCompatibilityScore(), current.getCompatibilityScore());
+        if (byScore != 0) {
+            return byScore > 0;
+        }
+        double candidateProbability = candidate.getSuccessProbability() != null ? candidate.getSuccessProbability() : -1;
+        double currentProbability = current.getSuccessProbability() != null ? current.getSuccessProbability() : -1;
+        return candidateProbability > currentProbability;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    /**
+     * Independent part of the reduced pool with the chain sources inside it
+     */
+    public static final class Component {
+
+        private final List<Compatibility> compatibilities;
+        private final List<UUID> sources;
+
+        Component(List<Compatibility> compatibilities, List<UUID> sources) {
+            this.compatibilities = Collections.unmodifiableList(compatibilities);
+            this.sources = Collections.unmodifiableList(sources);
+        }
+
+        public List<Compatibility> getCompatibilities() { return compatibilities; }
+
+        public List<UUID> getSources() { return sources; }
+    }
+
+    /**
+     * Components of the reduced pool and what the reduction removed
+     */
+    public static final class Reduction {
+
+        private final List<Component> components;
+        private final int pairsBefore;
+        private final int edgesBefore;
+        private final int pairsAfter;
+        private final int edgesAfter;
+        private final Map<String, Long> removedEdges;
+
+        Reduction(List<Component> components, int pairsBefore, int edgesBefore, int pairsAfter, int edgesAfter,
+                  Map<String, Long> removedEdges) {
+            this.components = Collections.unmodifiableList(components);
+            this.pairsBefore = pairsBefore;
+            this.edgesBefore = edgesBefore;
+            this.pairsAfter = pairsAfter;
+            this.edgesAfter = edgesAfter;
+            this.removedEdges = Collections.unmodifiableMap(removedEdges);
+        }
+
+        /**
+         * The whole pool as a single component, for callers that skip reduction
+         */
+        public static Reduction unreduced(List<Compatibility> compatibilities, List<UUID> sources) {
+            return new Reduction(List.of(new Component(compatibilities, sources)), 0, compatibilities.size(), 0,
+                    compatibilities.size(), Map.of());
+        }
+
+        public List<Component> getComponents() { return components; }
+
+        public int getPairsBefore() { return pairsBefore; }
+
+        public int getEdgesBefore() { return edgesBefore; }
+
+        public int getPairsAfter() { return pairsAfter; }
+
+        public int getEdgesAfter() { return edgesAfter; }
+
+        /**
+         * Edges removed per reason: {@value #INCOMPATIBLE}, {@value #DOMINATED}, {@value #DEAD_END}, {@value #NO_CYCLE}
+         */
+        public Map<String, Long> getRemovedEdges() { return removedEdges; }
+    }
+}
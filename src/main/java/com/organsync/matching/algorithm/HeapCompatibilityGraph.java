@@ -0,0 +1,64 @@
+package com.organsync.matching.algorithm;
+
+import java.util.UUID;
+
+/**
+ * Compatibility graph with its edges in primitive arrays on the heap
+ */
+final class HeapCompatibilityGraph extends AbstractCompatibilityGraph {
+
+    private final int[] firstEdges;
+    private final int[] targets;
+    private final double[] weights;
+    private final double[] probabilities;
+
+    HeapCompatibilityGraph(UUID[] pairIds, int edgeCount) {
+        super(pairIds);
+        this.firstEdges = new int[pairIds.length + 1];
+        this.targets = new int[edgeCount];
+        this.weights = new double[edgeCount];
+        this.probabilities = new double[edgeCount];
+    }
+
+    @Override
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int firstEdge(int vertex) {
+        return firstEdges[vertex];
+    }
+
+    @Override
+    public int endEdge(int vertex) {
+        return firstEdges[vertex + 1];
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    @Override
+    public double probability(int edge) {
+        return probabilities[edge];
+    }
+
+    @Override
+    void setFirstEdge(int vertex, int edge) {
+        firstEdges[vertex] = edge;
+    }
+
+    @Override
+    void setEdge(int edge, int target, double weight, double probability) {
+        targets[edge] = target;
+        weights[edge] = weight;
+        probabilities[edge] = probability;
+    }
+}
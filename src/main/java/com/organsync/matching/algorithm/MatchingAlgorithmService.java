@@ -4,42 +4,120 @@ import com.organsync.matching.dto.MatchDto;
 import com.organsync.matching.entity.Compatibility;
 import com.organsync.matching.entity.MatchStatus;
 import com.organsync.matching.entity.MatchType;
+import com.organsync.matching.monitoring.MatchingMetrics;
+import com.organsync.matching.monitoring.MatchingMetrics.Stage;
+import com.organsync.matching.monitoring.jfr.AlgorithmInvocationEvent;
+import com.organsync.matching.monitoring.jfr.GraphBuildEvent;
 import org.jgrapht.Graph;
-import org.jgrapht.alg.matching.blossom.v5.KolmogorovWeightedPerfectMatching;
+import org.jgrapht.alg.matching.blossom.v5.KolmogorovWeightedMatching;
+import org.jgrapht.alg.matching.blossom.v5.ObjectiveSense;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Advanced kidney exchange matching algorithms using JGraphT
  * Implements Edmonds' Blossom Algorithm for maximum weight matching
+ *
+ * Results depend only on the content of the pool, never on the order compatibilities were
+ * loaded in: graphs are built in pair ID order, searches walk pairs and sources in that order
+ * and results with equal scores are ordered by their pairs. Identical pools therefore give
+ * identical results, and {@link #fingerprint} identifies a pool for caching them.
+ *
+ * Cycles and chains are scored either by their raw summed compatibility scores or, in expected
+ * scoring mode, by the compatibility they are expected to deliver given each edge's chance of
+ * going ahead: a cycle only counts if every transplant in it happens, a chain counts up to its
+ * first failed transplant.
+ *
+ * Pairwise matching runs on a JGraphT graph; cycle and chain searches read a
+ * {@link CompatibilityGraph}, kept on or off the heap as configured.
  */
 @Service
 public class MatchingAlgorithmService {
 
     private static final Logger logger = LoggerFactory.getLogger(MatchingAlgorithmService.class);
 
+    private static final Comparator<Compatibility> EDGE_ORDER = Comparator
+            .comparing(Compatibility::getDonorPairId)
+            .thenComparing(Compatibility::getRecipientPairId)
+            .thenComparing(Compatibility::getCompatibilityScore, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Compatibility::getSuccessProbability, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final Comparator<MatchDto> BEST_FIRST = Comparator
+            .comparing(MatchDto::getCompatibilityScore, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(match -> String.valueOf(match.getPairIds()));
+
+    @Autowired
+    private MatchingMetrics metrics;
+
+    @Value("${organsync.matching.scoring.mode:raw}")
+    private String scoringMode;
+
+    @Value("${organsync.matching.scoring.default-success-probability:0.8}")
+    private double defaultSuccessProbability;
+
+    @Value("${organsync.matching.scoring.min-path-probability:0.1}")
+    private double minPathProbability;
+
+    @Value("${organsync.matching.graph.off-heap:false}")
+    private boolean offHeapGraph;
+
+    private final SearchWorkspace.Pool workspaces = new SearchWorkspace.Pool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Shrink the pool to the edges that can be part of a cycle or chain within the limits, split
+     * into components that can be matched independently
+     * @see GraphReducer
+     */
+    public GraphReducer.Reduction reduce(List<Compatibility> compatibilities, Collection<UUID> sources,
+                                         int maxCycleLength, int maxChainLength) {
+        GraphReducer.Reduction reduction = metrics.recordStage(Stage.REDUCTION,
+                () -> GraphReducer.reduce(compatibilities, sources, maxCycleLength, maxChainLength));
+        metrics.recordReduction(reduction.getRemovedEdges(), reduction.getEdgesAfter(),
+                reduction.getComponents().size());
+        logger.info("Reduced pool from {} pairs and {} compatibilities to {} pairs and {} edges in {} components {}",
+                reduction.getPairsBefore(), reduction.getEdgesBefore(), reduction.getPairsAfter(),
+                reduction.getEdgesAfter(), reduction.getComponents().size(), reduction.getRemovedEdges());
+        return reduction;
+    }
+
     /**
      * Find optimal matches using Edmonds' Blossom Algorithm
      * @param compatibilities List of compatibility relationships
      * @return List of optimal matches
      */
     public List<MatchDto> findOptimalMatches(List<Compatibility> compatibilities) {
+        List<MatchDto> matches = new ArrayList<>();
+        findOptimalMatches(compatibilities, matches::addAll);
+        return matches;
+    }
+
+    /**
+     * Find optimal matches, handing the matching to the sink as one batch, best score first
+     */
+    public void findOptimalMatches(List<Compatibility> compatibilities, Consumer<List<MatchDto>> sink) {
         logger.info("Starting optimal matching algorithm with {} compatibilities", compatibilities.size());
+        AlgorithmInvocationEvent event = new AlgorithmInvocationEvent();
+        event.begin();
 
         // Build compatibility graph
         Graph<UUID, DefaultWeightedEdge> graph = buildCompatibilityGraph(compatibilities);
 
         // Apply Edmonds' Blossom Algorithm
-        KolmogorovWeightedPerfectMatching<UUID, DefaultWeightedEdge> matching =
-                new KolmogorovWeightedPerfectMatching<>(graph);
-
-        Set<DefaultWeightedEdge> matchingEdges = matching.getMatching().getEdges();
+        Set<DefaultWeightedEdge> matchingEdges = metrics.recordStage(Stage.BLOSSOM, () ->
+                new KolmogorovWeightedMatching<>(graph, ObjectiveSense.MAXIMIZE).getMatching().getEdges());
 
         List<MatchDto> matches = new ArrayList<>();
 
@@ -58,7 +136,8 @@ public class MatchingAlgorithmService {
         }
 
         logger.info("Found {} optimal matches", matches.size());
-        return matches;
+        commitInvocation(event, "blossom", graph, matches.size());
+        sink.accept(byScoreDescending(matches));
     }
 
     /**
@@ -68,23 +147,43 @@ public class MatchingAlgorithmService {
      * @return List of cycle matches
      */
     public List<MatchDto> findCycles(List<Compatibility> compatibilities, int maxCycleLength) {
+        List<MatchDto> cycles = new ArrayList<>();
+        findCycles(compatibilities, maxCycleLength, cycles::addAll);
+        return cycles;
+    }
+
+    /**
+     * Find cycles, handing each cycle length to the sink as soon as it is enumerated
+     * (2-way cycles before the 3-way search starts), best score first within a batch
+     */
+    public void findCycles(List<Compatibility> compatibilities, int maxCycleLength, Consumer<List<MatchDto>> sink) {
         logger.info("Finding cycles with max length: {}", maxCycleLength);
+        AlgorithmInvocationEvent event = new AlgorithmInvocationEvent();
+        event.begin();
 
-        Graph<UUID, DefaultWeightedEdge> graph = buildCompatibilityGraph(compatibilities);
-        List<MatchDto> cycles = new ArrayList<>();
+        CompatibilityGraph graph = buildSearchGraph(compatibilities);
+        int[] found = new int[1];
 
-        // Find 2-way cycles
-        if (maxCycleLength >= 2) {
-            cycles.addAll(findTwoWayCycles(graph));
-        }
+        metrics.recordStage(Stage.CYCLES, () -> {
+            try (SearchWorkspace workspace = workspaces.acquire(graph.vertexCount())) {
+                // Find 2-way cycles
+                if (maxCycleLength >= 2) {
+                    CandidateBuffer twoWay = findTwoWayCycles(graph, workspace);
+                    found[0] += twoWay.size();
+                    sink.accept(toMatches(twoWay, graph, MatchType.TWO_WAY_CYCLE));
+                }
 
-        // Find 3-way cycles
-        if (maxCycleLength >= 3) {
-            cycles.addAll(findThreeWayCycles(graph));
-        }
+                // Find 3-way cycles
+                if (maxCycleLength >= 3) {
+                    CandidateBuffer threeWay = findThreeWayCycles(graph, workspace);
+                    found[0] += threeWay.size();
+                    sink.accept(toMatches(threeWay, graph, MatchType.THREE_WAY_CYCLE));
+                }
+            }
+        });
 
-        logger.info("Found {} cycles", cycles.size());
-        return cycles;
+        logger.info("Found {} cycles", found[0]);
+        commitInvocation(event, "cycles", graph, found[0]);
     }
 
     /**
@@ -96,44 +195,538 @@ public class MatchingAlgorithmService {
      */
     public List<MatchDto> findChains(List<Compatibility> compatibilities,
                                      List<UUID> altruisticDonors, int maxChainLength) {
+        List<MatchDto> chains = new ArrayList<>();
+        findChains(compatibilities, altruisticDonors, maxChainLength, chains::addAll);
+        return chains;
+    }
+
+    /**
+     * Find chains, handing each altruistic donor's chains to the sink as soon as they are found
+     */
+    public void findChains(List<Compatibility> compatibilities, List<UUID> altruisticDonors,
+                           int maxChainLength, Consumer<List<MatchDto>> sink) {
         logger.info("Finding chains with max length: {} from {} altruistic donors", maxChainLength, altruisticDonors.size());
+        AlgorithmInvocationEvent event = new AlgorithmInvocationEvent();
+        event.begin();
 
-        Graph<UUID, DefaultWeightedEdge> graph = buildCompatibilityGraph(compatibilities);
-        List<MatchDto> chains = new ArrayList<>();
+        CompatibilityGraph graph = buildSearchGraph(compatibilities);
+        int[] found = new int[1];
 
-        for (UUID altruisticDonor : altruisticDonors) {
-            List<List<UUID>> foundChains = findChainsFromDonor(graph, altruisticDonor, maxChainLength);
+        metrics.recordStage(Stage.CHAINS, () -> {
+            try (SearchWorkspace workspace = workspaces.acquire(graph.vertexCount())) {
+                mark(graph, altruisticDonors, workspace.sources);
+                for (UUID altruisticDonor : new TreeSet<>(altruisticDonors)) {
+                    int start = graph.indexOf(altruisticDonor);
+                    if (start < 0) {
+                        continue;
+                    }
+                    CandidateBuffer candidates = findChainsFromDonor(graph, start, maxChainLength, workspace);
+                    List<MatchDto> chains = new ArrayList<>();
 
-            for (List<UUID> chain : foundChains) {
-                MatchDto match = new MatchDto();
-                match.setMatchType(MatchType.CHAIN.name());
-                match.setStatus(MatchStatus.PENDING.name());
-                match.setPairIds(chain);
-                match.setCompatibilityScore(calculateChainScore(graph, chain));
+                    for (int i = 0; i < candidates.size(); i++) {
+                        // Sources have no recipient waiting, so they can only start a chain
+                        if (!candidates.containsAny(i, 1, workspace.sources)) {
+                            chains.add(candidates.toMatch(i, graph, MatchType.CHAIN));
+                        }
+                    }
+                    found[0] += chains.size();
+                    if (!chains.isEmpty()) {
+                        sink.accept(byScoreDescending(chains));
+                    }
+                }
+            }
+        });
+
+        logger.info("Found {} chains", found[0]);
+        commitInvocation(event, "chains", graph, found[0]);
+    }
+
+    /**
+     * Extend open chains from their tails only. Each chain starts at one of the given source
+     * donors and, when a pair is given, passes through it, so only chains a new pair made
+     * possible are enumerated.
+     * @param compatibilities Compatibilities around the sources and the new pair
+     * @param sources Donors that can start a chain: altruistic donors and bridge donors at chain tails
+     * @param throughPair Pair every chain must include, or null for any chain
+     * @param unavailablePairs Pairs that must not be used, such as pairs held by active matches
+     * @return Disjoint chains, at most one per source, best score first
+     */
+    public List<MatchDto> extendChains(List<Compatibility> compatibilities, Collection<UUID> sources, UUID throughPair,
+                                       Set<UUID> unavailablePairs, int maxChainLength) {
+        return extendChainsThrough(compatibilities, sources, throughPair != null ? Set.of(throughPair) : Set.of(),
+                unavailablePairs, maxChainLength);
+    }
+
+    /**
+     * Extend open chains from their tails only, keeping chains that pass through at least one of
+     * the given pairs, such as pairs freed by a failed exchange
+     * @param throughPairs Pairs a chain must include one of, or empty for any chain
+     * @return Disjoint chains, at most one per source, best score first
+     */
+    public List<MatchDto> extendChainsThrough(List<Compatibility> compatibilities, Collection<UUID> sources,
+                                              Set<UUID> throughPairs, Set<UUID> unavailablePairs, int maxChainLength) {
+        AlgorithmInvocationEvent event = new AlgorithmInvocationEvent();
+        event.begin();
 
-                chains.add(match);
+        CompatibilityGraph graph = buildSearchGraph(compatibilities);
+        List<MatchDto> candidates = new ArrayList<>();
+
+        metrics.recordStage(Stage.CHAINS, () -> {
+            if (!throughPairs.isEmpty() && throughPairs.stream().allMatch(pair -> graph.indexOf(pair) < 0)) {
+                return;
+            }
+            try (SearchWorkspace workspace = workspaces.acquire(graph.vertexCount())) {
+                mark(graph, sources, workspace.sources);
+                mark(graph, unavailablePairs, workspace.unavailable);
+                mark(graph, throughPairs, workspace.through);
+                for (UUID source : new TreeSet<>(sources)) {
+                    int start = graph.indexOf(source);
+                    if (start < 0) {
+                        continue;
+                    }
+                    CandidateBuffer chains = findChainsFromDonor(graph, start, maxChainLength, workspace);
+                    for (int i = 0; i < chains.size(); i++) {
+                        if ((throughPairs.isEmpty() || chains.containsAny(i, 0, workspace.through))
+                                && !chains.containsAny(i, 0, workspace.unavailable)
+                                && !chains.containsAny(i, 1, workspace.sources)) {
+                            candidates.add(chains.toMatch(i, graph, MatchType.CHAIN));
+                        }
+                    }
+                }
+            }
+        });
+
+        // Keep the best chains that share no pair
+        List<MatchDto> selected = new ArrayList<>();
+        Set<UUID> used = new HashSet<>();
+        for (MatchDto chain : byScoreDescending(candidates)) {
+            if (chain.getPairIds().stream().noneMatch(used::contains)) {
+                used.addAll(chain.getPairIds());
+                selected.add(chain);
             }
         }
 
-        logger.info("Found {} chains", chains.size());
-        return chains;
+        logger.info("Extended {} of {} open chains{}", selected.size(), sources.size(),
+                throughPairs.isEmpty() ? "" : " through " + throughPairs.size() + " pairs");
+        commitInvocation(event, "chain_extension", graph, selected.size());
+        return selected;
+    }
+
+    /**
+     * Find replacement cycles for pairs freed by a failed exchange. Only cycles through at least
+     * one freed pair are searched, on the directed graph of the given compatibilities, and the
+     * search stops at the deadline with what it found so far.
+     * @param compatibilities Compatibilities among the freed pairs and their neighbours
+     * @param freedPairs Pairs to find new partners for
+     * @param unavailablePairs Pairs that must not be used, such as pairs held by active matches
+     * @param maxCycleLength Longest cycle to consider, 2 or 3
+     * @param deadlineNanos {@link System#nanoTime()} value at which the search stops
+     * @return Disjoint replacement cycles, best score first
+     */
+    public List<MatchDto> findRepairCycles(List<Compatibility> compatibilities, Set<UUID> freedPairs,
+                                           Set<UUID> unavailablePairs, int maxCycleLength, long deadlineNanos) {
+        AlgorithmInvocationEvent event = new AlgorithmInvocationEvent();
+        event.begin();
+
+        EdgeOdds odds = edgeOdds(compatibilities);
+        Map<UUID, Map<UUID, Double>> successors = new HashMap<>();
+        int edgeCount = 0;
+        for (Compatibility compatibility : ordered(compatibilities)) {
+            UUID donor = compatibility.getDonorPairId();
+            UUID recipient = compatibility.getRecipientPairId();
+            if (compatibility.getBloodTypeCompatible() && compatibility.getHlaCompatible()
+                    && compatibility.getCrossmatchCompatible() && !donor.equals(recipient)
+                    && !unavailablePairs.contains(donor) && !unavailablePairs.contains(recipient)
+                    && successors.computeIfAbsent(donor, d -> new TreeMap<>())
+                            .putIfAbsent(recipient, compatibility.getCompatibilityScore()) == null) {
+                edgeCount++;
+            }
+        }
+
+        int maxLength = Math.max(2, Math.min(maxCycleLength, 3));
+        List<MatchDto> candidates = new ArrayList<>();
+        Set<Set<UUID>> seen = new HashSet<>();
+        boolean[] timedOut = new boolean[1];
+        metrics.recordStage(Stage.REPAIR, () -> {
+            for (UUID start : new TreeSet<>(freedPairs)) {
+                if (unavailablePairs.contains(start)) {
+                    continue;
+                }
+                List<UUID> path = new ArrayList<>();
+                path.add(start);
+                if (!findRepairCyclesFrom(successors, odds, path, 0.0, 1.0, maxLength, deadlineNanos, seen,
+                        candidates)) {
+                    timedOut[0] = true;
+                    break;
+                }
+            }
+        });
+
+        // Keep the best cycles that share no pair
+        List<MatchDto> selected = new ArrayList<>();
+        Set<UUID> used = new HashSet<>();
+        for (MatchDto cycle : byScoreDescending(candidates)) {
+            if (cycle.getPairIds().stream().noneMatch(used::contains)) {
+                used.addAll(cycle.getPairIds());
+                selected.add(cycle);
+            }
+        }
+
+        metrics.candidatesEnumerated("repair_cycle", candidates.size());
+        metrics.candidatesPruned("repair_cycle", candidates.size() - selected.size());
+        if (timedOut[0]) {
+            logger.warn("Repair search for {} freed pairs hit its deadline after {} candidate cycles",
+                    freedPairs.size(), candidates.size());
+        }
+        logger.info("Found {} replacement cycles covering {} of {} freed pairs", selected.size(),
+                freedPairs.stream().filter(used::contains).count(), freedPairs.size());
+        commitInvocation(event, "repair", successors.size(), edgeCount, selected.size());
+        return selected;
+    }
+
+    /**
+     * Extend the path along compatibilities, recording every cycle that closes back at its first pair
+     * @param score Summed compatibility of the path so far
+     * @param probability Chance that every transplant on the path so far goes ahead
+     * @return False if the deadline passed
+     */
+    private boolean findRepairCyclesFrom(Map<UUID, Map<UUID, Double>> successors, EdgeOdds odds, List<UUID> path,
+                                         double score, double probability, int maxLength, long deadlineNanos,
+                                         Set<Set<UUID>> seen, List<MatchDto> cycles) {
+        if (System.nanoTime() - deadlineNanos > 0) {
+            return false;
+        }
+        UUID start = path.get(0);
+        UUID current = path.get(path.size() - 1);
+        for (Map.Entry<UUID, Double> edge : successors.getOrDefault(current, Map.of()).entrySet()) {
+            UUID next = edge.getKey();
+            double extended = score + (edge.getValue() != null ? edge.getValue() : 0.0);
+            double extendedProbability = probability * odds.of(current, next);
+            if (next.equals(start)) {
+                if (path.size() >= 2 && seen.add(new HashSet<>(path))) {
+                    MatchDto cycle = new MatchDto();
+                    cycle.setMatchType(path.size() == 2 ? MatchType.TWO_WAY_CYCLE.name() : MatchType.THREE_WAY_CYCLE.name());
+                    cycle.setStatus(MatchStatus.PENDING.name());
+                    cycle.setPairIds(new ArrayList<>(path));
+                    // A cycle only happens if all of its transplants do
+                    cycle.setCompatibilityScore(extended * extendedProbability);
+                    cycles.add(cycle);
+                }
+            } else if (path.size() < maxLength && !path.contains(next)) {
+                path.add(next);
+                boolean inTime = findRepairCyclesFrom(successors, odds, path, extended, extendedProbability, maxLength,
+                        deadlineNanos, seen, cycles);
+                path.remove(path.size() - 1);
+                if (!inTime) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rank each pair's out-edges by score for single-pair option searches
+     */
+    public RankedAdjacency rankAdjacency(List<Compatibility> compatibilities) {
+        EdgeOdds odds = edgeOdds(compatibilities);
+        Map<UUID, Map<UUID, Double>> successors = new HashMap<>();
+        Map<UUID, List<UUID>> predecessors = new HashMap<>();
+        double maxWeight = 0.0;
+        for (Compatibility compatibility : ordered(compatibilities)) {
+            UUID donor = compatibility.getDonorPairId();
+            UUID recipient = compatibility.getRecipientPairId();
+            Double score = compatibility.getCompatibilityScore();
+            if (compatibility.getBloodTypeCompatible() && compatibility.getHlaCompatible()
+                    && compatibility.getCrossmatchCompatible() && score != null && !donor.equals(recipient)
+                    && successors.computeIfAbsent(donor, d -> new HashMap<>()).putIfAbsent(recipient, score) == null) {
+                predecessors.computeIfAbsent(recipient, r -> new ArrayList<>()).add(donor);
+                maxWeight = Math.max(maxWeight, score);
+            }
+        }
+
+        Map<UUID, RankedAdjacency.Edges> outgoing = new HashMap<>();
+        successors.forEach((donor, recipients) -> {
+            UUID[] targets = new UUID[recipients.size()];
+            double[] weights = new double[targets.length];
+            double[] probabilities = new double[targets.length];
+            int i = 0;
+            for (Map.Entry<UUID, Double> edge : recipients.entrySet()) {
+                targets[i] = edge.getKey();
+                weights[i] = edge.getValue();
+                probabilities[i] = odds.of(donor, edge.getKey());
+                i++;
+            }
+            outgoing.put(donor, RankedAdjacency.Edges.ranked(targets, weights, probabilities));
+        });
+        Map<UUID, UUID[]> incoming = new HashMap<>();
+        predecessors.forEach((recipient, donors) -> incoming.put(recipient, donors.toArray(new UUID[0])));
+        return new RankedAdjacency(outgoing, incoming, maxWeight);
+    }
+
+    /**
+     * Best cycles and chains containing one pair, found by a bounded search from that pair
+     * instead of matching the whole pool. Cycles are searched from the pair itself; chains from
+     * the sources that reach the pair within the chain length, only along edges that can still
+     * reach it. Edges are tried best first and the search stops at the first edge that cannot
+     * lift a candidate into the top K.
+     * @param adjacency Ranked compatibility graph of the pool
+     * @param sources Donors that can start a chain
+     * @param pairId Pair every option must include
+     * @param unavailable Pairs other options must not use, such as pairs held by active matches
+     * @return Up to {@code k} options, best score first
+     */
+    public List<MatchDto> findBestOptions(RankedAdjacency adjacency, Collection<UUID> sources, UUID pairId,
+                                          Predicate<UUID> unavailable, int maxCycleLength, int maxChainLength,
+                                          int k) {
+        if (k <= 0 || !adjacency.contains(pairId)) {
+            return List.of();
+        }
+        TopOptions best = new TopOptions(k);
+        Predicate<UUID> excluded = pair -> !pair.equals(pairId) && unavailable.test(pair);
+
+        if (maxCycleLength >= 2) {
+            List<UUID> path = new ArrayList<>();
+            path.add(pairId);
+            searchCycles(adjacency, path, 0.0, 1.0, Math.min(maxCycleLength, 3), excluded, best);
+        }
+
+        if (maxChainLength >= 2) {
+            // Hops from each pair to the queried pair, walking compatibilities backwards
+            Map<UUID, Integer> hopsToPair = new HashMap<>();
+            hopsToPair.put(pairId, 0);
+            List<UUID> frontier = List.of(pairId);
+            for (int hop = 1; hop < maxChainLength && !frontier.isEmpty(); hop++) {
+                List<UUID> next = new ArrayList<>();
+                for (UUID pair : frontier) {
+                    for (UUID donor : adjacency.incoming(pair)) {
+                        if (!excluded.test(donor) && hopsToPair.putIfAbsent(donor, hop) == null) {
+                            next.add(donor);
+                        }
+                    }
+                }
+                frontier = next;
+            }
+            Set<UUID> sourceSet = new TreeSet<>(sources);
+            for (UUID source : sourceSet) {
+                if (hopsToPair.containsKey(source)) {
+                    List<UUID> chain = new ArrayList<>();
+                    chain.add(source);
+                    searchChains(adjacency, chain, source.equals(pairId), 1.0, 0.0, maxChainLength, pairId,
+                            hopsToPair, sourceSet, excluded, best);
+                }
+            }
+        }
+        return best.toList();
+    }
+
+    /**
+     * Extend the path from the queried pair, offering every cycle that closes back at it
+     */
+    private void searchCycles(RankedAdjacency adjacency, List<UUID> path, double score, double probability,
+                              int maxLength, Predicate<UUID> excluded, TopOptions best) {
+        UUID start = path.get(0);
+        RankedAdjacency.Edges out = adjacency.outgoing(path.get(path.size() - 1));
+        // Edges the cycle may still gain after the next one, closing edge included
+        int remaining = maxLength - path.size();
+        for (int i = 0; i < out.targets.length; i++) {
+            double bound = (score + out.weights[i] + remaining * adjacency.getMaxWeight()) * probability;
+            if (bound <= best.threshold()) {
+                break;
+            }
+            UUID next = out.targets[i];
+            double extended = score + out.weights[i];
+            double extendedProbability = probability * out.probabilities[i];
+            if (next.equals(start)) {
+                if (path.size() >= 2) {
+                    best.offer(path.size() == 2 ? MatchType.TWO_WAY_CYCLE : MatchType.THREE_WAY_CYCLE,
+                            path, extended * extendedProbability);
+                }
+            } else if (path.size() < maxLength && !path.contains(next) && !excluded.test(next)) {
+                path.add(next);
+                searchCycles(adjacency, path, extended, extendedProbability, maxLength, excluded, best);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Extend the chain from its source, offering every chain that has passed through the queried pair
+     * @param through Whether the chain already includes the queried pair
+     */
+    private void searchChains(RankedAdjacency adjacency, List<UUID> chain, boolean through,
+                              double reachProbability, double expectedScore, int maxLength, UUID pairId,
+                              Map<UUID, Integer> hopsToPair, Set<UUID> sources, Predicate<UUID> excluded,
+                              TopOptions best) {
+        if (through && chain.size() >= 2) {
+            best.offer(MatchType.CHAIN, chain, expectedScore);
+        }
+        if (chain.size() >= maxLength) {
+            return;
+        }
+        RankedAdjacency.Edges out = adjacency.outgoing(chain.get(chain.size() - 1));
+        int remaining = maxLength - chain.size() - 1;
+        for (int i = 0; i < out.targets.length; i++) {
+            double bound = expectedScore + reachProbability * (out.weights[i] + remaining * adjacency.getMaxWeight());
+            if (bound <= best.threshold()) {
+                break;
+            }
+            UUID next = out.targets[i];
+            double extendedProbability = reachProbability * out.probabilities[i];
+            Integer hops = hopsToPair.get(next);
+            if (extendedProbability < minPathProbability || chain.contains(next) || sources.contains(next)
+                    || excluded.test(next) || (!through && (hops == null || chain.size() + 1 + hops > maxLength))) {
+                continue;
+            }
+            chain.add(next);
+            searchChains(adjacency, chain, through || next.equals(pairId), extendedProbability,
+                    expectedScore + out.weights[i] * extendedProbability, maxLength, pairId, hopsToPair, sources,
+                    excluded, best);
+            chain.remove(chain.size() - 1);
+        }
+    }
+
+    /**
+     * Matches for every candidate in the buffer, best score first
+     */
+    private static List<MatchDto> toMatches(CandidateBuffer candidates, CompatibilityGraph graph, MatchType type) {
+        List<MatchDto> matches = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            matches.add(candidates.toMatch(i, graph, type));
+        }
+        return byScoreDescending(matches);
+    }
+
+    /**
+     * Add the vertices of the given pairs that are in the graph to the set
+     */
+    private static void mark(CompatibilityGraph graph, Collection<UUID> pairIds, SearchWorkspace.StampSet marked) {
+        for (UUID pairId : pairIds) {
+            int vertex = graph.indexOf(pairId);
+            if (vertex >= 0) {
+                marked.add(vertex);
+            }
+        }
+    }
+
+    private static List<MatchDto> byScoreDescending(List<MatchDto> matches) {
+        matches.sort(BEST_FIRST);
+        return matches;
+    }
+
+    /**
+     * Compatibilities sorted by donor, recipient and score, best score first, then success
+     * probability, so that graphs and searches built from them do not depend on load order and
+     * keep the same compatibility of several between a donor and recipient as {@link GraphReducer}
+     */
+    private static List<Compatibility> ordered(List<Compatibility> compatibilities) {
+        List<Compatibility> ordered = new ArrayList<>(compatibilities);
+        ordered.sort(EDGE_ORDER);
+        return ordered;
     }
 
     /**
-     * Build compatibility graph from compatibility relationships
+     * SHA-256 of everything a matching run reads: each compatibility's pairs, flags, score and
+     * success probability, the chain sources, the length limits and the scoring settings. Equal
+     * fingerprints mean the run would produce the same matches. Independent of input order.
+     */
+    public String fingerprint(List<Compatibility> compatibilities, Collection<UUID> sources,
+                              int maxCycleLength, int maxChainLength) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        for (Compatibility compatibility : ordered(compatibilities)) {
+            buffer.clear();
+            putUuid(buffer, compatibility.getDonorPairId());
+            putUuid(buffer, compatibility.getRecipientPairId());
+            buffer.put((byte) ((Boolean.TRUE.equals(compatibility.getBloodTypeCompatible()) ? 1 : 0)
+                    | (Boolean.TRUE.equals(compatibility.getHlaCompatible()) ? 2 : 0)
+                    | (Boolean.TRUE.equals(compatibility.getCrossmatchCompatible()) ? 4 : 0)));
+            putNullable(buffer, compatibility.getCompatibilityScore());
+            putNullable(buffer, compatibility.getSuccessProbability());
+            digest.update(buffer.flip());
+        }
+        for (UUID source : new TreeSet<>(sources)) {
+            buffer.clear();
+            putUuid(buffer, source);
+            digest.update(buffer.flip());
+        }
+        buffer.clear();
+        buffer.putInt(compatibilities.size()).putInt(sources.size()).putInt(maxCycleLength).putInt(maxChainLength)
+                .put((byte) (isExpectedScoring() ? 1 : 0))
+                .putDouble(defaultSuccessProbability).putDouble(minPathProbability);
+        digest.update(buffer.flip());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private static void putNullable(ByteBuffer buffer, Double value) {
+        buffer.put((byte) (value != null ? 1 : 0)).putDouble(value != null ? value : 0.0);
+    }
+
+    /**
+     * Record an algorithm invocation in the flight recorder
+     */
+    private void commitInvocation(AlgorithmInvocationEvent event, String algorithm,
+                                  Graph<UUID, DefaultWeightedEdge> graph, int resultCount) {
+        commitInvocation(event, algorithm, graph.vertexSet().size(), graph.edgeSet().size(), resultCount);
+    }
+
+    private void commitInvocation(AlgorithmInvocationEvent event, String algorithm,
+                                  CompatibilityGraph graph, int resultCount) {
+        commitInvocation(event, algorithm, graph.vertexCount(), graph.edgeCount(), resultCount);
+    }
+
+    private void commitInvocation(AlgorithmInvocationEvent event, String algorithm,
+                                  int poolSize, int edgeCount, int resultCount) {
+        if (event.complete()) {
+            event.algorithm = algorithm;
+            event.poolSize = poolSize;
+            event.edgeCount = edgeCount;
+            event.resultCount = resultCount;
+            event.commit();
+        }
+    }
+
+    /**
+     * Build the undirected compatibility graph that pairwise matching works on
      */
     private Graph<UUID, DefaultWeightedEdge> buildCompatibilityGraph(List<Compatibility> compatibilities) {
-        Graph<UUID, DefaultWeightedEdge> graph = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        return metrics.recordStage(Stage.GRAPH_BUILD, () -> {
+            GraphBuildEvent event = new GraphBuildEvent();
+            event.begin();
+            Graph<UUID, DefaultWeightedEdge> graph = buildGraph(compatibilities);
+            metrics.updatePoolSize(graph.vertexSet().size(), graph.edgeSet().size());
+            if (event.complete()) {
+                event.poolSize = graph.vertexSet().size();
+                event.edgeCount = graph.edgeSet().size();
+                event.resultCount = compatibilities.size();
+                event.commit();
+            }
+            return graph;
+        });
+    }
+
+    private Graph<UUID, DefaultWeightedEdge> buildGraph(List<Compatibility> compatibilities) {
+        // Maximum weight matching adds helper vertices, so it needs a vertex supplier
+        Graph<UUID, DefaultWeightedEdge> graph = new SimpleWeightedGraph<>(UUID::randomUUID, DefaultWeightedEdge::new);
 
-        // Add vertices
+        // Add vertices, in pair ID order so that every search visits them in the same order
         Set<UUID> vertices = compatibilities.stream()
                 .flatMap(c -> Arrays.stream(new UUID[]{c.getDonorPairId(), c.getRecipientPairId()}))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(TreeSet::new));
 
         vertices.forEach(graph::addVertex);
 
         // Add edges with weights
-        for (Compatibility compatibility : compatibilities) {
+        for (Compatibility compatibility : ordered(compatibilities)) {
             if (compatibility.getBloodTypeCompatible() &&
                     compatibility.getHlaCompatible() &&
                     compatibility.getCrossmatchCompatible()) {
@@ -151,33 +744,47 @@ public class MatchingAlgorithmService {
         return graph;
     }
 
+    /**
+     * Build the directed graph that cycle and chain searches read, on or off the heap as
+     * configured, with each edge's success probability under the scoring mode
+     */
+    private CompatibilityGraph buildSearchGraph(List<Compatibility> compatibilities) {
+        return metrics.recordStage(Stage.GRAPH_BUILD, () -> {
+            GraphBuildEvent event = new GraphBuildEvent();
+            event.begin();
+            CompatibilityGraph graph = CompatibilityGraph.build(ordered(compatibilities), edgeOdds(compatibilities),
+                    offHeapGraph);
+            metrics.updatePoolSize(graph.vertexCount(), graph.edgeCount());
+            if (event.complete()) {
+                event.poolSize = graph.vertexCount();
+                event.edgeCount = graph.edgeCount();
+                event.resultCount = compatibilities.size();
+                event.commit();
+            }
+            return graph;
+        });
+    }
+
     /**
      * Find 2-way cycles in the graph
      */
-    private List<MatchDto> findTwoWayCycles(Graph<UUID, DefaultWeightedEdge> graph) {
-        List<MatchDto> cycles = new ArrayList<>();
-        Set<UUID> visited = new HashSet<>();
+    private CandidateBuffer findTwoWayCycles(CompatibilityGraph graph, SearchWorkspace workspace) {
+        CandidateBuffer cycles = workspace.pairs;
+        SearchWorkspace.StampSet visited = workspace.visited;
+        visited.clear(graph.vertexCount());
+        long enumerated = 0;
 
-        for (UUID vertex : graph.vertexSet()) {
+        for (int vertex = 0; vertex < graph.vertexCount(); vertex++) {
             if (!visited.contains(vertex)) {
-                for (DefaultWeightedEdge edge : graph.outgoingEdgesOf(vertex)) {
-                    UUID neighbor = graph.getEdgeTarget(edge);
+                for (int edge = graph.firstEdge(vertex); edge < graph.endEdge(vertex); edge++) {
+                    int neighbor = graph.target(edge);
                     // Check for reciprocal edge
-                    if (graph.containsEdge(neighbor, vertex)) {
+                    int back = graph.findEdge(neighbor, vertex);
+                    if (back >= 0) {
+                        enumerated++;
                         // Avoid duplicates
-                        if (!visited.contains(neighbor) && vertex.compareTo(neighbor) < 0) {
-                            double totalScore = graph.getEdgeWeight(edge);
-                            DefaultWeightedEdge reverseEdge = graph.getEdge(neighbor, vertex);
-                            if (reverseEdge != null) {
-                                totalScore += graph.getEdgeWeight(reverseEdge);
-                            }
-                            MatchDto cycle = new MatchDto();
-                            cycle.setMatchType(MatchType.TWO_WAY_CYCLE.name());
-                            cycle.setStatus(MatchStatus.PENDING.name());
-                            cycle.setPairIds(Arrays.asList(vertex, neighbor));
-                            cycle.setCompatibilityScore(totalScore);
-
-                            cycles.add(cycle);
+                        if (!visited.contains(neighbor) && vertex < neighbor) {
+                            cycles.add(vertex, neighbor, twoWayScore(graph, edge, back));
                             visited.add(vertex);
                             visited.add(neighbor);
                         }
@@ -186,101 +793,235 @@ public class MatchingAlgorithmService {
             }
         }
 
+        metrics.candidatesEnumerated("two_way_cycle", enumerated);
+        metrics.candidatesPruned("two_way_cycle", enumerated - cycles.size());
         return cycles;
     }
 
     /**
-     * Find 3-way cycles in the graph
+     * Find 3-way cycles in the graph. Every cycle is walked once from each of its pairs; only the
+     * walk starting at its lowest-numbered pair is kept, and when both directions around the same
+     * three pairs are cycles, only the one through the lower-numbered second pair.
      */
-    private List<MatchDto> findThreeWayCycles(Graph<UUID, DefaultWeightedEdge> graph) {
-        List<MatchDto> cycles = new ArrayList<>();
-        Set<Set<UUID>> visited = new HashSet<>();
-
-        for (UUID v1 : graph.vertexSet()) {
-            for (DefaultWeightedEdge e1 : graph.outgoingEdgesOf(v1)) {
-                UUID v2 = graph.getEdgeTarget(e1);
-                for (DefaultWeightedEdge e2 : graph.outgoingEdgesOf(v2)) {
-                    UUID v3 = graph.getEdgeTarget(e2);
-                    if (!v3.equals(v1) && graph.containsEdge(v3, v1)) {
-                        Set<UUID> cycleSet = Set.of(v1, v2, v3);
-                        if (!visited.contains(cycleSet)) {
-                            double totalScore = 0.0;
-                            DefaultWeightedEdge e12 = graph.getEdge(v1, v2);
-                            DefaultWeightedEdge e23 = graph.getEdge(v2, v3);
-                            DefaultWeightedEdge e31 = graph.getEdge(v3, v1);
-                            if (e12 != null) totalScore += graph.getEdgeWeight(e12);
-                            if (e23 != null) totalScore += graph.getEdgeWeight(e23);
-                            DefaultWeightedEdge revEdge = graph.getEdge(v3, v1);
-                            if (revEdge != null) {
-                                totalScore += graph.getEdgeWeight(revEdge);
-                            }
-                            MatchDto cycle = new MatchDto();
-                            cycle.setMatchType(MatchType.THREE_WAY_CYCLE.name());
-                            cycle.setStatus(MatchStatus.PENDING.name());
-                            cycle.setPairIds(Arrays.asList(v1, v2, v3));
-                            cycle.setCompatibilityScore(totalScore);
-                            cycles.add(cycle);
-                            visited.add(cycleSet);
+    private CandidateBuffer findThreeWayCycles(CompatibilityGraph graph, SearchWorkspace workspace) {
+        CandidateBuffer cycles = workspace.triples;
+        long enumerated = 0;
+
+        for (int v1 = 0; v1 < graph.vertexCount(); v1++) {
+            for (int e1 = graph.firstEdge(v1); e1 < graph.endEdge(v1); e1++) {
+                int v2 = graph.target(e1);
+                for (int e2 = graph.firstEdge(v2); e2 < graph.endEdge(v2); e2++) {
+                    int v3 = graph.target(e2);
+                    int e3 = v3 != v1 ? graph.findEdge(v3, v1) : -1;
+                    if (e3 >= 0) {
+                        enumerated++;
+                        if (v1 < v2 && v1 < v3 && (v2 < v3 || !isCycle(graph, v1, v3, v2))) {
+                            cycles.add(v1, v2, v3, threeWayScore(graph, v1, v2, v3, e1, e2, e3));
                         }
                     }
                 }
             }
         }
 
+        metrics.candidatesEnumerated("three_way_cycle", enumerated);
+        metrics.candidatesPruned("three_way_cycle", enumerated - cycles.size());
         return cycles;
     }
 
+    private static boolean isCycle(CompatibilityGraph graph, int a, int b, int c) {
+        return graph.findEdge(a, b) >= 0 && graph.findEdge(b, c) >= 0 && graph.findEdge(c, a) >= 0;
+    }
+
     /**
-     * Find chains starting from a specific donor
+     * Expected compatibility of the 2-way cycle formed by two reciprocal edges: both transplants
+     * must go ahead
      */
-    private List<List<UUID>> findChainsFromDonor(Graph<UUID, DefaultWeightedEdge> graph,
-                                                 UUID startDonor, int maxLength) {
-        List<List<UUID>> chains = new ArrayList<>();
-        List<UUID> currentChain = new ArrayList<>();
-        Set<UUID> visited = new HashSet<>();
+    private static double twoWayScore(CompatibilityGraph graph, int forward, int back) {
+        return (graph.weight(forward) + graph.weight(back)) * graph.probability(forward) * graph.probability(back);
+    }
+
+    /**
+     * Expected compatibility of the 3-way cycle a -> b -> c -> a along the edges ab, bc and ca.
+     * When the cycle falls through, a back arc may still let two of its pairs exchange with each
+     * other; the best such fallback is added for the case where its two transplants go ahead but
+     * the full cycle does not. Under raw scoring every edge succeeds, so this is the summed score.
+     */
+    private static double threeWayScore(CompatibilityGraph graph, int a, int b, int c, int ab, int bc, int ca) {
+        double pab = graph.probability(ab), pbc = graph.probability(bc), pca = graph.probability(ca);
+        double score = (graph.weight(ab) + graph.weight(bc) + graph.weight(ca)) * pab * pbc * pca;
+        double fallback = Math.max(fallbackScore(graph, a, b, ab, pbc * pca),
+                Math.max(fallbackScore(graph, b, c, bc, pab * pca),
+                        fallbackScore(graph, c, a, ca, pab * pbc)));
+        return score + fallback;
+    }
+
+    /**
+     * Expected compatibility of the 2-way cycle formed by the cycle arc from -> to and the back
+     * arc to -> from, counted only when the rest of the cycle fails
+     * @param forward Edge of the cycle arc from -> to
+     * @param rest Success probability of the other two cycle arcs together
+     */
+    private static double fallbackScore(CompatibilityGraph graph, int from, int to, int forward, double rest) {
+        int back = graph.findEdge(to, from);
+        if (back < 0) {
+            return 0.0;
+        }
+        return (graph.weight(forward) + graph.weight(back)) * graph.probability(forward) * graph.probability(back)
+                * (1.0 - rest);
+    }
+
+    /**
+     * Find chains starting from a specific donor, in the workspace's chain buffer
+     */
+    private CandidateBuffer findChainsFromDonor(CompatibilityGraph graph, int startDonor, int maxLength,
+                                                SearchWorkspace workspace) {
+        CandidateBuffer chains = workspace.chains(maxLength);
+        SearchWorkspace.StampSet visited = workspace.visited;
+        visited.clear(graph.vertexCount());
         visited.add(startDonor);
-        findChainsRecursive(graph, startDonor, currentChain, chains, maxLength, visited);
+        long pruned = findChainsRecursive(graph, startDonor, 0, 1.0, 0.0, workspace.path(Math.max(maxLength, 1)),
+                visited, maxLength, chains);
+        metrics.candidatesEnumerated("chain", chains.size() + pruned);
+        metrics.candidatesPruned("chain", pruned);
         return chains;
     }
 
     /**
-     * Recursive helper to find chains
+     * Recursive helper to find chains. Leaves the visited set as it found it.
+     *
+     * A chain delivers each transplant only if every transplant before it went ahead, so the
+     * chance of reaching the current pair and the expected score of the chain so far are carried
+     * down the search instead of being recomputed for every chain. Extensions reached with less
+     * than the minimum path probability are not explored: they add little to the chain.
+     * @param depth Position of the current pair in the path
+     * @param reachProbability Chance that every transplant up to the current pair goes ahead
+     * @param expectedScore Expected compatibility of the chain up to the current pair
+     * @return Number of extensions pruned because they revisited a pair, exceeded the max length
+     *         or were too unlikely to happen
      */
-    private void findChainsRecursive(Graph<UUID, DefaultWeightedEdge> graph, UUID current,
-                                     List<UUID> currentChain, List<List<UUID>> chains,
-                                     int maxLength, Set<UUID> visited) {
-        currentChain.add(current);
-        if (currentChain.size() >= 2) {
-            chains.add(new ArrayList<>(currentChain));
+    private long findChainsRecursive(CompatibilityGraph graph, int current, int depth,
+                                     double reachProbability, double expectedScore,
+                                     int[] path, SearchWorkspace.StampSet visited, int maxLength,
+                                     CandidateBuffer chains) {
+        path[depth] = current;
+        int length = depth + 1;
+        if (length >= 2) {
+            chains.add(path, length, expectedScore);
         }
 
-        if (currentChain.size() >= maxLength) {
-            currentChain.remove(currentChain.size() - 1);
-            return;
+        if (length >= maxLength) {
+            return graph.outDegree(current);
         }
 
-        for (DefaultWeightedEdge e : graph.outgoingEdgesOf(current)) {
-            UUID neighbor = graph.getEdgeTarget(e);
-            if (!visited.contains(neighbor)) {
-                visited.add(neighbor);
-                findChainsRecursive(graph, neighbor, currentChain, chains, maxLength, visited);
-                currentChain.remove(currentChain.size() - 1);
+        long pruned = 0;
+        for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+            int neighbor = graph.target(e);
+            double extendedProbability = reachProbability * graph.probability(e);
+            if (extendedProbability < minPathProbability) {
+                pruned++;
+            } else if (visited.add(neighbor)) {
+                pruned += findChainsRecursive(graph, neighbor, length, extendedProbability,
+                        expectedScore + graph.weight(e) * extendedProbability, path, visited, maxLength, chains);
                 visited.remove(neighbor);
+            } else {
+                pruned++;
             }
         }
+        return pruned;
+    }
+
+    private boolean isExpectedScoring() {
+        return "expected".equalsIgnoreCase(scoringMode);
     }
 
     /**
-     * Calculate total compatibility score of a chain
+     * Success probabilities of the given compatibilities under the configured scoring mode
      */
-    private double calculateChainScore(Graph<UUID, DefaultWeightedEdge> graph, List<UUID> chain) {
-        double score = 0.0;
-        for (int i = 0; i < chain.size() - 1; i++) {
-            DefaultWeightedEdge e = graph.getEdge(chain.get(i), chain.get(i + 1));
-            if (e != null) {
-                score += graph.getEdgeWeight(e);
+    private EdgeOdds edgeOdds(List<Compatibility> compatibilities) {
+        if (!isExpectedScoring()) {
+            return EdgeOdds.CERTAIN;
+        }
+        // Odds of the compatibility the graphs keep for each donor and recipient; null means unknown
+        Map<UUID, Map<UUID, Double>> probabilities = new HashMap<>();
+        for (Compatibility compatibility : ordered(compatibilities)) {
+            if (Boolean.TRUE.equals(compatibility.getBloodTypeCompatible())
+                    && Boolean.TRUE.equals(compatibility.getHlaCompatible())
+                    && Boolean.TRUE.equals(compatibility.getCrossmatchCompatible())) {
+                Map<UUID, Double> fromDonor = probabilities.computeIfAbsent(compatibility.getDonorPairId(),
+                        d -> new HashMap<>());
+                if (!fromDonor.containsKey(compatibility.getRecipientPairId())) {
+                    fromDonor.put(compatibility.getRecipientPairId(), compatibility.getSuccessProbability() != null
+                            ? clamp(compatibility.getSuccessProbability()) : null);
+                }
+            }
+        }
+        return new EdgeOdds(probabilities, clamp(defaultSuccessProbability));
+    }
+
+    private static double clamp(double probability) {
+        return Math.max(0.0, Math.min(1.0, probability));
+    }
+
+    /**
+     * Chance that the transplant along each compatibility goes ahead
+     */
+    static final class EdgeOdds {
+
+        /** Raw scoring: every transplant goes ahead */
+        static final EdgeOdds CERTAIN = new EdgeOdds(Map.of(), 1.0);
+
+        private final Map<UUID, Map<UUID, Double>> probabilities;
+        private final double defaultProbability;
+
+        EdgeOdds(Map<UUID, Map<UUID, Double>> probabilities, double defaultProbability) {
+            this.probabilities = probabilities;
+            this.defaultProbability = defaultProbability;
+        }
+
+        double of(UUID donor, UUID recipient) {
+            Map<UUID, Double> fromDonor = probabilities.get(donor);
+            Double probability = fromDonor != null ? fromDonor.get(recipient) : null;
+            return probability != null ? probability : defaultProbability;
+        }
+    }
+
+    /**
+     * The K best options seen so far, worst on top so it can be displaced
+     */
+    private static final class TopOptions {
+
+        private final int k;
+        private final PriorityQueue<MatchDto> heap = new PriorityQueue<>(
+                Comparator.comparingDouble(MatchDto::getCompatibilityScore));
+
+        TopOptions(int k) {
+            this.k = k;
+        }
+
+        /**
+         * Score an option must beat to enter the top K
+         */
+        double threshold() {
+            return heap.size() < k ? Double.NEGATIVE_INFINITY : heap.peek().getCompatibilityScore();
+        }
+
+        void offer(MatchType type, List<UUID> pairIds, double score) {
+            if (score <= threshold()) {
+                return;
             }
+            MatchDto option = new MatchDto();
+            option.setMatchType(type.name());
+            option.setStatus(MatchStatus.PENDING.name());
+            option.setPairIds(new ArrayList<>(pairIds));
+            option.setCompatibilityScore(score);
+            heap.offer(option);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        List<MatchDto> toList() {
+            return byScoreDescending(new ArrayList<>(heap));
         }
-        return score;
     }
 }
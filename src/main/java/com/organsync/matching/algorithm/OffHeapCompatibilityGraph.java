@@ -0,0 +1,84 @@
+package com.organsync.matching.algorithm;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+/**
+ * Compatibility graph with its edges in direct memory, outside the garbage-collected heap.
+ *
+ * The edge arrays of a large pool are the bulk of a matching run's data; kept off the heap they
+ * are never copied or scanned by the collector. Each array is one direct buffer read with
+ * absolute, native-order accesses. A buffer is indexed by int, which caps a graph at
+ * {@link #MAX_EDGES} edges. The memory is released when the graph becomes unreachable, and
+ * counts against {@code -XX:MaxDirectMemorySize}.
+ */
+final class OffHeapCompatibilityGraph extends AbstractCompatibilityGraph {
+
+    static final int MAX_EDGES = Integer.MAX_VALUE / Double.BYTES;
+
+    private final int edgeCount;
+    private final ByteBuffer firstEdges;
+    private final ByteBuffer targets;
+    private final ByteBuffer weights;
+    private final ByteBuffer probabilities;
+
+    OffHeapCompatibilityGraph(UUID[] pairIds, int edgeCount) {
+        super(pairIds);
+        if (edgeCount > MAX_EDGES) {
+            throw new IllegalArgumentException("Graph of " + edgeCount + " edges exceeds the off-heap limit of "
+                    + MAX_EDGES);
+        }
+        this.edgeCount = edgeCount;
+        this.firstEdges = allocate((pairIds.length + 1) * Integer.BYTES);
+        this.targets = allocate(edgeCount * Integer.BYTES);
+        this.weights = allocate(edgeCount * Double.BYTES);
+        this.probabilities = allocate(edgeCount * Double.BYTES);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int firstEdge(int vertex) {
+        return firstEdges.getInt(vertex * Integer.BYTES);
+    }
+
+    @Override
+    public int endEdge(int vertex) {
+        return firstEdges.getInt((vertex + 1) * Integer.BYTES);
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets.getInt(edge * Integer.BYTES);
+    }
+
+    @Override
+    public double weight(int edge) {
+        return weights.getDouble(edge * Double.BYTES);
+    }
+
+    @Override
+    public double probability(int edge) {
+        return probabilities.getDouble(edge * Double.BYTES);
+    }
+
+    @Override
+    void setFirstEdge(int vertex, int edge) {
+        firstEdges.putInt(vertex * Integer.BYTES, edge);
+    }
+
+    @Override
+    void setEdge(int edge, int target, double weight, double probability) {
+        targets.putInt(edge * Integer.BYTES, target);
+        weights.putDouble(edge * Double.BYTES, weight);
+        probabilities.putDouble(edge * Double.BYTES, probability);
+    }
+}
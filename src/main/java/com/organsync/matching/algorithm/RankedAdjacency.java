@@ -0,0 +1,94 @@
+package com.organsync.matching.algorithm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable compatibility graph with each pair's out-edges ranked by score, best first.
+ *
+ * Built once per pool refresh so that single-pair searches can walk a pair's neighbourhood in
+ * score order and stop as soon as the remaining edges cannot beat what was already found.
+ * In-edges are kept unranked for walking back from a pair to the chain sources that reach it.
+ */
+public final class RankedAdjacency {
+
+    private static final UUID[] NO_PAIRS = new UUID[0];
+    private static final double[] NO_VALUES = new double[0];
+
+    private final Map<UUID, Edges> outgoing;
+    private final Map<UUID, UUID[]> incoming;
+    private final double maxWeight;
+
+    RankedAdjacency(Map<UUID, Edges> outgoing, Map<UUID, UUID[]> incoming, double maxWeight) {
+        this.outgoing = Collections.unmodifiableMap(outgoing);
+        this.incoming = Collections.unmodifiableMap(incoming);
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Out-edges of a pair, best score first
+     */
+    Edges outgoing(UUID pairId) {
+        return outgoing.getOrDefault(pairId, Edges.EMPTY);
+    }
+
+    /**
+     * Donor pairs with an edge into the given pair
+     */
+    UUID[] incoming(UUID pairId) {
+        return incoming.getOrDefault(pairId, NO_PAIRS);
+    }
+
+    /**
+     * Highest edge score in the graph, bounding what any further edge can add
+     */
+    double getMaxWeight() { return maxWeight; }
+
+    public boolean contains(UUID pairId) {
+        return outgoing.containsKey(pairId) || incoming.containsKey(pairId);
+    }
+
+    public int getEdgeCount() {
+        return outgoing.values().stream().mapToInt(edges -> edges.targets.length).sum();
+    }
+
+    /**
+     * Ranked out-edges of one pair as parallel arrays
+     */
+    static final class Edges {
+
+        static final Edges EMPTY = new Edges(NO_PAIRS, NO_VALUES, NO_VALUES);
+
+        final UUID[] targets;
+        final double[] weights;
+        final double[] probabilities;
+
+        Edges(UUID[] targets, double[] weights, double[] probabilities) {
+            this.targets = targets;
+            this.weights = weights;
+            this.probabilities = probabilities;
+        }
+
+        /**
+         * Sort edges by score, best first, ties by target pair
+         */
+        static Edges ranked(UUID[] targets, double[] weights, double[] probabilities) {
+            Integer[] order = new Integer[targets.length];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparingDouble((Integer i) -> weights[i]).reversed()
+                    .thenComparing(i -> targets[i]));
+            UUID[] rankedTargets = new UUID[order.length];
+            double[] rankedWeights = new double[order.length];
+            double[] rankedProbabilities = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                rankedTargets[i] = targets[order[i]];
+                rankedWeights[i] = weights[order[i]];
+                rankedProbabilities[i] = probabilities[order[i]];
+            }
+            return new Edges(rankedTargets, rankedWeights, rankedProbabilities);
+        }
+    }
+}
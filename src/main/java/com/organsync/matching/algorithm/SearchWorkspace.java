@@ -0,0 +1,158 @@
+package com.organsync.matching.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scratch state for cycle and chain searches: vertex sets, the path stack and candidate buffers.
+ *
+ * Workspaces are taken from a {@link Pool} for one search and handed back when it is closed, so
+ * back-to-back runs reuse the arrays of earlier ones instead of allocating them per run, per
+ * donor or per candidate. Arrays only grow, to the largest pool searched. Vertex sets are
+ * epoch-stamped: clearing one starts a new epoch instead of touching its array.
+ * A workspace is used by one thread at a time.
+ */
+final class SearchWorkspace implements AutoCloseable {
+
+    private final Pool pool;
+
+    final StampSet visited = new StampSet();
+    final StampSet sources = new StampSet();
+    final StampSet unavailable = new StampSet();
+    final StampSet through = new StampSet();
+    final CandidateBuffer pairs = new CandidateBuffer(2);
+    final CandidateBuffer triples = new CandidateBuffer(3);
+    private CandidateBuffer chains = new CandidateBuffer(1);
+    private int[] path = new int[1];
+
+    private SearchWorkspace(Pool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Empty every set and buffer for a search over a graph of the given number of vertices
+     */
+    private SearchWorkspace reset(int vertexCount) {
+        visited.clear(vertexCount);
+        sources.clear(vertexCount);
+        unavailable.clear(vertexCount);
+        through.clear(vertexCount);
+        pairs.clear();
+        triples.clear();
+        chains.clear();
+        return this;
+    }
+
+    /**
+     * Empty buffer for chains of up to the given length
+     */
+    CandidateBuffer chains(int maxLength) {
+        if (chains.width() != Math.max(maxLength, 1)) {
+            chains = new CandidateBuffer(Math.max(maxLength, 1));
+        }
+        chains.clear();
+        return chains;
+    }
+
+    /**
+     * Path stack for chains of up to the given length
+     */
+    int[] path(int maxLength) {
+        if (path.length < maxLength) {
+            path = new int[maxLength];
+        }
+        return path;
+    }
+
+    /**
+     * Hand the workspace back to its pool
+     */
+    @Override
+    public void close() {
+        pool.release(this);
+    }
+
+    /**
+     * Set of vertices that is cleared in constant time by moving to a new epoch; a vertex is in the
+     * set when its stamp is the current epoch
+     */
+    static final class StampSet {
+
+        private int[] stamps = new int[0];
+        private int epoch;
+
+        /**
+         * Empty the set, making room for vertices 0 to capacity - 1
+         */
+        void clear(int capacity) {
+            if (stamps.length < capacity) {
+                stamps = new int[capacity];
+                epoch = 0;
+            } else if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                epoch = 0;
+            }
+            epoch++;
+        }
+
+        /**
+         * Add a vertex, returning false when it was already in the set
+         */
+        boolean add(int vertex) {
+            if (stamps[vertex] == epoch) {
+                return false;
+            }
+            stamps[vertex] = epoch;
+            return true;
+        }
+
+        void remove(int vertex) {
+            stamps[vertex] = 0;
+        }
+
+        boolean contains(int vertex) {
+            return stamps[vertex] == epoch;
+        }
+    }
+
+    /**
+     * Idle workspaces shared by all search threads. Keeps at most {@code maxIdle} of them, so a
+     * burst of concurrent searches does not pin its workspaces for good.
+     */
+    static final class Pool {
+
+        private final int maxIdle;
+        private final ConcurrentLinkedQueue<SearchWorkspace> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        Pool(int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        /**
+         * Take an idle workspace, or create one, emptied for a graph of the given number of vertices
+         */
+        SearchWorkspace acquire(int vertexCount) {
+            SearchWorkspace workspace = idle.poll();
+            if (workspace != null) {
+                idleCount.decrementAndGet();
+            } else {
+                workspace = new SearchWorkspace(this);
+            }
+            return workspace.reset(vertexCount);
+        }
+
+        private void release(SearchWorkspace workspace) {
+            if (idleCount.incrementAndGet() <= maxIdle) {
+                idle.offer(workspace);
+            } else {
+                idleCount.decrementAndGet();
+            }
+        }
+
+        int idle() {
+            return idleCount.get();
+        }
+    }
+}
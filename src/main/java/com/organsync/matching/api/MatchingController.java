@@ -1,7 +1,22 @@
 package com.organsync.matching.api;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.dto.MatchFilter;
+import com.organsync.matching.dto.MatchPageDto;
+import com.organsync.matching.dto.MatchingJobDto;
+import com.organsync.matching.dto.SimulationRequest;
+import com.organsync.matching.dto.SimulationResultDto;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.service.IllegalMatchTransitionException;
+import com.organsync.matching.service.MatchingJob;
+import com.organsync.matching.service.MatchingJobService;
+import com.organsync.matching.service.MatchSnapshot;
+import com.organsync.matching.service.MatchSnapshotService;
 import com.organsync.matching.service.MatchingService;
+import com.organsync.matching.service.PairOptionsService;
+import com.organsync.matching.service.SimulationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,17 +26,41 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * REST API Controller for kidney exchange matching operations
@@ -33,9 +72,47 @@ public class MatchingController {
 
     private static final Logger logger = LoggerFactory.getLogger(MatchingController.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final long MAX_JOB_WAIT_SECONDS = 30;
+    private static final int MAX_PAIR_LOOKUP = 1000;
+    private static final int MAX_STATUS_BATCH = 100;
+    private static final int MAX_PAIR_OPTIONS = 50;
+    static final String EPOCH_HEADER = "X-Match-Epoch";
+
     @Autowired
     private MatchingService matchingService;
 
+    @Autowired
+    private MatchingJobService jobService;
+
+    @Autowired
+    private MatchSnapshotService snapshotService;
+
+    @Autowired
+    private SimulationService simulationService;
+
+    @Autowired
+    private PairOptionsService pairOptionsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("streamExecutor")
+    private Executor streamExecutor;
+
+    @Value("${organsync.matching.stream.timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    @Value("${organsync.matching.stream.buffer-events:1000}")
+    private int streamBufferEvents;
+
+    @Value("${organsync.matching.stream.stall-timeout-ms:30000}")
+    private long streamStallTimeoutMs;
+
     /**
      * Health check endpoint
      */
@@ -50,45 +127,73 @@ public class MatchingController {
      * Find all available matches
      */
     @GetMapping("/matches")
-    @Operation(summary = "Find all matches", description = "Get all available kidney exchange matches")
+    @Operation(summary = "Find all matches",
+               description = "Get all available kidney exchange matches. Joins any matching run already in flight; the request thread is released while the run executes")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved matches"),
+        @ApiResponse(responseCode = "503", description = "Matching backlog is full"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PreAuthorize("hasAuthority('SCOPE_match.read')")
-    public ResponseEntity<List<MatchDto>> findAllMatches() {
+    public CompletableFuture<ResponseEntity<List<MatchDto>>> findAllMatches() {
         logger.info("Finding all available matches");
 
         try {
-            List<MatchDto> matches = matchingService.findAllMatches();
-            logger.info("Found {} matches", matches.size());
-            return ResponseEntity.ok(matches);
-        } catch (Exception e) {
-            logger.error("Error finding matches", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return jobService.submitFullRun().getResult().handle((matches, error) -> {
+                if (error != null) {
+                    logger.error("Error finding matches", error);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                }
+                logger.info("Found {} matches", matches.size());
+                return ResponseEntity.ok(matches);
+            });
+        } catch (TaskRejectedException e) {
+            logger.warn("Matching backlog full, rejecting request");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
         }
     }
 
     /**
-     * Get match by ID
+     * Get match by ID from the current or a requested match snapshot. A match missing from the
+     * current snapshot is looked up in the database, so matches the leader created since this
+     * replica's last refresh are found too; those responses carry no epoch.
      */
     @GetMapping("/matches/{matchId}")
-    @Operation(summary = "Get match by ID", description = "Retrieve a specific match by its ID")
+    @Operation(summary = "Get match by ID",
+               description = "Retrieve a specific match by its ID. The X-Match-Epoch header names the snapshot served, and is absent when a match newer than the latest snapshot is read from the database; pass epoch to read an earlier one")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Match found"),
         @ApiResponse(responseCode = "404", description = "Match not found"),
+        @ApiResponse(responseCode = "410", description = "Requested epoch is no longer retained"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PreAuthorize("hasAuthority('SCOPE_match.read')")
     public ResponseEntity<MatchDto> getMatchById(
             @Parameter(description = "Match ID", required = true)
-            @PathVariable UUID matchId) {
+            @PathVariable UUID matchId,
+            @Parameter(description = "Snapshot epoch to read; defaults to the latest")
+            @RequestParam(required = false) Long epoch) {
         logger.info("Getting match by ID: {}", matchId);
 
         try {
-            return matchingService.getMatchById(matchId)
-                    .map(match -> ResponseEntity.ok(match))
-                    .orElse(ResponseEntity.notFound().build());
+            MatchSnapshot snapshot = snapshotAt(epoch);
+            if (snapshot == null) {
+                return ResponseEntity.status(HttpStatus.GONE).build();
+            }
+            Optional<MatchDto> match = snapshot.getMatch(matchId);
+            if (match.isEmpty() && epoch == null) {
+                // Matches another replica created since the last refresh are only in the database
+                return matchingService.getMatchById(matchId)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build());
+            }
+            return match
+                    .map(found -> ResponseEntity.ok()
+                            .header(EPOCH_HEADER, String.valueOf(snapshot.getEpoch()))
+                            .body(found))
+                    .orElse(ResponseEntity.notFound()
+                            .header(EPOCH_HEADER, String.valueOf(snapshot.getEpoch()))
+                            .build());
         } catch (Exception e) {
             logger.error("Error getting match by ID: {}", matchId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -96,39 +201,278 @@ public class MatchingController {
     }
 
     /**
-     * Get matches by hospital
+     * Get matches by hospital from the current or a requested match snapshot
      */
     @GetMapping("/matches/hospital/{hospitalId}")
-    @Operation(summary = "Get matches by hospital", description = "Retrieve all matches for a specific hospital")
+    @Operation(summary = "Get matches by hospital",
+               description = "Retrieve all matches for a specific hospital, newest first. The X-Match-Epoch header names the snapshot served; pass epoch to read an earlier one")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved matches"),
+        @ApiResponse(responseCode = "410", description = "Requested epoch is no longer retained"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PreAuthorize("hasAuthority('SCOPE_match.read')")
     public ResponseEntity<List<MatchDto>> getMatchesByHospital(
             @Parameter(description = "Hospital ID", required = true)
-            @PathVariable String hospitalId) {
+            @PathVariable String hospitalId,
+            @Parameter(description = "Snapshot epoch to read; defaults to the latest")
+            @RequestParam(required = false) Long epoch) {
         logger.info("Getting matches for hospital: {}", hospitalId);
 
         try {
-            List<MatchDto> matches = matchingService.getMatchesByHospital(hospitalId);
-            logger.info("Found {} matches for hospital {}", matches.size(), hospitalId);
-            return ResponseEntity.ok(matches);
+            MatchSnapshot snapshot = snapshotAt(epoch);
+            if (snapshot == null) {
+                return ResponseEntity.status(HttpStatus.GONE).build();
+            }
+            List<MatchDto> matches = snapshot.getMatchesByHospital(hospitalId);
+            logger.info("Found {} matches for hospital {} at epoch {}", matches.size(), hospitalId, snapshot.getEpoch());
+            return ResponseEntity.ok()
+                    .header(EPOCH_HEADER, String.valueOf(snapshot.getEpoch()))
+                    .body(matches);
         } catch (Exception e) {
             logger.error("Error getting matches for hospital: {}", hospitalId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Get the active matches of several pairs at once
+     */
+    @GetMapping("/matches/by-pairs")
+    @Operation(summary = "Get active matches by pair",
+               description = "Retrieve the pending, confirmed and approved matches of each requested pair, keyed by pair ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved matches"),
+        @ApiResponse(responseCode = "400", description = "Too many pair IDs"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasAuthority('SCOPE_match.read')")
+    public ResponseEntity<Map<UUID, List<MatchDto>>> getActiveMatchesByPairs(
+            @Parameter(description = "Pair IDs", required = true)
+            @RequestParam List<UUID> pairIds) {
+        if (pairIds.size() > MAX_PAIR_LOOKUP) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(matchingService.findActiveMatchesByPairs(pairIds));
+        } catch (Exception e) {
+            logger.error("Error getting active matches for {} pairs", pairIds.size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get the best exchange options for one pair
+     */
+    @GetMapping("/pairs/{pairId}/options")
+    @Operation(summary = "Get best options for a pair",
+               description = "Top-scoring cycles and chains that include the pair, searched around the pair only. "
+                       + "Options are suggestions and are not persisted")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved options"),
+        @ApiResponse(responseCode = "400", description = "Invalid number of options"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasAuthority('SCOPE_match.read')")
+    public ResponseEntity<List<MatchDto>> getPairOptions(
+            @Parameter(description = "Pair ID", required = true)
+            @PathVariable UUID pairId,
+            @Parameter(description = "Number of options (max 50)")
+            @RequestParam(defaultValue = "10") int k) {
+        if (k < 1 || k > MAX_PAIR_OPTIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(pairOptionsService.findBestOptions(pairId, k));
+        } catch (Exception e) {
+            logger.error("Error finding options for pair: {}", pairId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Search matches with keyset pagination
+     */
+    @GetMapping("/matches/search")
+    @Operation(summary = "Search matches",
+               description = "Filterable, keyset-paginated match listing, newest first. Pass next_cursor to fetch the following page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved matches"),
+        @ApiResponse(responseCode = "400", description = "Invalid filter or cursor"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasAuthority('SCOPE_match.read')")
+    public ResponseEntity<MatchPageDto> searchMatches(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String matchType,
+            @RequestParam(required = false) String hospitalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Double minScore,
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        MatchFilter filter = new MatchFilter(status, matchType, hospitalId, from, to, minScore);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        try {
+            return ResponseEntity.ok(matchingService.findMatches(filter, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid match search: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error searching matches", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Export matches as newline-delimited JSON
+     */
+    @GetMapping(value = "/matches/export", produces = "application/x-ndjson")
+    @Operation(summary = "Export matches", description = "Stream every match passing the filter as NDJSON for bulk export")
+    @ApiResponse(responseCode = "200", description = "Export stream started")
+    @PreAuthorize("hasAuthority('SCOPE_match.read')")
+    public ResponseEntity<StreamingResponseBody> exportMatches(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String matchType,
+            @RequestParam(required = false) String hospitalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Double minScore) {
+        MatchFilter filter = new MatchFilter(status, matchType, hospitalId, from, to, minScore);
+        logger.info("Exporting matches for hospital {} with status {}", hospitalId, status);
+
+        StreamingResponseBody body = out -> {
+            long exported = matchingService.exportMatches(filter, EXPORT_BATCH_SIZE, match -> writeLine(out, match));
+            logger.info("Exported {} matches", exported);
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Stream matches as they are found
+     */
+    @GetMapping(value = "/matches/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream matches",
+               description = "Run matching and stream results as server-sent events: 'stage' when a stage starts, "
+                       + "'match' for each match as its algorithm produces it (best score first within a batch) "
+                       + "and a final 'summary'. A slow client slows the run down to its pace; one that disconnects "
+                       + "or stalls loses the stream and aborts the run")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream started"),
+        @ApiResponse(responseCode = "503", description = "Matching backlog is full")
+    })
+    @PreAuthorize("hasAuthority('SCOPE_match.read')")
+    public ResponseEntity<SseEmitter> streamMatches() {
+        logger.info("Streaming matches");
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        SseEventBuffer events = new SseEventBuffer(emitter, streamBufferEvents, streamStallTimeoutMs,
+                streamExecutor);
+        long start = System.nanoTime();
+
+        // The matching worker only queues events, waiting while the client is a full buffer behind;
+        // stream sender threads wait on the client's socket
+        MatchingService.ProgressListener listener = new MatchingService.ProgressListener() {
+            @Override
+            public void onProgress(String stage, int percentComplete) {
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("stage", stage);
+                data.put("progress", percentComplete);
+                events.send(SseEmitter.event().name("stage").data(data));
+            }
+
+            @Override
+            public void onMatches(String stage, List<MatchDto> matches) {
+                for (MatchDto match : matches) {
+                    events.send(SseEmitter.event().name("match").data(match, MediaType.APPLICATION_JSON));
+                }
+            }
+        };
+
+        MatchingJob job;
+        try {
+            job = jobService.submitStreamingRun(listener);
+        } catch (TaskRejectedException e) {
+            logger.warn("Matching backlog full, rejecting stream");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        job.getResult().whenComplete((matches, error) -> {
+            if (error != null) {
+                events.complete(SseEmitter.event().name("error").data(Map.of("error", String.valueOf(error.getMessage()))));
+            } else {
+                Map<String, Long> byType = new TreeMap<>();
+                matches.forEach(match -> byType.merge(match.getMatchType(), 1L, Long::sum));
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("job_id", job.getId());
+                summary.put("match_count", matches.size());
+                summary.put("matches_by_type", byType);
+                summary.put("elapsed_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                events.complete(SseEmitter.event().name("summary").data(summary, MediaType.APPLICATION_JSON));
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Run a what-if simulation
+     */
+    @PostMapping("/simulations")
+    @Operation(summary = "Simulate pool changes",
+               description = "Run matching on a copy of the live pool with hypothetical pairs, compatibilities, "
+                       + "score threshold or cycle/chain limits and return the difference. Nothing is persisted")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Simulation completed"),
+        @ApiResponse(responseCode = "400", description = "Invalid simulation request"),
+        @ApiResponse(responseCode = "503", description = "Simulation queue is full"),
+        @ApiResponse(responseCode = "504", description = "Simulation exceeded the algorithm timeout")
+    })
+    @PreAuthorize("hasAuthority('SCOPE_match.read')")
+    public CompletableFuture<ResponseEntity<SimulationResultDto>> simulate(
+            @Parameter(description = "Hypothetical pool changes", required = true)
+            @Valid @RequestBody SimulationRequest request) {
+        logger.info("Running what-if simulation");
+
+        try {
+            return simulationService.simulate(request).handle((result, error) -> {
+                if (error == null) {
+                    return ResponseEntity.ok(result);
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof TimeoutException) {
+                    logger.warn("Simulation timed out");
+                    return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+                }
+                logger.error("Error running simulation", cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            });
+        } catch (TaskRejectedException e) {
+            logger.warn("Simulation queue full, rejecting request");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
+    }
+
+    private void writeLine(OutputStream out, MatchDto match) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(match));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Update match status
      */
     @PutMapping("/matches/{matchId}/status")
-    @Operation(summary = "Update match status", description = "Update the status of a specific match")
+    @Operation(summary = "Update match status",
+               description = "Update the status of a specific match. Pass the version last read to reject the update if the match changed since")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Match status updated successfully"),
         @ApiResponse(responseCode = "404", description = "Match not found"),
         @ApiResponse(responseCode = "400", description = "Invalid status"),
+        @ApiResponse(responseCode = "409", description = "Transition not allowed, or the match changed concurrently"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PreAuthorize("hasAuthority('SCOPE_match.write')")
@@ -138,11 +482,17 @@ public class MatchingController {
             @Parameter(description = "New status", required = true)
             @RequestBody @Valid StatusUpdateRequest request) {
         logger.info("Updating match {} status to {}", matchId, request.getStatus());
+        if (parseStatus(request.getStatus()) == null) {
+            return ResponseEntity.badRequest().build();
+        }
 
         try {
-            MatchDto updatedMatch = matchingService.updateMatchStatus(matchId, request.getStatus());
+            MatchDto updatedMatch = matchingService.updateMatchStatus(matchId, request.getStatus(), request.getVersion());
             logger.info("Successfully updated match {} status", matchId);
             return ResponseEntity.ok(updatedMatch);
+        } catch (IllegalMatchTransitionException | OptimisticLockingFailureException e) {
+            logger.warn("Rejected status update of match {}: {}", matchId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             logger.error("Match not found: {}", matchId, e);
             return ResponseEntity.notFound().build();
@@ -152,6 +502,52 @@ public class MatchingController {
         }
     }
 
+    /**
+     * Move several matches to one status atomically
+     */
+    @PostMapping("/matches/status")
+    @Operation(summary = "Update the status of several matches",
+               description = "Move every listed match to the same status, such as confirming all matches of a cycle. Either all matches move or none do")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Match statuses updated successfully"),
+        @ApiResponse(responseCode = "404", description = "A match was not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid status or too many matches"),
+        @ApiResponse(responseCode = "409", description = "A transition is not allowed, or a match changed concurrently"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasAuthority('SCOPE_match.write')")
+    public ResponseEntity<List<MatchDto>> updateMatchStatuses(@RequestBody @Valid BulkStatusUpdateRequest request) {
+        MatchStatus status = parseStatus(request.getStatus());
+        if (status == null || request.getMatchIds() == null || request.getMatchIds().isEmpty()
+                || request.getMatchIds().size() > MAX_STATUS_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(matchingService.transitionMatches(request.getMatchIds(), status));
+        } catch (IllegalMatchTransitionException | OptimisticLockingFailureException e) {
+            logger.warn("Rejected status update of {} matches: {}", request.getMatchIds().size(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Matches not found", e);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            logger.error("Error updating status of {} matches", request.getMatchIds().size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private static MatchStatus parseStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return MatchStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Get match statistics
      */
@@ -175,30 +571,109 @@ public class MatchingController {
      * Trigger matching algorithm manually
      */
     @PostMapping("/matches/trigger")
-    @Operation(summary = "Trigger matching", description = "Manually trigger the matching algorithm")
-    @ApiResponse(responseCode = "200", description = "Matching algorithm triggered successfully")
+    @Operation(summary = "Trigger matching",
+               description = "Start a matching job and return its ID immediately. A trigger while a run is in flight returns that run's job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Matching job accepted"),
+        @ApiResponse(responseCode = "503", description = "Matching backlog is full")
+    })
     @PreAuthorize("hasAuthority('SCOPE_match.write')")
-    public ResponseEntity<String> triggerMatching() {
+    public ResponseEntity<MatchingJobDto> triggerMatching() {
         logger.info("Manually triggering matching algorithm");
 
         try {
-            List<MatchDto> matches = matchingService.findAllMatches();
-            logger.info("Matching algorithm completed, found {} matches", matches.size());
-            return ResponseEntity.ok("Matching algorithm completed successfully. Found " + matches.size() + " matches.");
-        } catch (Exception e) {
-            logger.error("Error triggering matching algorithm", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error triggering matching algorithm: " + e.getMessage());
+            MatchingJob job = jobService.submitFullRun();
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/v1/matching/matches/jobs/{jobId}")
+                    .buildAndExpand(job.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(job.toDto());
+        } catch (TaskRejectedException e) {
+            logger.warn("Matching backlog full, rejecting trigger");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
 
+    /**
+     * Get matching job status
+     */
+    @GetMapping("/matches/jobs/{jobId}")
+    @Operation(summary = "Get matching job",
+               description = "Status and progress of a matching job. With waitSeconds, long-polls until the job finishes or the wait elapses")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job status"),
+        @ApiResponse(responseCode = "404", description = "Job not found or expired")
+    })
+    @PreAuthorize("hasAuthority('SCOPE_match.read')")
+    public CompletableFuture<ResponseEntity<MatchingJobDto>> getMatchingJob(
+            @Parameter(description = "Job ID", required = true)
+            @PathVariable UUID jobId,
+            @Parameter(description = "Seconds to wait for completion (max 30)")
+            @RequestParam(defaultValue = "0") long waitSeconds) {
+        Duration wait = Duration.ofSeconds(Math.max(0, Math.min(waitSeconds, MAX_JOB_WAIT_SECONDS)));
+        return jobService.awaitJob(jobId, wait)
+                .map(future -> future.thenApply(ResponseEntity::ok))
+                .orElseGet(() -> CompletableFuture.completedFuture(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Get matching job result
+     */
+    @GetMapping("/matches/jobs/{jobId}/result")
+    @Operation(summary = "Get matching job result", description = "Matches found by a finished matching job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job finished, matches returned"),
+        @ApiResponse(responseCode = "202", description = "Job still running"),
+        @ApiResponse(responseCode = "404", description = "Job not found or expired"),
+        @ApiResponse(responseCode = "500", description = "Job failed")
+    })
+    @PreAuthorize("hasAuthority('SCOPE_match.read')")
+    public ResponseEntity<List<MatchDto>> getMatchingJobResult(
+            @Parameter(description = "Job ID", required = true)
+            @PathVariable UUID jobId) {
+        return jobService.getJob(jobId)
+                .map(job -> switch (job.getStatus()) {
+                    case SUCCEEDED -> ResponseEntity.ok(job.getResult().join());
+                    case FAILED -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<List<MatchDto>>build();
+                    default -> ResponseEntity.accepted().<List<MatchDto>>build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Latest snapshot, or the requested epoch; null when that epoch is no longer retained
+     */
+    private MatchSnapshot snapshotAt(Long epoch) {
+        return epoch == null ? snapshotService.current() : snapshotService.atEpoch(epoch).orElse(null);
+    }
+
     /**
      * Request class for status updates
      */
     public static class StatusUpdateRequest {
         private String status;
+        private Long version;
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
+    }
+
+    /**
+     * Request body for bulk status updates
+     */
+    public static class BulkStatusUpdateRequest {
+        @JsonProperty("match_ids")
+        private List<UUID> matchIds;
+
+        private String status;
+
+        public List<UUID> getMatchIds() { return matchIds; }
+        public void setMatchIds(List<UUID> matchIds) { this.matchIds = matchIds; }
 
         public String getStatus() { return status; }
         public void setStatus(String status) { this.status = status; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.organsync.matching.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded queue of server-sent events between a matching run and a slow client.
+ *
+ * The run never writes to the client's socket; a sender thread drains events to the emitter,
+ * which only the sender touches. When the buffer is full the run waits for the client to catch
+ * up, so a large batch streams at the client's pace. Only a client that makes no room for the
+ * stall timeout, or goes away, loses its stream, which bounds how long a worker can be held.
+ */
+final class SseEventBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseEventBuffer.class);
+
+    private final SseEmitter emitter;
+    private final Executor sender;
+    private final long stallTimeoutMs;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> events;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean completing;
+    private volatile boolean failed;
+    private volatile boolean finished;
+
+    SseEventBuffer(SseEmitter emitter, int capacity, long stallTimeoutMs, Executor sender) {
+        this.emitter = emitter;
+        this.sender = sender;
+        this.stallTimeoutMs = stallTimeoutMs;
+        this.events = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Queue an event for the client, waiting while the buffer is full
+     * @throws UncheckedIOException if the client went away or made no room for the stall
+     *                              timeout, which ends the stream
+     */
+    void send(SseEmitter.SseEventBuilder event) {
+        if (!enqueue(event)) {
+            throw new UncheckedIOException(new IOException(
+                    "Match stream client went away or stalled for " + stallTimeoutMs + " ms"));
+        }
+    }
+
+    /**
+     * Queue the last event, unless the stream has already failed, and complete the stream once
+     * everything queued has been sent
+     */
+    void complete(SseEmitter.SseEventBuilder last) {
+        enqueue(last);
+        completing = true;
+        schedule();
+    }
+
+    private boolean enqueue(SseEmitter.SseEventBuilder event) {
+        // Make sure a full buffer is being drained before waiting for room in it
+        schedule();
+        try {
+            if (!failed && events.offer(event, stallTimeoutMs, TimeUnit.MILLISECONDS) && !failed) {
+                schedule();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fail();
+        return false;
+    }
+
+    private void fail() {
+        failed = true;
+        events.clear();
+        schedule();
+    }
+
+    private void schedule() {
+        if (!finished && draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!failed && (event = events.poll()) != null) {
+                emitter.send(event);
+            }
+            if (failed || (completing && events.isEmpty())) {
+                finished = true;
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Match stream client went away");
+            failed = true;
+            finished = true;
+            events.clear();
+        } finally {
+            draining.set(false);
+        }
+        // Events or completion may have arrived after the queue was found empty
+        if (!finished && (completing || failed || !events.isEmpty())) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.organsync.matching.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor configuration for what-if simulations and match stream sends.
+ * Live matching work runs on {@link com.organsync.matching.service.MatchingWorkScheduler}.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${organsync.matching.simulation.threads:1}")
+    private int simulationThreads;
+
+    @Value("${organsync.matching.simulation.queue-capacity:10}")
+    private int simulationQueueCapacity;
+
+    @Value("${organsync.matching.stream.sender-threads:4}")
+    private int streamSenderThreads;
+
+    /**
+     * Separate, low-priority executor for what-if simulations. Its own fixed thread budget keeps
+     * simulations from competing with live matching for worker threads.
+     */
+    @Bean(name = "simulationExecutor")
+    public ThreadPoolTaskExecutor simulationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(simulationThreads);
+        executor.setMaxPoolSize(simulationThreads);
+        executor.setQueueCapacity(simulationQueueCapacity);
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setThreadNamePrefix("simulation-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Threads that write server-sent match events to clients, so a slow client's socket holds up
+     * a sender rather than a matching worker. Each open stream queues at most one drain task.
+     */
+    @Bean(name = "streamExecutor")
+    public ThreadPoolTaskExecutor streamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamSenderThreads);
+        executor.setMaxPoolSize(streamSenderThreads);
+        executor.setThreadNamePrefix("match-stream-");
+        executor.initialize();
+        return executor;
+    }
+}
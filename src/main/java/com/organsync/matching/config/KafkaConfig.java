@@ -1,18 +1,24 @@
 package com.organsync.matching.config;
 
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,6 +36,25 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id:matching-service-group}")
     private String groupId;
 
+    /**
+     * Region run topic for sharded matching; one partition per shard
+     */
+    @Bean
+    @ConditionalOnProperty(name = "organsync.matching.sharding.enabled", havingValue = "true")
+    public NewTopic regionRunTopic(@Value("${organsync.matching.sharding.run-topic:matching.region.runs}") String topic,
+                                  @Value("${organsync.matching.sharding.shards:4}") int shards) {
+        return TopicBuilder.name(topic).partitions(shards).build();
+    }
+
+    /**
+     * Region result topic for sharded matching
+     */
+    @Bean
+    @ConditionalOnProperty(name = "organsync.matching.sharding.enabled", havingValue = "true")
+    public NewTopic regionResultTopic(@Value("${organsync.matching.sharding.result-topic:matching.region.results}") String topic) {
+        return TopicBuilder.name(topic).partitions(1).build();
+    }
+
     /**
      * Kafka producer configuration
      */
@@ -79,9 +104,23 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        // Work is acknowledged when the scheduler finishes it, which is not arrival order
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        factory.setCommonErrorHandler(errorHandler());
         factory.setConcurrency(3);
 
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * Redeliver an event whose listener gave up waiting for room in the matching backlog until
+     * the backlog drains; any other listener failure gets the default retries
+     */
+    private DefaultErrorHandler errorHandler() {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler();
+        errorHandler.setBackOffFunction((record, e) -> e.getCause() instanceof TaskRejectedException
+                ? new FixedBackOff(1000L, FixedBackOff.UNLIMITED_ATTEMPTS) : null);
+        return errorHandler;
+    }
+}
@@ -35,6 +35,9 @@ public class CompatibilityDto {
     @JsonProperty("distance_km")
     private Double distanceKm;
 
+    @JsonProperty("success_probability")
+    private Double successProbability;
+
     @JsonProperty("created_at")
     private LocalDateTime createdAt;
 
@@ -80,6 +83,9 @@ public class CompatibilityDto {
     public Double getDistanceKm() { return distanceKm; }
     public void setDistanceKm(Double distanceKm) { this.distanceKm = distanceKm; }
 
+    public Double getSuccessProbability() { return successProbability; }
+    public void setSuccessProbability(Double successProbability) { this.successProbability = successProbability; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -40,6 +40,9 @@ public class MatchDto {
     @JsonProperty("priority_level")
     private Integer priorityLevel;
 
+    @JsonProperty("version")
+    private Long version;
+
     // Constructors
     public MatchDto() {}
 
@@ -79,4 +82,7 @@ public class MatchDto {
 
     public Integer getPriorityLevel() { return priorityLevel; }
     public void setPriorityLevel(Integer priorityLevel) { this.priorityLevel = priorityLevel; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.organsync.matching.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter criteria for match listings; null fields do not filter
+ */
+public class MatchFilter {
+
+    private String status;
+    private String matchType;
+    private String hospitalId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Double minScore;
+
+    // Constructors
+    public MatchFilter() {}
+
+    public MatchFilter(String status, String matchType, String hospitalId,
+                       LocalDateTime from, LocalDateTime to, Double minScore) {
+        this.status = status;
+        this.matchType = matchType;
+        this.hospitalId = hospitalId;
+        this.from = from;
+        this.to = to;
+        this.minScore = minScore;
+    }
+
+    // Getters and Setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getMatchType() { return matchType; }
+    public void setMatchType(String matchType) { this.matchType = matchType; }
+
+    public String getHospitalId() { return hospitalId; }
+    public void setHospitalId(String hospitalId) { this.hospitalId = hospitalId; }
+
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+
+    public Double getMinScore() { return minScore; }
+    public void setMinScore(Double minScore) { this.minScore = minScore; }
+}
@@ -0,0 +1,38 @@
+package com.organsync.matching.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * One keyset page of matches, newest first
+ */
+public class MatchPageDto {
+
+    @JsonProperty("items")
+    private List<MatchDto> items;
+
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    @JsonProperty("size")
+    private int size;
+
+    // Constructors
+    public MatchPageDto() {}
+
+    public MatchPageDto(List<MatchDto> items, String nextCursor, int size) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.size = size;
+    }
+
+    // Getters and Setters
+    public List<MatchDto> getItems() { return items; }
+    public void setItems(List<MatchDto> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
@@ -0,0 +1,72 @@
+package com.organsync.matching.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for an asynchronous matching job
+ */
+public class MatchingJobDto {
+
+    @JsonProperty("job_id")
+    private UUID jobId;
+
+    @JsonProperty("kind")
+    private String kind;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("stage")
+    private String stage;
+
+    @JsonProperty("progress")
+    private int progress;
+
+    @JsonProperty("match_count")
+    private Integer matchCount;
+
+    @JsonProperty("error")
+    private String error;
+
+    @JsonProperty("submitted_at")
+    private LocalDateTime submittedAt;
+
+    @JsonProperty("started_at")
+    private LocalDateTime startedAt;
+
+    @JsonProperty("finished_at")
+    private LocalDateTime finishedAt;
+
+    // Getters and Setters
+    public UUID getJobId() { return jobId; }
+    public void setJobId(UUID jobId) { this.jobId = jobId; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getStage() { return stage; }
+    public void setStage(String stage) { this.stage = stage; }
+
+    public int getProgress() { return progress; }
+    public void setProgress(int progress) { this.progress = progress; }
+
+    public Integer getMatchCount() { return matchCount; }
+    public void setMatchCount(Integer matchCount) { this.matchCount = matchCount; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,62 @@
+package com.organsync.matching.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hypothetical changes to the matching pool for a what-if simulation.
+ * Unset fields leave the corresponding part of the live configuration unchanged.
+ */
+public class SimulationRequest {
+
+    @Valid
+    @JsonProperty("added_compatibilities")
+    private List<CompatibilityDto> addedCompatibilities = new ArrayList<>();
+
+    @JsonProperty("removed_pair_ids")
+    private List<UUID> removedPairIds = new ArrayList<>();
+
+    @JsonProperty("altruistic_donor_ids")
+    private List<UUID> altruisticDonorIds = new ArrayList<>();
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    @JsonProperty("min_compatibility_score")
+    private Double minCompatibilityScore;
+
+    @Min(2)
+    @Max(3)
+    @JsonProperty("max_cycle_length")
+    private Integer maxCycleLength;
+
+    @Min(1)
+    @Max(10)
+    @JsonProperty("max_chain_length")
+    private Integer maxChainLength;
+
+    // Getters and Setters
+    public List<CompatibilityDto> getAddedCompatibilities() { return addedCompatibilities; }
+    public void setAddedCompatibilities(List<CompatibilityDto> addedCompatibilities) { this.addedCompatibilities = addedCompatibilities; }
+
+    public List<UUID> getRemovedPairIds() { return removedPairIds; }
+    public void setRemovedPairIds(List<UUID> removedPairIds) { this.removedPairIds = removedPairIds; }
+
+    public List<UUID> getAltruisticDonorIds() { return altruisticDonorIds; }
+    public void setAltruisticDonorIds(List<UUID> altruisticDonorIds) { this.altruisticDonorIds = altruisticDonorIds; }
+
+    public Double getMinCompatibilityScore() { return minCompatibilityScore; }
+    public void setMinCompatibilityScore(Double minCompatibilityScore) { this.minCompatibilityScore = minCompatibilityScore; }
+
+    public Integer getMaxCycleLength() { return maxCycleLength; }
+    public void setMaxCycleLength(Integer maxCycleLength) { this.maxCycleLength = maxCycleLength; }
+
+    public Integer getMaxChainLength() { return maxChainLength; }
+    public void setMaxChainLength(Integer maxChainLength) { this.maxChainLength = maxChainLength; }
+}
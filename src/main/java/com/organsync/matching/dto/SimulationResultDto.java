@@ -0,0 +1,89 @@
+package com.organsync.matching.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a what-if simulation: the live pool and the hypothetical pool side by side,
+ * and the matches that appear or disappear under the hypothetical changes
+ */
+public class SimulationResultDto {
+
+    @JsonProperty("snapshot_loaded_at")
+    private LocalDateTime snapshotLoadedAt;
+
+    @JsonProperty("baseline")
+    private Outcome baseline;
+
+    @JsonProperty("scenario")
+    private Outcome scenario;
+
+    @JsonProperty("added_matches")
+    private List<MatchDto> addedMatches;
+
+    @JsonProperty("removed_matches")
+    private List<MatchDto> removedMatches;
+
+    @JsonProperty("pairs_covered_delta")
+    private int pairsCoveredDelta;
+
+    @JsonProperty("elapsed_ms")
+    private long elapsedMs;
+
+    // Getters and Setters
+    public LocalDateTime getSnapshotLoadedAt() { return snapshotLoadedAt; }
+    public void setSnapshotLoadedAt(LocalDateTime snapshotLoadedAt) { this.snapshotLoadedAt = snapshotLoadedAt; }
+
+    public Outcome getBaseline() { return baseline; }
+    public void setBaseline(Outcome baseline) { this.baseline = baseline; }
+
+    public Outcome getScenario() { return scenario; }
+    public void setScenario(Outcome scenario) { this.scenario = scenario; }
+
+    public List<MatchDto> getAddedMatches() { return addedMatches; }
+    public void setAddedMatches(List<MatchDto> addedMatches) { this.addedMatches = addedMatches; }
+
+    public List<MatchDto> getRemovedMatches() { return removedMatches; }
+    public void setRemovedMatches(List<MatchDto> removedMatches) { this.removedMatches = removedMatches; }
+
+    public int getPairsCoveredDelta() { return pairsCoveredDelta; }
+    public void setPairsCoveredDelta(int pairsCoveredDelta) { this.pairsCoveredDelta = pairsCoveredDelta; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    /**
+     * Matching outcome for one version of the pool. Pairs covered counts distinct pairs
+     * appearing in at least one proposed match.
+     */
+    public static class Outcome {
+
+        @JsonProperty("match_count")
+        private int matchCount;
+
+        @JsonProperty("matches_by_type")
+        private Map<String, Long> matchesByType;
+
+        @JsonProperty("pairs_covered")
+        private int pairsCovered;
+
+        public Outcome() {}
+
+        public Outcome(int matchCount, Map<String, Long> matchesByType, int pairsCovered) {
+            this.matchCount = matchCount;
+            this.matchesByType = matchesByType;
+            this.pairsCovered = pairsCovered;
+        }
+
+        public int getMatchCount() { return matchCount; }
+        public void setMatchCount(int matchCount) { this.matchCount = matchCount; }
+
+        public Map<String, Long> getMatchesByType() { return matchesByType; }
+        public void setMatchesByType(Map<String, Long> matchesByType) { this.matchesByType = matchesByType; }
+
+        public int getPairsCovered() { return pairsCovered; }
+        public void setPairsCovered(int pairsCovered) { this.pairsCovered = pairsCovered; }
+    }
+}
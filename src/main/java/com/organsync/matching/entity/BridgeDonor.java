@@ -0,0 +1,99 @@
+package com.organsync.matching.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A donor without a matched recipient who can start a chain: an altruistic donor, or the donor of
+ * the last pair of a completed chain (a bridge donor), who seeds the next chain segment
+ */
+@Entity
+@Table(name = "bridge_donors",
+       indexes = @Index(name = "idx_bridge_donors_status", columnList = "status"))
+public class BridgeDonor {
+
+    /**
+     * How the donor entered the pool
+     */
+    public enum Kind {
+        ALTRUISTIC,
+        BRIDGE
+    }
+
+    /**
+     * Whether the donor can start a new chain
+     */
+    public enum Status {
+        AVAILABLE,
+        RESERVED,
+        RETIRED
+    }
+
+    @Id
+    @Column(name = "pair_id")
+    private UUID pairId;
+
+    @NotNull
+    @Column(name = "kind")
+    @Enumerated(EnumType.STRING)
+    private Kind kind;
+
+    @NotNull
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    /**
+     * Chain currently started by this donor while reserved, otherwise the chain that ended at it
+     */
+    @Column(name = "chain_match_id")
+    private UUID chainMatchId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public BridgeDonor() {}
+
+    public BridgeDonor(UUID pairId, Kind kind, UUID chainMatchId) {
+        this.pairId = pairId;
+        this.kind = kind;
+        this.status = Status.AVAILABLE;
+        this.chainMatchId = chainMatchId;
+    }
+
+    // Getters and Setters
+    public UUID getPairId() { return pairId; }
+    public void setPairId(UUID pairId) { this.pairId = pairId; }
+
+    public Kind getKind() { return kind; }
+    public void setKind(Kind kind) { this.kind = kind; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public UUID getChainMatchId() { return chainMatchId; }
+    public void setChainMatchId(UUID chainMatchId) { this.chainMatchId = chainMatchId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -39,6 +39,11 @@ public class Compatibility {
     @Column(name = "distance_km")
     private Double distanceKm;
 
+    // Chance the transplant along this edge goes ahead, e.g. that the final crossmatch is negative;
+    // null means unknown and the configured default applies
+    @Column(name = "success_probability")
+    private Double successProbability;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -95,6 +100,9 @@ public class Compatibility {
     public Double getDistanceKm() { return distanceKm; }
     public void setDistanceKm(Double distanceKm) { this.distanceKm = distanceKm; }
 
+    public Double getSuccessProbability() { return successProbability; }
+    public void setSuccessProbability(Double successProbability) { this.successProbability = successProbability; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -0,0 +1,83 @@
+package com.organsync.matching.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Denormalized, DTO-ready copy of a match for hospital dashboards.
+ *
+ * One row per match carrying everything a listing needs, pair ids included as a single column,
+ * so a hospital's matches are read with one index range scan.
+ * Matches without a hospital are kept too, so the whole view can be scanned in one pass.
+ */
+@Entity
+@Table(name = "hospital_match_view",
+       indexes = @Index(name = "idx_hospital_match_view_hospital_created", columnList = "hospital_id, created_at"))
+public class HospitalMatchView {
+
+    @Id
+    @Column(name = "match_id")
+    private UUID matchId;
+
+    @Column(name = "hospital_id")
+    private String hospitalId;
+
+    @Column(name = "match_type")
+    private String matchType;
+
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "pair_ids", length = 1000)
+    private String pairIds;
+
+    @Column(name = "compatibility_score")
+    private Double compatibilityScore;
+
+    @Column(name = "priority_level")
+    private Integer priorityLevel;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "match_version")
+    private Long matchVersion;
+
+    // Constructors
+    public HospitalMatchView() {}
+
+    // Getters and Setters
+    public UUID getMatchId() { return matchId; }
+    public void setMatchId(UUID matchId) { this.matchId = matchId; }
+
+    public String getHospitalId() { return hospitalId; }
+    public void setHospitalId(String hospitalId) { this.hospitalId = hospitalId; }
+
+    public String getMatchType() { return matchType; }
+    public void setMatchType(String matchType) { this.matchType = matchType; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getPairIds() { return pairIds; }
+    public void setPairIds(String pairIds) { this.pairIds = pairIds; }
+
+    public Double getCompatibilityScore() { return compatibilityScore; }
+    public void setCompatibilityScore(Double compatibilityScore) { this.compatibilityScore = compatibilityScore; }
+
+    public Integer getPriorityLevel() { return priorityLevel; }
+    public void setPriorityLevel(Integer priorityLevel) { this.priorityLevel = priorityLevel; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getMatchVersion() { return matchVersion; }
+    public void setMatchVersion(Long matchVersion) { this.matchVersion = matchVersion; }
+}
@@ -2,6 +2,8 @@ package com.organsync.matching.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -27,9 +29,11 @@ public class Match {
     @Enumerated(EnumType.STRING)
     private MatchStatus status;
 
-    @ElementCollection
-    @CollectionTable(name = "match_pairs", joinColumns = @JoinColumn(name = "match_id"))
-    @Column(name = "pair_id")
+    /**
+     * Ordered pair ids stored as one array column (uuid[] on Postgres, UUID ARRAY on H2)
+     */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "pair_ids")
     private List<UUID> pairIds;
 
     @Column(name = "compatibility_score")
@@ -47,6 +51,13 @@ public class Match {
     @Column(name = "priority_level")
     private Integer priorityLevel;
 
+    /**
+     * Optimistic lock; bumped on every update so concurrent status changes cannot overwrite each other
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -97,4 +108,7 @@ public class Match {
 
     public Integer getPriorityLevel() { return priorityLevel; }
     public void setPriorityLevel(Integer priorityLevel) { this.priorityLevel = priorityLevel; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -1,5 +1,11 @@
 package com.organsync.matching.entity;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Enum for match status values
  */
@@ -9,5 +15,49 @@ public enum MatchStatus {
     APPROVED,
     REJECTED,
     COMPLETED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    /**
+     * Legal transitions. A match moves forward through confirmation and approval to completion,
+     * and may be rejected or cancelled at any active step; the remaining statuses are final.
+     */
+    private static final Map<MatchStatus, Set<MatchStatus>> TRANSITIONS = new EnumMap<>(MatchStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, REJECTED, CANCELLED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(APPROVED, REJECTED, CANCELLED));
+        TRANSITIONS.put(APPROVED, EnumSet.of(COMPLETED, REJECTED, CANCELLED));
+        TRANSITIONS.put(REJECTED, EnumSet.noneOf(MatchStatus.class));
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(MatchStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(MatchStatus.class));
+        TRANSITIONS.replaceAll((status, targets) -> Collections.unmodifiableSet(targets));
+    }
+
+    /**
+     * Whether a match in this status still holds its pairs
+     */
+    public boolean isActive() {
+        return this == PENDING || this == CONFIRMED || this == APPROVED;
+    }
+
+    /**
+     * Whether a match in this status fell through before completing, freeing its pairs
+     */
+    public boolean isFailure() {
+        return this == REJECTED || this == CANCELLED;
+    }
+
+    /**
+     * Whether a match in this status may move to the given status
+     */
+    public boolean canTransitionTo(MatchStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    /**
+     * Statuses a match may move to from this one
+     */
+    public Set<MatchStatus> getTransitions() {
+        return TRANSITIONS.get(this);
+    }
+}
@@ -0,0 +1,51 @@
+package com.organsync.matching.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+
+/**
+ * Time-limited lease held by the replica allowed to run pool-wide matching
+ */
+@Entity
+@Table(name = "matching_leases")
+public class MatchingLease {
+
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @NotNull
+    @Column(name = "holder")
+    private String holder;
+
+    @Column(name = "acquired_at")
+    private Instant acquiredAt;
+
+    @NotNull
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    // Constructors
+    public MatchingLease() {}
+
+    public MatchingLease(String name, String holder, Instant acquiredAt, Instant expiresAt) {
+        this.name = name;
+        this.holder = holder;
+        this.acquiredAt = acquiredAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getHolder() { return holder; }
+    public void setHolder(String holder) { this.holder = holder; }
+
+    public Instant getAcquiredAt() { return acquiredAt; }
+    public void setAcquiredAt(Instant acquiredAt) { this.acquiredAt = acquiredAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,52 @@
+package com.organsync.matching.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+
+/**
+ * Matches found by a pool-wide run, stored under the fingerprint of the pool they were found in
+ */
+@Entity
+@Table(name = "matching_results")
+public class MatchingResult {
+
+    @Id
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
+    // Matches serialized as a JSON array
+    @NotNull
+    @Column(name = "matches", nullable = false, columnDefinition = "text")
+    private String matches;
+
+    @Column(name = "match_count")
+    private Integer matchCount;
+
+    @NotNull
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    // Constructors
+    public MatchingResult() {}
+
+    public MatchingResult(String fingerprint, String matches, Integer matchCount, Instant createdAt) {
+        this.fingerprint = fingerprint;
+        this.matches = matches;
+        this.matchCount = matchCount;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
+    public String getMatches() { return matches; }
+    public void setMatches(String matches) { this.matches = matches; }
+
+    public Integer getMatchCount() { return matchCount; }
+    public void setMatchCount(Integer matchCount) { this.matchCount = matchCount; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
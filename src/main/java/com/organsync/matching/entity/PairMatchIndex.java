@@ -0,0 +1,77 @@
+package com.organsync.matching.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Inverted index entry linking a pair to an active match it takes part in.
+ * Entries are removed when the match leaves the active statuses.
+ */
+@Entity
+@Table(name = "pair_match_index",
+       indexes = @Index(name = "idx_pair_match_index_match", columnList = "match_id"))
+@IdClass(PairMatchIndex.Key.class)
+public class PairMatchIndex {
+
+    @Id
+    @Column(name = "pair_id")
+    private UUID pairId;
+
+    @Id
+    @Column(name = "match_id")
+    private UUID matchId;
+
+    @Column(name = "indexed_at")
+    private LocalDateTime indexedAt;
+
+    // Constructors
+    public PairMatchIndex() {}
+
+    public PairMatchIndex(UUID pairId, UUID matchId) {
+        this.pairId = pairId;
+        this.matchId = matchId;
+        this.indexedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public UUID getPairId() { return pairId; }
+    public void setPairId(UUID pairId) { this.pairId = pairId; }
+
+    public UUID getMatchId() { return matchId; }
+    public void setMatchId(UUID matchId) { this.matchId = matchId; }
+
+    public LocalDateTime getIndexedAt() { return indexedAt; }
+    public void setIndexedAt(LocalDateTime indexedAt) { this.indexedAt = indexedAt; }
+
+    /**
+     * Composite key; pair id leads so lookups by pair use the primary key index
+     */
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private UUID pairId;
+        private UUID matchId;
+
+        public Key() {}
+
+        public Key(UUID pairId, UUID matchId) {
+            this.pairId = pairId;
+            this.matchId = matchId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(pairId, key.pairId) && Objects.equals(matchId, key.matchId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pairId, matchId);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.organsync.matching.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Region and shard a pair was assigned to by the last pool partitioning
+ */
+@Entity
+@Table(name = "pair_regions", indexes = @Index(name = "idx_pair_regions_shard", columnList = "shard"))
+public class PairRegion {
+
+    @Id
+    @Column(name = "pair_id")
+    private UUID pairId;
+
+    @NotNull
+    @Column(name = "region_id")
+    private String regionId;
+
+    @Column(name = "shard")
+    private int shard;
+
+    @Column(name = "assigned_at")
+    private LocalDateTime assignedAt;
+
+    // Constructors
+    public PairRegion() {}
+
+    public PairRegion(UUID pairId, String regionId, int shard) {
+        this.pairId = pairId;
+        this.regionId = regionId;
+        this.shard = shard;
+        this.assignedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public UUID getPairId() { return pairId; }
+    public void setPairId(UUID pairId) { this.pairId = pairId; }
+
+    public String getRegionId() { return regionId; }
+    public void setRegionId(String regionId) { this.regionId = regionId; }
+
+    public int getShard() { return shard; }
+    public void setShard(int shard) { this.shard = shard; }
+
+    public LocalDateTime getAssignedAt() { return assignedAt; }
+    public void setAssignedAt(LocalDateTime assignedAt) { this.assignedAt = assignedAt; }
+}
@@ -1,28 +1,52 @@
 package com.organsync.matching.event;
 
+import com.organsync.matching.service.BridgeDonorService;
 import com.organsync.matching.service.MatchingService;
+import com.organsync.matching.service.MatchingWorkScheduler;
+import com.organsync.matching.service.MatchingWorkScheduler.WorkKind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 /**
- * Kafka event listener for processing donor registration events
+ * Kafka event listener for processing donor registration events.
+ *
+ * Registration and update work is queued on the matching work scheduler by urgency and
+ * acknowledged once it has run successfully. Failed work is left unacknowledged, so its offset is
+ * not committed and the event is redelivered after the next rebalance or restart. When the
+ * backlog stays full for the scheduler's submit timeout the listener throws, and the container
+ * redelivers the event after a back-off. Producers signal urgency with the optional headers
+ * {@value #PRIORITY_HEADER} (the pair's priority level) and {@value #SENSITIZED_HEADER}
+ * ("true" for highly sensitized patients, treated as urgent). Registrations with
+ * {@value #ALTRUISTIC_HEADER} "true" are altruistic donors and can start chains.
  */
 @Component
 public class DonorRegistrationEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(DonorRegistrationEventListener.class);
 
+    public static final String PRIORITY_HEADER = "organsync-priority";
+    public static final String SENSITIZED_HEADER = "organsync-highly-sensitized";
+    public static final String ALTRUISTIC_HEADER = "organsync-altruistic";
+
     @Autowired
     private MatchingService matchingService;
 
+    @Autowired
+    private MatchingWorkScheduler scheduler;
+
+    @Autowired
+    private BridgeDonorService bridgeDonors;
+
     /**
      * Listen for donor registration events
      */
@@ -30,22 +54,38 @@ public class DonorRegistrationEventListener {
     public void handleDonorRegistered(@Payload String pairIdString, 
                                      @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
                                      @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                                     @Header(KafkaHeaders.OFFSET) long offset) {
+                                     @Header(KafkaHeaders.OFFSET) long offset,
+                                     @Header(name = PRIORITY_HEADER, required = false) Object priorityHeader,
+                                     @Header(name = SENSITIZED_HEADER, required = false) Object sensitizedHeader,
+                                     @Header(name = ALTRUISTIC_HEADER, required = false) Object altruisticHeader,
+                                     Acknowledgment acknowledgment) throws InterruptedException {
         logger.info("Received donor registration event from topic: {}, partition: {}, offset: {}", 
                    topic, partition, offset);
 
+        UUID pairId;
         try {
-            UUID pairId = UUID.fromString(pairIdString);
-            logger.info("Processing donor registration for pair ID: {}", pairId);
-
-            // Process the pair registration and find matches
-            matchingService.processPairRegistration(pairId);
-
-            logger.info("Successfully processed donor registration for pair ID: {}", pairId);
+            pairId = UUID.fromString(pairIdString);
         } catch (Exception e) {
             logger.error("Error processing donor registration event: {}", pairIdString, e);
             // In a production system, you might want to send this to a dead letter queue
+            acknowledgment.acknowledge();
+            return;
         }
+
+        int priority = priorityOf(priorityHeader, sensitizedHeader);
+        boolean altruistic = altruisticHeader != null && Boolean.parseBoolean(headerValue(altruisticHeader));
+        logger.info("Queueing donor registration for pair ID: {} at priority {}", pairId, priority);
+
+        // Offsets only advance once the queued work has succeeded; async acks let the container
+        // commit work that finishes out of arrival order
+        scheduler.submitBlocking(WorkKind.REGISTRATION, pairId, priority, () -> {
+            if (altruistic) {
+                bridgeDonors.registerAltruistic(pairId);
+            }
+            // Process the pair registration and find matches
+            matchingService.processPairRegistration(pairId);
+            logger.info("Successfully processed donor registration for pair ID: {}", pairId);
+        }).whenComplete((result, error) -> acknowledgeIfDone(acknowledgment, error, "registration", pairId));
     }
 
     /**
@@ -53,20 +93,29 @@ public class DonorRegistrationEventListener {
      */
     @KafkaListener(topics = "donor.updated", groupId = "matching-service-group")
     public void handleDonorUpdated(@Payload String pairIdString,
-                                  @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+                                  @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                                  @Header(name = PRIORITY_HEADER, required = false) Object priorityHeader,
+                                  @Header(name = SENSITIZED_HEADER, required = false) Object sensitizedHeader,
+                                  Acknowledgment acknowledgment) throws InterruptedException {
         logger.info("Received donor update event from topic: {}", topic);
 
+        UUID pairId;
         try {
-            UUID pairId = UUID.fromString(pairIdString);
-            logger.info("Processing donor update for pair ID: {}", pairId);
+            pairId = UUID.fromString(pairIdString);
+        } catch (Exception e) {
+            logger.error("Error processing donor update event: {}", pairIdString, e);
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        int priority = priorityOf(priorityHeader, sensitizedHeader);
+        logger.info("Queueing donor update for pair ID: {} at priority {}", pairId, priority);
 
+        scheduler.submitBlocking(WorkKind.REMATCH, pairId, priority, () -> {
             // Reprocess the pair to update compatibility and matches
             matchingService.processPairRegistration(pairId);
-
             logger.info("Successfully processed donor update for pair ID: {}", pairId);
-        } catch (Exception e) {
-            logger.error("Error processing donor update event: {}", pairIdString, e);
-        }
+        }).whenComplete((result, error) -> acknowledgeIfDone(acknowledgment, error, "update", pairId));
     }
 
     /**
@@ -74,7 +123,8 @@ public class DonorRegistrationEventListener {
      */
     @KafkaListener(topics = "donor.deleted", groupId = "matching-service-group")
     public void handleDonorDeleted(@Payload String pairIdString,
-                                  @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+                                  @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                                  Acknowledgment acknowledgment) {
         logger.info("Received donor deletion event from topic: {}", topic);
 
         try {
@@ -88,5 +138,44 @@ public class DonorRegistrationEventListener {
         } catch (Exception e) {
             logger.error("Error processing donor deletion event: {}", pairIdString, e);
         }
+
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * Acknowledge work that succeeded; failed work stays unacknowledged for redelivery
+     */
+    private static void acknowledgeIfDone(Acknowledgment acknowledgment, Throwable error, String event, UUID pairId) {
+        if (error == null) {
+            acknowledgment.acknowledge();
+        } else {
+            logger.error("Donor {} for pair ID {} failed and is left unacknowledged for redelivery", event, pairId);
+        }
+    }
+
+    /**
+     * Urgency of an event from its headers; a highly sensitized patient is at least urgent
+     */
+    private int priorityOf(Object priorityHeader, Object sensitizedHeader) {
+        int priority = 0;
+        if (priorityHeader != null) {
+            try {
+                priority = Integer.parseInt(headerValue(priorityHeader));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid {} header", PRIORITY_HEADER);
+            }
+        }
+        if (sensitizedHeader != null
+                && Boolean.parseBoolean(headerValue(sensitizedHeader))) {
+            priority = Math.max(priority, scheduler.getUrgentPriority());
+        }
+        return priority;
+    }
+
+    /**
+     * Raw Kafka headers arrive as bytes; headers mapped by a Spring producer may already be typed
+     */
+    private static String headerValue(Object header) {
+        return (header instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : header.toString()).trim();
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.organsync.matching.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.organsync.matching.dto.MatchDto;
+
+import java.util.List;
+
+/**
+ * One event for matches that moved to the same status together, such as every match of a cycle
+ */
+public class MatchStatusBatchEvent {
+
+    @JsonProperty("batch_id")
+    private String batchId;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("matches")
+    private List<MatchDto> matches;
+
+    // Constructors
+    public MatchStatusBatchEvent() {}
+
+    public MatchStatusBatchEvent(String batchId, String status, List<MatchDto> matches) {
+        this.batchId = batchId;
+        this.status = status;
+        this.matches = matches;
+    }
+
+    // Getters and Setters
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public List<MatchDto> getMatches() { return matches; }
+    public void setMatches(List<MatchDto> matches) { this.matches = matches; }
+}
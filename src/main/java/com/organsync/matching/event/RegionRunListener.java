@@ -0,0 +1,84 @@
+package com.organsync.matching.event;
+
+import com.organsync.matching.service.MatchingWorkScheduler;
+import com.organsync.matching.service.MatchingWorkScheduler.WorkKind;
+import com.organsync.matching.service.RegionShardCoordinator;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Kafka listeners for sharded matching. Partitions of the region run topic assigned to this
+ * replica are the shards it matches; only started when sharding is enabled.
+ */
+@Component
+public class RegionRunListener implements ConsumerSeekAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionRunListener.class);
+
+    @Autowired
+    private RegionShardCoordinator coordinator;
+
+    @Autowired
+    private MatchingWorkScheduler scheduler;
+
+    @Value("${organsync.matching.sharding.run-topic:matching.region.runs}")
+    private String runTopic;
+
+    @Value("${organsync.matching.scheduler.trigger-priority:5}")
+    private int regionRunPriority;
+
+    /**
+     * Match one shard for a sharded run
+     */
+    @KafkaListener(topics = "${organsync.matching.sharding.run-topic:matching.region.runs}",
+                   groupId = "matching-region-group",
+                   autoStartup = "${organsync.matching.sharding.enabled:false}")
+    public void handleRegionRun(@Payload RegionRunRequest request, Acknowledgment acknowledgment)
+            throws InterruptedException {
+        logger.info("Received region run {} for shard {}", request.getRunId(), request.getShard());
+        scheduler.submitBlocking(WorkKind.REGION_RUN, null, regionRunPriority, () -> coordinator.runRegion(request))
+                .whenComplete((result, error) -> acknowledgment.acknowledge());
+    }
+
+    /**
+     * Collect shard results; every replica reads all results and keeps those for its own runs
+     */
+    @KafkaListener(topics = "${organsync.matching.sharding.result-topic:matching.region.results}",
+                   groupId = "matching-region-results-#{T(java.util.UUID).randomUUID()}",
+                   properties = "auto.offset.reset=latest",
+                   autoStartup = "${organsync.matching.sharding.enabled:false}")
+    public void handleRegionResult(@Payload RegionRunResult result, Acknowledgment acknowledgment) {
+        coordinator.regionCompleted(result);
+        acknowledgment.acknowledge();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        coordinator.shardsAssigned(shards(assignments.keySet()));
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        coordinator.shardsRevoked(shards(partitions));
+    }
+
+    private List<Integer> shards(Collection<TopicPartition> partitions) {
+        return partitions.stream()
+                .filter(partition -> partition.topic().equals(runTopic))
+                .map(TopicPartition::partition)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,30 @@
+package com.organsync.matching.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Request for the owner of a shard to match the regions assigned to it
+ */
+public class RegionRunRequest {
+
+    @JsonProperty("run_id")
+    private String runId;
+
+    @JsonProperty("shard")
+    private int shard;
+
+    // Constructors
+    public RegionRunRequest() {}
+
+    public RegionRunRequest(String runId, int shard) {
+        this.runId = runId;
+        this.shard = shard;
+    }
+
+    // Getters and Setters
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
+
+    public int getShard() { return shard; }
+    public void setShard(int shard) { this.shard = shard; }
+}
@@ -0,0 +1,47 @@
+package com.organsync.matching.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.organsync.matching.dto.MatchDto;
+
+import java.util.List;
+
+/**
+ * Matches found by one shard for a sharded run, or the error that stopped it
+ */
+public class RegionRunResult {
+
+    @JsonProperty("run_id")
+    private String runId;
+
+    @JsonProperty("shard")
+    private int shard;
+
+    @JsonProperty("matches")
+    private List<MatchDto> matches;
+
+    @JsonProperty("error")
+    private String error;
+
+    // Constructors
+    public RegionRunResult() {}
+
+    public RegionRunResult(String runId, int shard, List<MatchDto> matches, String error) {
+        this.runId = runId;
+        this.shard = shard;
+        this.matches = matches;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
+
+    public int getShard() { return shard; }
+    public void setShard(int shard) { this.shard = shard; }
+
+    public List<MatchDto> getMatches() { return matches; }
+    public void setMatches(List<MatchDto> matches) { this.matches = matches; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,202 @@
+package com.organsync.matching.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation for the matching pipeline.
+ *
+ * Every stage of a matching run is timed under {@code organsync.matching.stage} (tagged by stage),
+ * and all stages of one run share a run ID placed in the MDC under {@value #RUN_ID_MDC_KEY} so
+ * their log lines can be correlated.
+ */
+@Component
+public class MatchingMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchingMetrics.class);
+
+    public static final String RUN_ID_MDC_KEY = "matchingRunId";
+
+    /**
+     * Stages of a matching run
+     */
+    public enum Stage {
+        POOL_LOAD("pool_load"),
+        GRAPH_BUILD("graph_build"),
+        BLOSSOM("blossom"),
+        CYCLES("cycles"),
+        CHAINS("chains"),
+        REDUCTION("reduction"),
+        REPAIR("repair"),
+        OPTIONS("options"),
+        PERSISTENCE("persistence"),
+        PUBLISH("publish");
+
+        private final String tag;
+
+        Stage(String tag) { this.tag = tag; }
+
+        public String getTag() { return tag; }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final AtomicLong poolVertices = new AtomicLong();
+    private final AtomicLong poolEdges = new AtomicLong();
+    private final AtomicLong reducedEdges = new AtomicLong();
+    private final AtomicLong reducedComponents = new AtomicLong();
+
+    public MatchingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("organsync.matching.stage")
+                    .description("Duration of a matching pipeline stage")
+                    .tag("stage", stage.getTag())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+
+        Gauge.builder("organsync.matching.pool.vertices", poolVertices, AtomicLong::get)
+                .description("Pairs in the most recently built compatibility graph")
+                .register(registry);
+        Gauge.builder("organsync.matching.pool.edges", poolEdges, AtomicLong::get)
+                .description("Edges in the most recently built compatibility graph")
+                .register(registry);
+        Gauge.builder("organsync.matching.reduction.edges", reducedEdges, AtomicLong::get)
+                .description("Edges left by the most recent graph reduction")
+                .register(registry);
+        Gauge.builder("organsync.matching.reduction.components", reducedComponents, AtomicLong::get)
+                .description("Independent components left by the most recent graph reduction")
+                .register(registry);
+    }
+
+    /**
+     * Start a matching run; stages recorded until the run is closed share its run ID
+     */
+    public MatchingRun startRun(String operation) {
+        return new MatchingRun(operation);
+    }
+
+    /**
+     * Time a stage that produces a value
+     */
+    public <T> T recordStage(Stage stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            stageCompleted(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Time a stage that produces no value
+     */
+    public void recordStage(Stage stage, Runnable work) {
+        recordStage(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Record the size of a freshly built compatibility graph
+     */
+    public void updatePoolSize(int vertices, int edges) {
+        poolVertices.set(vertices);
+        poolEdges.set(edges);
+    }
+
+    /**
+     * Record what graph reduction removed from a pool, per reason, and what it left
+     */
+    public void recordReduction(Map<String, Long> removedEdges, int edgesLeft, int components) {
+        removedEdges.forEach((reason, count) -> Counter.builder("organsync.matching.reduction.removed")
+                .description("Edges removed by graph reduction before matching")
+                .tag("reason", reason)
+                .register(registry)
+                .increment(count));
+        reducedEdges.set(edgesLeft);
+        reducedComponents.set(components);
+    }
+
+    /**
+     * Record candidate exchanges an algorithm looked at
+     */
+    public void candidatesEnumerated(String algorithm, long count) {
+        candidateCounter("organsync.matching.candidates.enumerated", algorithm).increment(count);
+    }
+
+    /**
+     * Record candidate exchanges an algorithm discarded without emitting them
+     */
+    public void candidatesPruned(String algorithm, long count) {
+        candidateCounter("organsync.matching.candidates.pruned", algorithm).increment(count);
+    }
+
+    private Counter candidateCounter(String name, String algorithm) {
+        return Counter.builder(name)
+                .tag("algorithm", algorithm)
+                .register(registry);
+    }
+
+    private void stageCompleted(Stage stage, long elapsedNanos) {
+        stageTimers.get(stage).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        logger.debug("Matching stage {} took {} ms [run {}]", stage.getTag(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), MDC.get(RUN_ID_MDC_KEY));
+    }
+
+    /**
+     * A single matching run. Nested runs on the same thread join the enclosing run's ID.
+     */
+    public class MatchingRun implements AutoCloseable {
+
+        private final String operation;
+        private final String runId;
+        private final boolean owner;
+        private final long start = System.nanoTime();
+
+        private MatchingRun(String operation) {
+            this.operation = operation;
+            String current = MDC.get(RUN_ID_MDC_KEY);
+            this.owner = current == null;
+            this.runId = owner ? UUID.randomUUID().toString() : current;
+            if (owner) {
+                MDC.put(RUN_ID_MDC_KEY, runId);
+            }
+        }
+
+        public String getRunId() { return runId; }
+
+        @Override
+        public void close() {
+            if (!owner) {
+                return;
+            }
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("organsync.matching.run")
+                    .description("Duration of a complete matching run")
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Matching run {} ({}) finished in {} ms", runId, operation,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+            MDC.remove(RUN_ID_MDC_KEY);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.organsync.matching.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A single matching algorithm invocation (Blossom, cycles or chains)
+ */
+@Name("com.organsync.matching.AlgorithmInvocation")
+@Label("Matching Algorithm Invocation")
+@Description("One invocation of a matching algorithm over the compatibility pool")
+public class AlgorithmInvocationEvent extends MatchingJfrEvent {
+
+    @Label("Algorithm")
+    public String algorithm;
+}
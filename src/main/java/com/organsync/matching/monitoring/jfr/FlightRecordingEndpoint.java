@@ -0,0 +1,172 @@
+package com.organsync.matching.monitoring.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for bounded JDK Flight Recorder recordings that include the matching events.
+ *
+ * POST starts a recording (one at a time), DELETE stops it, GET reports status and
+ * GET /{recordingId} downloads the .jfr file. Duration and size are capped by configuration so a
+ * forgotten recording cannot grow without bound.
+ */
+@Component
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+
+    private static final List<Class<? extends MatchingJfrEvent>> MATCHING_EVENTS = List.of(
+            GraphBuildEvent.class, AlgorithmInvocationEvent.class, PoolLoadEvent.class, MatchPublishEvent.class);
+
+    @Value("${organsync.monitoring.jfr.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${organsync.monitoring.jfr.max-size-mb:100}")
+    private long maxSizeMb;
+
+    @Value("${organsync.monitoring.jfr.settings:default}")
+    private String settings;
+
+    private Recording recording;
+    private Path recordingFile;
+
+    /**
+     * Current recording status
+     */
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("recordingId", recording.getId());
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("maxDurationSeconds", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    /**
+     * Start a bounded recording; any finished recording is discarded
+     * @throws InvalidEndpointRequestException (400) if the duration or size is not positive
+     */
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Long durationSeconds, @Nullable Long sizeMb) throws Exception {
+        if (durationSeconds != null && durationSeconds <= 0) {
+            throw new InvalidEndpointRequestException("durationSeconds must be positive, was " + durationSeconds,
+                    "durationSeconds must be positive");
+        }
+        if (sizeMb != null && sizeMb <= 0) {
+            throw new InvalidEndpointRequestException("sizeMb must be positive, was " + sizeMb,
+                    "sizeMb must be positive");
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Recording " + recording.getId() + " is already running");
+        }
+        discard();
+
+        long duration = Math.min(durationSeconds != null ? durationSeconds : maxDurationSeconds, maxDurationSeconds);
+        long size = Math.min(sizeMb != null ? sizeMb : maxSizeMb, maxSizeMb);
+
+        recordingFile = Files.createTempFile("organsync-matching-", ".jfr");
+        recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("organsync-matching");
+        for (Class<? extends MatchingJfrEvent> event : MATCHING_EVENTS) {
+            recording.enable(event);
+        }
+        recording.setDuration(Duration.ofSeconds(duration));
+        recording.setMaxSize(size * 1024 * 1024);
+        recording.setDestination(recordingFile);
+        recording.setToDisk(true);
+        recording.start();
+
+        logger.info("Started flight recording {} for up to {}s / {}MB", recording.getId(), duration, size);
+        return status();
+    }
+
+    /**
+     * Stop the running recording and keep it for download
+     */
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            logger.info("Stopped flight recording {}", recording.getId());
+        }
+        return status();
+    }
+
+    /**
+     * Download a recording; a running recording is snapshotted up to now into a file that is
+     * deleted once the response has been streamed
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource download(@Selector long recordingId) throws IOException {
+        if (recording == null || recording.getId() != recordingId) {
+            return null;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            Path snapshot = Files.createTempFile("organsync-matching-snapshot-", ".jfr");
+            recording.dump(snapshot);
+            // Backstop for a download that never reads the file
+            snapshot.toFile().deleteOnExit();
+            return new SnapshotResource(snapshot);
+        }
+        return Files.exists(recordingFile) ? new FileSystemResource(recordingFile) : null;
+    }
+
+    /**
+     * Snapshot of a running recording, deleted when the stream read for the response is closed
+     */
+    private static final class SnapshotResource extends FileSystemResource {
+
+        SnapshotResource(Path path) {
+            super(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(getFile().toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+        }
+    }
+
+    private void discard() throws IOException {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (recordingFile != null) {
+            Files.deleteIfExists(recordingFile);
+            recordingFile = null;
+        }
+    }
+}
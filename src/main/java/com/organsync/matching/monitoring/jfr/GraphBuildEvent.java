@@ -0,0 +1,14 @@
+package com.organsync.matching.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Construction of the compatibility graph from loaded compatibilities
+ */
+@Name("com.organsync.matching.GraphBuild")
+@Label("Compatibility Graph Build")
+@Description("Building the compatibility graph for a matching algorithm")
+public class GraphBuildEvent extends MatchingJfrEvent {
+}
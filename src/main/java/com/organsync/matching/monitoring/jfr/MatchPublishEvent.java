@@ -0,0 +1,17 @@
+package com.organsync.matching.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Publishing match events to Kafka
+ */
+@Name("com.organsync.matching.MatchPublish")
+@Label("Match Event Publish")
+@Description("Sending match events to a Kafka topic")
+public class MatchPublishEvent extends MatchingJfrEvent {
+
+    @Label("Topic")
+    public String topic;
+}
@@ -0,0 +1,47 @@
+package com.organsync.matching.monitoring.jfr;
+
+import com.organsync.matching.monitoring.MatchingMetrics;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import org.slf4j.MDC;
+
+/**
+ * Base class for matching-domain JDK Flight Recorder events.
+ *
+ * Duration comes from the event's begin/commit window; the fields describe the pool the work ran
+ * against. Sizes that are unknown at the emission site stay at -1.
+ */
+@Category({"OrganSync", "Matching"})
+public abstract class MatchingJfrEvent extends Event {
+
+    @Label("Run ID")
+    @Description("Matching run the work belongs to")
+    public String runId;
+
+    @Label("Pool Size")
+    @Description("Distinct pairs in the compatibility pool")
+    public int poolSize = -1;
+
+    @Label("Edge Count")
+    @Description("Compatibility edges in the pool")
+    public int edgeCount = -1;
+
+    @Label("Result Count")
+    @Description("Items produced by the work (edges loaded, matches found, events published)")
+    public int resultCount = -1;
+
+    /**
+     * End the event and tell whether it will be recorded. Callers fill in (possibly expensive)
+     * fields and commit only when this returns true.
+     */
+    public boolean complete() {
+        end();
+        if (!shouldCommit()) {
+            return false;
+        }
+        runId = MDC.get(MatchingMetrics.RUN_ID_MDC_KEY);
+        return true;
+    }
+}
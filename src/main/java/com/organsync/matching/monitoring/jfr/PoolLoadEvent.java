@@ -0,0 +1,14 @@
+package com.organsync.matching.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Loading the fully compatible pool from the database
+ */
+@Name("com.organsync.matching.PoolLoad")
+@Label("Compatibility Pool Load")
+@Description("Database load of the fully compatible pool")
+public class PoolLoadEvent extends MatchingJfrEvent {
+}
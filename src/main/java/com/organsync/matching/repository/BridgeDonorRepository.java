@@ -0,0 +1,17 @@
+package com.organsync.matching.repository;
+
+import com.organsync.matching.entity.BridgeDonor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BridgeDonorRepository extends JpaRepository<BridgeDonor, UUID> {
+
+    List<BridgeDonor> findByStatus(BridgeDonor.Status status);
+
+    List<BridgeDonor> findByStatusAndUpdatedAtAfter(BridgeDonor.Status status, LocalDateTime since);
+}
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -34,4 +36,83 @@ public interface CompatibilityRepository extends JpaRepository<Compatibility, UU
 
     @Query("SELECT AVG(c.compatibilityScore) FROM Compatibility c WHERE c.bloodTypeCompatible = true")
     Double averageCompatibilityScore();
+
+    /**
+     * Most recent compatibility change, used to tell whether the pool needs rematching
+     */
+    @Query("SELECT MAX(c.updatedAt) FROM Compatibility c")
+    LocalDateTime findLatestUpdate();
+
+    /**
+     * Pairs whose compatibilities as a donor were all created after the given time, that is pairs
+     * registered since then
+     */
+    @Query("SELECT c.donorPairId FROM Compatibility c GROUP BY c.donorPairId HAVING MIN(c.createdAt) > :since")
+    List<UUID> findDonorPairsFirstSeenAfter(@Param("since") LocalDateTime since);
+
+    /**
+     * Pairs whose compatibilities as a recipient were all created after the given time
+     */
+    @Query("SELECT c.recipientPairId FROM Compatibility c GROUP BY c.recipientPairId HAVING MIN(c.createdAt) > :since")
+    List<UUID> findRecipientPairsFirstSeenAfter(@Param("since") LocalDateTime since);
+
+    /**
+     * Endpoints and distance of every fully compatible edge, for partitioning without loading entities
+     */
+    @Query("SELECT c.donorPairId AS donorPairId, c.recipientPairId AS recipientPairId, c.distanceKm AS distanceKm " +
+           "FROM Compatibility c WHERE c.bloodTypeCompatible = true AND c.hlaCompatible = true AND c.crossmatchCompatible = true")
+    List<EdgeDistance> findFullyCompatibleEdgeDistances();
+
+    /**
+     * Fully compatible edges with both pairs assigned to the shard
+     */
+    @Query("SELECT c FROM Compatibility c, PairRegion d, PairRegion r " +
+           "WHERE c.donorPairId = d.pairId AND c.recipientPairId = r.pairId AND d.shard = :shard AND r.shard = :shard " +
+           "AND c.bloodTypeCompatible = true AND c.hlaCompatible = true AND c.crossmatchCompatible = true")
+    List<Compatibility> findFullyCompatibleWithinShard(@Param("shard") int shard);
+
+    /**
+     * Fully compatible edges whose pairs are assigned to different shards
+     */
+    @Query("SELECT c FROM Compatibility c, PairRegion d, PairRegion r " +
+           "WHERE c.donorPairId = d.pairId AND c.recipientPairId = r.pairId AND d.shard <> r.shard " +
+           "AND c.bloodTypeCompatible = true AND c.hlaCompatible = true AND c.crossmatchCompatible = true")
+    List<Compatibility> findFullyCompatibleAcrossShards();
+
+    /**
+     * Fully compatible edges with both pairs in the given set
+     */
+    @Query("SELECT c FROM Compatibility c WHERE c.donorPairId IN :pairIds AND c.recipientPairId IN :pairIds " +
+           "AND c.bloodTypeCompatible = true AND c.hlaCompatible = true AND c.crossmatchCompatible = true")
+    List<Compatibility> findFullyCompatibleAmong(@Param("pairIds") Collection<UUID> pairIds);
+
+    /**
+     * Fully compatible edges with at least one pair in the given set
+     */
+    @Query("SELECT c FROM Compatibility c WHERE (c.donorPairId IN :pairIds OR c.recipientPairId IN :pairIds) " +
+           "AND c.bloodTypeCompatible = true AND c.hlaCompatible = true AND c.crossmatchCompatible = true")
+    List<Compatibility> findFullyCompatibleTouching(@Param("pairIds") Collection<UUID> pairIds);
+
+    /**
+     * Fully compatible edges whose donor pair is in the given set
+     */
+    @Query("SELECT c FROM Compatibility c WHERE c.donorPairId IN :pairIds " +
+           "AND c.bloodTypeCompatible = true AND c.hlaCompatible = true AND c.crossmatchCompatible = true")
+    List<Compatibility> findFullyCompatibleFrom(@Param("pairIds") Collection<UUID> pairIds);
+
+    /**
+     * Fully compatible edges whose recipient pair is in the given set
+     */
+    @Query("SELECT c FROM Compatibility c WHERE c.recipientPairId IN :pairIds " +
+           "AND c.bloodTypeCompatible = true AND c.hlaCompatible = true AND c.crossmatchCompatible = true")
+    List<Compatibility> findFullyCompatibleInto(@Param("pairIds") Collection<UUID> pairIds);
+
+    /**
+     * Projection of a compatibility edge used for region partitioning
+     */
+    interface EdgeDistance {
+        UUID getDonorPairId();
+        UUID getRecipientPairId();
+        Double getDistanceKm();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.organsync.matching.repository;
+
+import com.organsync.matching.entity.HospitalMatchView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface HospitalMatchViewRepository extends JpaRepository<HospitalMatchView, UUID> {
+
+    List<HospitalMatchView> findByHospitalIdOrderByCreatedAtDescMatchIdDesc(String hospitalId);
+
+    @Modifying
+    @Query("UPDATE HospitalMatchView v SET v.status = :status, v.matchVersion = :version, v.updatedAt = :updatedAt " +
+           "WHERE v.matchId = :matchId")
+    int updateStatus(@Param("matchId") UUID matchId, @Param("status") String status,
+                     @Param("version") Long version, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE HospitalMatchView v SET v.status = :status, v.matchVersion = v.matchVersion + 1, " +
+           "v.updatedAt = :updatedAt WHERE v.matchId IN :matchIds")
+    int updateStatuses(@Param("matchIds") Collection<UUID> matchIds, @Param("status") String status,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+}
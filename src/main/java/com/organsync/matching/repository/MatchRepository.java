@@ -1,19 +1,24 @@
 package com.organsync.matching.repository;
 
 import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.MatchType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface MatchRepository extends JpaRepository<Match, UUID> {
 
-    List<Match> findByStatus(String status);
+    List<Match> findByStatus(MatchStatus status);
 
     List<Match> findByHospitalId(String hospitalId);
 
@@ -26,8 +31,9 @@ public interface MatchRepository extends JpaRepository<Match, UUID> {
     List<Match> findByDateRange(@Param("startDate") LocalDateTime startDate, 
                                @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT m FROM Match m WHERE :pairId MEMBER OF m.pairIds")
-    List<Match> findByPairId(@Param("pairId") UUID pairId);
+    long countByStatusIn(Collection<MatchStatus> statuses);
+
+    List<Match> findByStatusInAndUpdatedAtAfter(Collection<MatchStatus> statuses, LocalDateTime updatedAfter);
 
     @Query("SELECT COUNT(m) FROM Match m WHERE m.status = :status")
     Long countByStatus(@Param("status") String status);
@@ -37,4 +43,61 @@ public interface MatchRepository extends JpaRepository<Match, UUID> {
 
     @Query("SELECT m FROM Match m WHERE m.status = 'PENDING' AND m.priorityLevel IS NOT NULL ORDER BY m.priorityLevel DESC")
     List<Match> findPendingMatchesOrderedByPriority();
+
+    @Query("SELECT m.id AS id, m.createdAt AS createdAt FROM Match m WHERE " +
+           "(:status IS NULL OR m.status = :status) AND " +
+           "(:matchType IS NULL OR m.matchType = :matchType) AND " +
+           "(:hospitalId IS NULL OR m.hospitalId = :hospitalId) AND " +
+           "(:startDate IS NULL OR m.createdAt >= :startDate) AND " +
+           "(:endDate IS NULL OR m.createdAt <= :endDate) AND " +
+           "(:minScore IS NULL OR m.compatibilityScore >= :minScore) AND " +
+           "(:afterCreatedAt IS NULL OR m.createdAt < :afterCreatedAt OR " +
+           " (m.createdAt = :afterCreatedAt AND m.id < :afterId)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<KeysetKey> findKeysForKeysetPage(@Param("status") MatchStatus status,
+                                          @Param("matchType") MatchType matchType,
+                                          @Param("hospitalId") String hospitalId,
+                                          @Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          @Param("minScore") Double minScore,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") UUID afterId,
+                                          Pageable pageable);
+
+    List<Match> findByIdIn(Collection<UUID> ids);
+
+    /**
+     * Move the listed matches still in the given status to a new status, bumping their versions.
+     * Returns how many rows moved; fewer than requested means some changed concurrently.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Match m SET m.status = :status, m.version = m.version + 1, m.updatedAt = :updatedAt " +
+           "WHERE m.id IN :ids AND m.status = :previousStatus")
+    int transitionStatus(@Param("ids") Collection<UUID> ids, @Param("previousStatus") MatchStatus previousStatus,
+                         @Param("status") MatchStatus status, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT m.status AS status, m.matchType AS matchType, m.hospitalId AS hospitalId, " +
+           "COUNT(m) AS matchCount, SUM(m.compatibilityScore) AS scoreSum, COUNT(m.compatibilityScore) AS scoredCount " +
+           "FROM Match m GROUP BY m.status, m.matchType, m.hospitalId")
+    List<StatisticsRow> aggregateStatistics();
+
+    /**
+     * Position of a match in keyset order
+     */
+    interface KeysetKey {
+        UUID getId();
+        LocalDateTime getCreatedAt();
+    }
+
+    /**
+     * One group of the statistics aggregate
+     */
+    interface StatisticsRow {
+        MatchStatus getStatus();
+        MatchType getMatchType();
+        String getHospitalId();
+        Long getMatchCount();
+        Double getScoreSum();
+        Long getScoredCount();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.organsync.matching.repository;
+
+import com.organsync.matching.entity.MatchingLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface MatchingLeaseRepository extends JpaRepository<MatchingLease, String> {
+
+    /**
+     * Extend the lease if the holder already has it, or take it over if it has expired.
+     * A single conditional update, so two replicas can never both succeed.
+     * @return 1 if the holder now has the lease, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE MatchingLease l SET " +
+           "l.acquiredAt = CASE WHEN l.holder = :holder THEN l.acquiredAt ELSE :now END, " +
+           "l.holder = :holder, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND (l.holder = :holder OR l.expiresAt < :now)")
+    int acquireOrRenew(@Param("name") String name, @Param("holder") String holder,
+                       @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Lease row, locked until the surrounding transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM MatchingLease l WHERE l.name = :name")
+    Optional<MatchingLease> findForUpdate(@Param("name") String name);
+
+    /**
+     * Expire the lease immediately if the holder has it, so another replica can take over
+     */
+    @Modifying
+    @Query("UPDATE MatchingLease l SET l.expiresAt = :now WHERE l.name = :name AND l.holder = :holder")
+    int release(@Param("name") String name, @Param("holder") String holder, @Param("now") Instant now);
+}
@@ -0,0 +1,22 @@
+package com.organsync.matching.repository;
+
+import com.organsync.matching.entity.MatchingResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface MatchingResultRepository extends JpaRepository<MatchingResult, String> {
+
+    /**
+     * Drop results stored before the cutoff
+     * @return Number of results dropped
+     */
+    @Modifying
+    @Query("DELETE FROM MatchingResult r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
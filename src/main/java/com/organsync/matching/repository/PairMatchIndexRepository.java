@@ -0,0 +1,29 @@
+package com.organsync.matching.repository;
+
+import com.organsync.matching.entity.PairMatchIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PairMatchIndexRepository extends JpaRepository<PairMatchIndex, PairMatchIndex.Key> {
+
+    List<PairMatchIndex> findByPairIdIn(Collection<UUID> pairIds);
+
+    @Query("SELECT COUNT(DISTINCT i.matchId) FROM PairMatchIndex i")
+    long countIndexedMatches();
+
+    @Modifying
+    @Query("DELETE FROM PairMatchIndex i WHERE i.matchId = :matchId")
+    int deleteByMatchId(@Param("matchId") UUID matchId);
+
+    @Modifying
+    @Query("DELETE FROM PairMatchIndex i WHERE i.matchId IN :matchIds")
+    int deleteByMatchIdIn(@Param("matchIds") Collection<UUID> matchIds);
+}
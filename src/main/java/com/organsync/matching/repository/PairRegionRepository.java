@@ -0,0 +1,11 @@
+package com.organsync.matching.repository;
+
+import com.organsync.matching.entity.PairRegion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface PairRegionRepository extends JpaRepository<PairRegion, UUID> {
+}
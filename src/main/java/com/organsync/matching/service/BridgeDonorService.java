@@ -0,0 +1,110 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.BridgeDonor;
+import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.MatchType;
+import com.organsync.matching.repository.BridgeDonorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks the donors that can start chains.
+ *
+ * A chain match lists its source donor first and its tail pair last. The source is reserved while
+ * the chain is in progress and released if the chain fails; once the chain completes, the source
+ * retires and the donor of the tail pair becomes a bridge donor for the next segment. Changes are
+ * written in the same transaction as the chain match.
+ */
+@Service
+@Transactional
+public class BridgeDonorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BridgeDonorService.class);
+
+    @Autowired
+    private BridgeDonorRepository bridgeDonorRepository;
+
+    /**
+     * Add a registered pair as an altruistic donor; no-op if it is already tracked
+     */
+    public void registerAltruistic(UUID pairId) {
+        if (!bridgeDonorRepository.existsById(pairId)) {
+            bridgeDonorRepository.save(new BridgeDonor(pairId, BridgeDonor.Kind.ALTRUISTIC, null));
+            logger.info("Registered altruistic donor {}", pairId);
+        }
+    }
+
+    /**
+     * Donors currently able to start a chain
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> getAvailableDonors() {
+        return bridgeDonorRepository.findByStatus(BridgeDonor.Status.AVAILABLE).stream()
+                .map(BridgeDonor::getPairId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Donors that became able to start a chain after the given time: newly registered or
+     * promoted donors, and sources released by failed chains
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> getDonorsAvailableSince(LocalDateTime since) {
+        return bridgeDonorRepository.findByStatusAndUpdatedAtAfter(BridgeDonor.Status.AVAILABLE, since).stream()
+                .map(BridgeDonor::getPairId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Reserve the source donor of a newly persisted chain
+     */
+    public void recordChainCreated(Match match) {
+        if (!isChain(match)) {
+            return;
+        }
+        bridgeDonorRepository.findById(match.getPairIds().get(0)).ifPresent(source -> {
+            source.setStatus(BridgeDonor.Status.RESERVED);
+            source.setChainMatchId(match.getId());
+        });
+    }
+
+    /**
+     * Retire the source and promote the tail when a chain completes; release the source when it fails
+     */
+    public void recordChainStatusChange(Match match) {
+        if (!isChain(match)) {
+            return;
+        }
+        List<UUID> pairIds = match.getPairIds();
+        BridgeDonor source = bridgeDonorRepository.findById(pairIds.get(0))
+                .filter(donor -> match.getId().equals(donor.getChainMatchId()))
+                .orElse(null);
+        if (match.getStatus() == MatchStatus.COMPLETED) {
+            if (source != null) {
+                source.setStatus(BridgeDonor.Status.RETIRED);
+            }
+            UUID tail = pairIds.get(pairIds.size() - 1);
+            if (!bridgeDonorRepository.existsById(tail)) {
+                bridgeDonorRepository.save(new BridgeDonor(tail, BridgeDonor.Kind.BRIDGE, match.getId()));
+                logger.info("Pair {} is now the bridge donor of chain {}", tail, match.getId());
+            }
+        } else if (match.getStatus().isFailure() && source != null) {
+            source.setStatus(BridgeDonor.Status.AVAILABLE);
+            source.setChainMatchId(null);
+        }
+    }
+
+    private static boolean isChain(Match match) {
+        return match.getMatchType() == MatchType.CHAIN && match.getPairIds() != null && match.getPairIds().size() >= 2;
+    }
+}
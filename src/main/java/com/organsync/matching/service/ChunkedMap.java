@@ -0,0 +1,102 @@
+package com.organsync.matching.service;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Immutable map split by key hash into chunks, so an updated copy shares every chunk the update
+ * does not touch.
+ *
+ * A map of n entries is built with at least sqrt(n) chunks, which makes an update cost one copy of
+ * the chunk array plus one copy of each touched chunk, roughly sqrt(n) each, instead of a copy of
+ * the whole map. Maps grown by updates keep their chunk count until they are rebuilt.
+ */
+final class ChunkedMap<K, V> {
+
+    private static final int MIN_CHUNKS = 16;
+
+    private final Map<K, V>[] chunks;
+    private final int size;
+
+    private ChunkedMap(Map<K, V>[] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    static <K, V> ChunkedMap<K, V> of(Map<K, V> entries) {
+        int count = MIN_CHUNKS;
+        while ((long) count * count < entries.size()) {
+            count <<= 1;
+        }
+        Map<K, V>[] chunks = newChunks(count);
+        for (int i = 0; i < count; i++) {
+            chunks[i] = new HashMap<>();
+        }
+        entries.forEach((key, value) -> chunks[index(key, chunks.length)].put(key, value));
+        return new ChunkedMap<>(chunks, entries.size());
+    }
+
+    /**
+     * Copy of this map with the given entries put, or removed where the value is null
+     */
+    ChunkedMap<K, V> with(Map<K, V> updates) {
+        Map<K, V>[] next = chunks.clone();
+        int nextSize = size;
+        for (Map.Entry<K, V> update : updates.entrySet()) {
+            int i = index(update.getKey(), next.length);
+            if (next[i] == chunks[i]) {
+                next[i] = new HashMap<>(chunks[i]);
+            }
+            if (update.getValue() == null) {
+                nextSize -= next[i].remove(update.getKey()) != null ? 1 : 0;
+            } else {
+                nextSize += next[i].put(update.getKey(), update.getValue()) == null ? 1 : 0;
+            }
+        }
+        return new ChunkedMap<>(next, nextSize);
+    }
+
+    V get(K key) {
+        return chunks[index(key, chunks.length)].get(key);
+    }
+
+    V getOrDefault(K key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Read-only view of the values
+     */
+    Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return Arrays.stream(chunks).flatMap(chunk -> chunk.values().stream()).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int index(Object key, int count) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (count - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newChunks(int count) {
+        return (Map<K, V>[]) new Map<?, ?>[count];
+    }
+}
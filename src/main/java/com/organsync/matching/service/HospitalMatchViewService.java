@@ -0,0 +1,151 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.entity.HospitalMatchView;
+import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.repository.HospitalMatchViewRepository;
+import com.organsync.matching.repository.MatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the per-hospital match view.
+ *
+ * Rows are written in the same transaction as the match they copy, on insert and on every status
+ * change, so the view never disagrees with the matches table after a commit. Hospital listings
+ * read the view only; no match entities or pair collections are loaded.
+ */
+@Service
+@Transactional
+public class HospitalMatchViewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HospitalMatchViewService.class);
+
+    @Autowired
+    private HospitalMatchViewRepository viewRepository;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    /**
+     * Add a newly persisted match to its hospital's view
+     */
+    public void recordCreated(Match match) {
+        viewRepository.save(toRow(match));
+    }
+
+    /**
+     * Update the status of a match in its hospital's view
+     */
+    public void recordStatusChange(Match match) {
+        int updated = viewRepository.updateStatus(match.getId(), match.getStatus().name(), match.getVersion(),
+                LocalDateTime.now());
+        if (updated == 0) {
+            // Match predates the view; add it now
+            viewRepository.save(toRow(match));
+        }
+    }
+
+    /**
+     * Update the status of matches that all moved to the same status by one bulk update
+     */
+    public void recordStatusChanges(Collection<Match> matches, MatchStatus status) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        Map<UUID, Match> byId = matches.stream().collect(Collectors.toMap(Match::getId, match -> match));
+        int updated = viewRepository.updateStatuses(byId.keySet(), status.name(), LocalDateTime.now());
+        if (updated < byId.size()) {
+            // Some matches predate the view; add them now
+            viewRepository.findAllById(byId.keySet()).forEach(row -> byId.remove(row.getMatchId()));
+            viewRepository.saveAll(byId.values().stream()
+                    .map(HospitalMatchViewService::toRow)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Matches of a hospital, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<MatchDto> getMatches(String hospitalId) {
+        return viewRepository.findByHospitalIdOrderByCreatedAtDescMatchIdDesc(hospitalId).stream()
+                .map(HospitalMatchViewService::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every match in the view, for rebuilding in-memory snapshots
+     */
+    @Transactional(readOnly = true)
+    public List<MatchDto> getAllMatches() {
+        return viewRepository.findAll().stream()
+                .map(HospitalMatchViewService::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Populate the view from the matches table when it is missing rows, such as on first
+     * deployment of the view
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long expected = matchRepository.count();
+        long present = viewRepository.count();
+        if (present >= expected) {
+            return;
+        }
+        List<HospitalMatchView> rows = matchRepository.findAll().stream()
+                .map(HospitalMatchViewService::toRow)
+                .collect(Collectors.toList());
+        viewRepository.saveAll(rows);
+        logger.info("Backfilled hospital match view with {} rows ({} were present)", rows.size(), present);
+    }
+
+    static HospitalMatchView toRow(Match match) {
+        HospitalMatchView row = new HospitalMatchView();
+        row.setMatchId(match.getId());
+        row.setHospitalId(match.getHospitalId());
+        row.setMatchType(match.getMatchType() != null ? match.getMatchType().name() : null);
+        row.setStatus(match.getStatus() != null ? match.getStatus().name() : null);
+        row.setPairIds(match.getPairIds() != null ? match.getPairIds().stream()
+                .map(UUID::toString)
+                .collect(Collectors.joining(",")) : null);
+        row.setCompatibilityScore(match.getCompatibilityScore());
+        row.setPriorityLevel(match.getPriorityLevel());
+        row.setCreatedAt(match.getCreatedAt() != null ? match.getCreatedAt() : LocalDateTime.now());
+        row.setUpdatedAt(match.getUpdatedAt() != null ? match.getUpdatedAt() : row.getCreatedAt());
+        row.setMatchVersion(match.getVersion());
+        return row;
+    }
+
+    static MatchDto toDto(HospitalMatchView row) {
+        MatchDto dto = new MatchDto();
+        dto.setId(row.getMatchId());
+        dto.setMatchType(row.getMatchType());
+        dto.setStatus(row.getStatus());
+        dto.setPairIds(row.getPairIds() == null ? null : row.getPairIds().isEmpty() ? List.of()
+                : Arrays.stream(row.getPairIds().split(",")).map(UUID::fromString).collect(Collectors.toList()));
+        dto.setCompatibilityScore(row.getCompatibilityScore());
+        dto.setCreatedAt(row.getCreatedAt());
+        dto.setUpdatedAt(row.getUpdatedAt());
+        dto.setHospitalId(row.getHospitalId());
+        dto.setPriorityLevel(row.getPriorityLevel());
+        dto.setVersion(row.getMatchVersion());
+        return dto;
+    }
+}
@@ -0,0 +1,31 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.MatchStatus;
+
+import java.util.UUID;
+
+/**
+ * A status change the match status transition table does not allow
+ */
+public class IllegalMatchTransitionException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UUID matchId;
+    private final MatchStatus from;
+    private final MatchStatus to;
+
+    public IllegalMatchTransitionException(UUID matchId, MatchStatus from, MatchStatus to) {
+        super("Match " + matchId + " cannot move from " + from + " to " + to
+                + " (allowed: " + from.getTransitions() + ")");
+        this.matchId = matchId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public UUID getMatchId() { return matchId; }
+
+    public MatchStatus getFrom() { return from; }
+
+    public MatchStatus getTo() { return to; }
+}
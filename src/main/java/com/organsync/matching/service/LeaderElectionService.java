@@ -0,0 +1,182 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.MatchingLease;
+import com.organsync.matching.repository.MatchingLeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Elects the one replica that runs pool-wide matching.
+ *
+ * Leadership is a lease row in the matching database: the holder renews it well within the
+ * lease duration, and any replica may take it over once it expires, so a crashed leader is
+ * replaced within one lease. A leader that cannot renew steps down locally when its own view of
+ * the lease runs out, before another replica can acquire it. Needs nothing beyond the database.
+ */
+@Service
+public class LeaderElectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderElectionService.class);
+
+    static final String LEASE_NAME = "pool-matching";
+
+    @Autowired
+    private MatchingLeaseRepository leaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${organsync.matching.leader.enabled:true}")
+    private boolean enabled;
+
+    @Value("${organsync.matching.leader.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Value("${organsync.matching.leader.instance-id:}")
+    private String instanceId;
+
+    private Clock clock = Clock.systemUTC();
+
+    private volatile Instant leaderUntil = Instant.MIN;
+
+    @PostConstruct
+    void init() {
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = UUID.randomUUID().toString();
+        }
+        Gauge.builder("organsync.matching.leader", this, s -> s.isLeader() ? 1 : 0)
+                .description("Whether this replica holds the pool matching lease")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether this replica may run pool-wide matching right now. Always true when election is disabled.
+     */
+    public boolean isLeader() {
+        return !enabled || clock.instant().isBefore(leaderUntil);
+    }
+
+    public String getInstanceId() { return instanceId; }
+
+    /**
+     * Fence the writes of the surrounding transaction: lock the lease row until it ends and check
+     * that this replica still holds the lease. Taking the lease over updates that row, so a new
+     * leader waits for these writes to commit and sees them, whatever the clocks say about expiry.
+     * @throws LeadershipLostException if another replica holds the lease, rolling the writes back
+     */
+    public void fenceWrites() {
+        if (!enabled) {
+            return;
+        }
+        boolean held = leaseRepository.findForUpdate(LEASE_NAME)
+                .map(lease -> instanceId.equals(lease.getHolder()))
+                .orElse(false);
+        if (!held) {
+            leaderUntil = Instant.MIN;
+            throw new LeadershipLostException(instanceId);
+        }
+    }
+
+    /**
+     * Replica currently holding an unexpired lease, if any
+     */
+    public Optional<String> getLeaderId() {
+        if (!enabled) {
+            return Optional.of(instanceId);
+        }
+        Instant now = clock.instant();
+        return leaseRepository.findById(LEASE_NAME)
+                .filter(lease -> lease.getExpiresAt().isAfter(now))
+                .map(MatchingLease::getHolder);
+    }
+
+    /**
+     * Acquire or renew the lease. Runs several times per lease duration.
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.leader.renew-interval-ms:10000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        boolean wasLeader = isLeader();
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(Duration.ofSeconds(leaseSeconds));
+        boolean held;
+        try {
+            held = tryAcquire(now, expiresAt);
+        } catch (RuntimeException e) {
+            logger.warn("Could not renew matching lease: {}", e.getMessage());
+            return;
+        }
+        if (held) {
+            leaderUntil = expiresAt;
+            if (!wasLeader) {
+                logger.info("Replica {} is now the matching leader until {}", instanceId, expiresAt);
+            }
+        } else {
+            leaderUntil = Instant.MIN;
+            if (wasLeader) {
+                logger.warn("Replica {} lost the matching lease", instanceId);
+            }
+        }
+    }
+
+    private boolean tryAcquire(Instant now, Instant expiresAt) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer updated = transaction.execute(status ->
+                leaseRepository.acquireOrRenew(LEASE_NAME, instanceId, now, expiresAt));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+        try {
+            // First replica ever to run: create the lease row
+            return Boolean.TRUE.equals(transaction.execute(status -> {
+                if (leaseRepository.existsById(LEASE_NAME)) {
+                    return false;
+                }
+                leaseRepository.saveAndFlush(new MatchingLease(LEASE_NAME, instanceId, now, expiresAt));
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hand the lease over on shutdown instead of waiting for it to expire
+     */
+    @PreDestroy
+    void release() {
+        if (!enabled || !isLeader()) {
+            return;
+        }
+        leaderUntil = Instant.MIN;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    leaseRepository.release(LEASE_NAME, instanceId, clock.instant()));
+            logger.info("Replica {} released the matching lease", instanceId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not release matching lease: {}", e.getMessage());
+        }
+    }
+}
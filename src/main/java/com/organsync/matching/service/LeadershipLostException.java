@@ -0,0 +1,13 @@
+package com.organsync.matching.service;
+
+/**
+ * A write made as matching leader after another replica took the lease over
+ */
+public class LeadershipLostException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LeadershipLostException(String instanceId) {
+        super("Replica " + instanceId + " no longer holds the matching lease");
+    }
+}
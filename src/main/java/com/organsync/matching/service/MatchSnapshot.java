@@ -0,0 +1,154 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.MatchDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Immutable view of all matches at one epoch, indexed by match id, hospital and pair.
+ *
+ * Snapshots are never modified once published; a change produces the next epoch, sharing every
+ * index chunk the change did not touch, so publishing and retaining epochs costs far less than a
+ * copy of the pool each. Matches inside a snapshot must be treated as read-only.
+ */
+public final class MatchSnapshot {
+
+    static final Comparator<MatchDto> NEWEST_FIRST = Comparator
+            .comparing(MatchDto::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(MatchDto::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final long epoch;
+    private final LocalDateTime publishedAt;
+    private final ChunkedMap<UUID, MatchDto> byId;
+    private final ChunkedMap<String, List<MatchDto>> byHospital;
+    private final ChunkedMap<UUID, List<MatchDto>> byPair;
+
+    private MatchSnapshot(long epoch, ChunkedMap<UUID, MatchDto> byId,
+                          ChunkedMap<String, List<MatchDto>> byHospital, ChunkedMap<UUID, List<MatchDto>> byPair) {
+        this.epoch = epoch;
+        this.publishedAt = LocalDateTime.now();
+        this.byId = byId;
+        this.byHospital = byHospital;
+        this.byPair = byPair;
+    }
+
+    /**
+     * Build a snapshot from scratch
+     */
+    public static MatchSnapshot of(long epoch, Collection<MatchDto> matches) {
+        Map<UUID, MatchDto> byId = new HashMap<>();
+        matches.forEach(match -> byId.put(match.getId(), match));
+        Map<String, List<MatchDto>> byHospital = new HashMap<>();
+        Map<UUID, List<MatchDto>> byPair = new HashMap<>();
+        for (MatchDto match : byId.values()) {
+            if (match.getHospitalId() != null) {
+                byHospital.computeIfAbsent(match.getHospitalId(), h -> new ArrayList<>()).add(match);
+            }
+            for (UUID pairId : pairIds(match)) {
+                byPair.computeIfAbsent(pairId, p -> new ArrayList<>()).add(match);
+            }
+        }
+        byHospital.replaceAll((hospital, list) -> sorted(list));
+        byPair.replaceAll((pair, list) -> sorted(list));
+        return new MatchSnapshot(epoch, ChunkedMap.of(byId), ChunkedMap.of(byHospital), ChunkedMap.of(byPair));
+    }
+
+    /**
+     * Next snapshot with the given matches added or replaced. Only the index entries of the
+     * hospitals and pairs involved are rebuilt.
+     */
+    public MatchSnapshot withChanges(long nextEpoch, Collection<MatchDto> changed) {
+        Map<UUID, MatchDto> latest = new LinkedHashMap<>();
+        Set<String> hospitals = new HashSet<>();
+        Set<UUID> pairs = new HashSet<>();
+        for (MatchDto match : changed) {
+            MatchDto previous = latest.containsKey(match.getId()) ? latest.get(match.getId()) : byId.get(match.getId());
+            latest.put(match.getId(), match);
+            for (MatchDto version : previous != null ? List.of(previous, match) : List.of(match)) {
+                if (version.getHospitalId() != null) {
+                    hospitals.add(version.getHospitalId());
+                }
+                pairs.addAll(pairIds(version));
+            }
+        }
+
+        Collection<MatchDto> versions = latest.values();
+        Map<String, List<MatchDto>> hospitalUpdates = new HashMap<>();
+        for (String hospital : hospitals) {
+            hospitalUpdates.put(hospital, reindex(byHospital.get(hospital), versions,
+                    match -> hospital.equals(match.getHospitalId())));
+        }
+        Map<UUID, List<MatchDto>> pairUpdates = new HashMap<>();
+        for (UUID pair : pairs) {
+            pairUpdates.put(pair, reindex(byPair.get(pair), versions, match -> pairIds(match).contains(pair)));
+        }
+        return new MatchSnapshot(nextEpoch, byId.with(latest), byHospital.with(hospitalUpdates),
+                byPair.with(pairUpdates));
+    }
+
+    public long getEpoch() { return epoch; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+
+    public int size() { return byId.size(); }
+
+    public Optional<MatchDto> getMatch(UUID matchId) {
+        return Optional.ofNullable(byId.get(matchId));
+    }
+
+    public Collection<MatchDto> getMatches() {
+        return byId.values();
+    }
+
+    /**
+     * Matches of a hospital, newest first
+     */
+    public List<MatchDto> getMatchesByHospital(String hospitalId) {
+        return byHospital.getOrDefault(hospitalId, List.of());
+    }
+
+    /**
+     * Matches a pair takes part in, newest first
+     */
+    public List<MatchDto> getMatchesByPair(UUID pairId) {
+        return byPair.getOrDefault(pairId, List.of());
+    }
+
+    /**
+     * Rebuilt index entry for one key, or null when no match belongs to it any more
+     */
+    private static List<MatchDto> reindex(List<MatchDto> previous, Collection<MatchDto> changed,
+                                          Predicate<MatchDto> belongs) {
+        Set<UUID> changedIds = new HashSet<>();
+        changed.forEach(match -> changedIds.add(match.getId()));
+        List<MatchDto> entries = new ArrayList<>();
+        if (previous != null) {
+            previous.stream().filter(match -> !changedIds.contains(match.getId())).forEach(entries::add);
+        }
+        changed.stream().filter(belongs).forEach(entries::add);
+        return entries.isEmpty() ? null : sorted(entries);
+    }
+
+    private static List<MatchDto> sorted(List<MatchDto> matches) {
+        matches.sort(NEWEST_FIRST);
+        return Collections.unmodifiableList(matches);
+    }
+
+    private static List<UUID> pairIds(MatchDto match) {
+        return match.getPairIds() != null ? match.getPairIds().stream().filter(Objects::nonNull).toList() : List.of();
+    }
+}
@@ -0,0 +1,146 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.MatchDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes epoch-numbered match snapshots for reads.
+ *
+ * Readers take the current snapshot with a single volatile read and never block or touch the
+ * database, however busy rematching is. Writers publish the next epoch after their transaction
+ * commits, and a periodic refresh rebuilds the snapshot from the denormalized match view to
+ * pick up changes made on other replicas. The last few epochs stay available for "as of epoch"
+ * reads. Epoch numbers are local to this replica.
+ */
+@Service
+public class MatchSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchSnapshotService.class);
+
+    @Autowired
+    private HospitalMatchViewService hospitalViewService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${organsync.matching.snapshots.history:16}")
+    private int history;
+
+    private final AtomicReference<MatchSnapshot> current = new AtomicReference<>();
+    private final ConcurrentNavigableMap<Long, MatchSnapshot> epochs = new ConcurrentSkipListMap<>();
+    private final Object publishLock = new Object();
+
+    /**
+     * Latest snapshot, loading the first one if nothing has been published yet
+     */
+    public MatchSnapshot current() {
+        MatchSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * Snapshot published at the given epoch, if it is still retained
+     */
+    public Optional<MatchSnapshot> atEpoch(long epoch) {
+        MatchSnapshot latest = current();
+        return latest.getEpoch() == epoch ? Optional.of(latest) : Optional.ofNullable(epochs.get(epoch));
+    }
+
+    /**
+     * Publish the next epoch with these matches added or replaced once the surrounding
+     * transaction commits
+     */
+    public void recordChanged(Collection<MatchDto> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<MatchDto> matches = List.copyOf(changed);
+        afterCommit(() -> {
+            synchronized (publishLock) {
+                MatchSnapshot latest = current.get();
+                if (latest != null) {
+                    publish(latest.withChanges(latest.getEpoch() + 1, matches));
+                }
+            }
+        });
+    }
+
+    /**
+     * Rebuild the snapshot from the database. Matches changed locally while the load was running
+     * keep their newer version.
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.snapshots.refresh-interval-ms:30000}")
+    public MatchSnapshot refresh() {
+        LocalDateTime loadStarted = LocalDateTime.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        List<MatchDto> loaded = transaction.execute(status -> hospitalViewService.getAllMatches());
+
+        synchronized (publishLock) {
+            MatchSnapshot latest = current.get();
+            List<MatchDto> matches = new ArrayList<>(loaded);
+            if (latest != null) {
+                Map<UUID, MatchDto> loadedById = loaded.stream()
+                        .collect(Collectors.toMap(MatchDto::getId, match -> match));
+                for (MatchDto local : latest.getMatches()) {
+                    MatchDto stored = loadedById.get(local.getId());
+                    if (stored == null ? isAfter(local.getCreatedAt(), loadStarted)
+                            : isAfter(local.getUpdatedAt(), stored.getUpdatedAt())) {
+                        matches.remove(stored);
+                        matches.add(local);
+                    }
+                }
+            }
+            MatchSnapshot next = MatchSnapshot.of(latest != null ? latest.getEpoch() + 1 : 1, matches);
+            publish(next);
+            logger.debug("Published match snapshot epoch {} with {} matches", next.getEpoch(), next.size());
+            return next;
+        }
+    }
+
+    private void publish(MatchSnapshot snapshot) {
+        current.set(snapshot);
+        epochs.put(snapshot.getEpoch(), snapshot);
+        while (epochs.size() > Math.max(history, 1)) {
+            epochs.pollFirstEntry();
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static boolean isAfter(LocalDateTime time, LocalDateTime other) {
+        return time != null && (other == null || time.isAfter(other));
+    }
+}
@@ -0,0 +1,239 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.MatchType;
+import com.organsync.matching.repository.MatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-memory rollup of match statistics.
+ *
+ * Counters per status, type and hospital are updated incrementally as matches are saved and
+ * change status, so reads never touch the database. A periodic reconcile replaces the rollup
+ * with the result of a single grouped aggregate query to correct any drift. Changes that commit
+ * while the aggregate runs are replayed onto its result, since the query may not have seen them.
+ *
+ * Only the leader persists matches, so a follower's rollup learns of new matches from reconciles
+ * alone; followers reconcile on a much shorter interval.
+ */
+@Service
+public class MatchStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchStatisticsService.class);
+
+    static final String UNASSIGNED_HOSPITAL = "UNASSIGNED";
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private LeaderElectionService leaderElection;
+
+    private final AtomicReference<Rollup> rollup = new AtomicReference<>();
+
+    // Changes committed since the running reload's query started; null when no reload is running
+    private final Object swap = new Object();
+    private List<Consumer<Rollup>> journal;
+
+    /**
+     * Current statistics, reconciling first if the rollup has never been loaded
+     */
+    public MatchingService.MatchStatistics getStatistics() {
+        Rollup current = rollup.get();
+        if (current == null) {
+            current = reload();
+        }
+        return current.toStatistics();
+    }
+
+    /**
+     * Count a newly persisted match once its transaction commits
+     */
+    public void recordCreated(Match match) {
+        MatchStatus status = match.getStatus();
+        MatchType type = match.getMatchType();
+        String hospital = hospitalKey(match.getHospitalId());
+        Double score = match.getCompatibilityScore();
+        afterCommit(current -> current.add(status, type, hospital, score, 1));
+    }
+
+    /**
+     * Move a match between status buckets once its transaction commits
+     */
+    public void recordStatusChange(Match match, MatchStatus previousStatus) {
+        MatchStatus status = match.getStatus();
+        if (status == previousStatus) {
+            return;
+        }
+        MatchType type = match.getMatchType();
+        String hospital = hospitalKey(match.getHospitalId());
+        Double score = match.getCompatibilityScore();
+        afterCommit(current -> {
+            current.add(previousStatus, type, hospital, score, -1);
+            current.add(status, type, hospital, score, 1);
+        });
+    }
+
+    /**
+     * Rebuild the rollup from one grouped aggregate over the matches table
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.statistics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        reload();
+    }
+
+    /**
+     * Rebuild the rollup on a follower, which sees the leader's new matches no other way
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.statistics.follower-reconcile-interval-ms:15000}")
+    public void reconcileFollower() {
+        if (!leaderElection.isLeader()) {
+            reload();
+        }
+    }
+
+    private synchronized Rollup reload() {
+        synchronized (swap) {
+            journal = new ArrayList<>();
+        }
+        Rollup fresh = new Rollup();
+        Rollup previous;
+        try {
+            for (var row : matchRepository.aggregateStatistics()) {
+                fresh.addGroup(row.getStatus(), row.getMatchType(), hospitalKey(row.getHospitalId()),
+                        row.getMatchCount(), row.getScoreSum(), row.getScoredCount());
+            }
+            synchronized (swap) {
+                // The query may have missed changes committed while it ran; replay them first
+                journal.forEach(update -> update.accept(fresh));
+                previous = rollup.getAndSet(fresh);
+            }
+        } finally {
+            synchronized (swap) {
+                journal = null;
+            }
+        }
+        if (previous != null && previous.total.sum() != fresh.total.sum()) {
+            logger.info("Reconciled match statistics: {} matches (in-memory rollup had {})",
+                    fresh.total.sum(), previous.total.sum());
+        }
+        return fresh;
+    }
+
+    /**
+     * Apply a committed change to the current rollup, and to the one being reloaded. Before the
+     * first load there is nothing to update; that load counts the change itself.
+     */
+    private void apply(Consumer<Rollup> update) {
+        Rollup current;
+        synchronized (swap) {
+            if (journal != null) {
+                journal.add(update);
+            }
+            current = rollup.get();
+        }
+        if (current != null) {
+            update.accept(current);
+        }
+    }
+
+    private void afterCommit(Consumer<Rollup> update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            });
+        } else {
+            apply(update);
+        }
+    }
+
+    private static String hospitalKey(String hospitalId) {
+        return hospitalId != null ? hospitalId : UNASSIGNED_HOSPITAL;
+    }
+
+    /**
+     * Counters for one generation of the rollup. Average score covers completed matches only.
+     */
+    private static class Rollup {
+        private final LongAdder total = new LongAdder();
+        private final Map<MatchStatus, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final Map<MatchType, LongAdder> byType = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> byHospital = new ConcurrentHashMap<>();
+        private final DoubleAdder completedScoreSum = new DoubleAdder();
+        private final LongAdder completedScored = new LongAdder();
+        private final LocalDateTime reconciledAt = LocalDateTime.now();
+
+        void add(MatchStatus status, MatchType type, String hospital, Double score, int delta) {
+            addGroup(status, type, hospital, (long) delta,
+                    score != null ? score * delta : null, score != null ? (long) delta : 0L);
+        }
+
+        void addGroup(MatchStatus status, MatchType type, String hospital,
+                      Long count, Double scoreSum, Long scoredCount) {
+            long n = count != null ? count : 0L;
+            total.add(n);
+            if (status != null) {
+                byStatus.computeIfAbsent(status, s -> new LongAdder()).add(n);
+            }
+            if (type != null) {
+                byType.computeIfAbsent(type, t -> new LongAdder()).add(n);
+            }
+            byHospital.computeIfAbsent(hospital, h -> new LongAdder()).add(n);
+            if (status == MatchStatus.COMPLETED && scoreSum != null) {
+                completedScoreSum.add(scoreSum);
+                completedScored.add(scoredCount != null ? scoredCount : 0L);
+            }
+        }
+
+        MatchingService.MatchStatistics toStatistics() {
+            MatchingService.MatchStatistics stats = new MatchingService.MatchStatistics();
+            stats.setTotalMatches(total.sum());
+            stats.setPendingMatches(count(byStatus, MatchStatus.PENDING));
+            stats.setCompletedMatches(count(byStatus, MatchStatus.COMPLETED));
+            long scored = completedScored.sum();
+            stats.setAverageCompatibilityScore(scored > 0 ? completedScoreSum.sum() / scored : null);
+            stats.setMatchesByStatus(snapshot(byStatus));
+            stats.setMatchesByType(snapshot(byType));
+            stats.setMatchesByHospital(snapshot(byHospital));
+            stats.setReconciledAt(reconciledAt);
+            return stats;
+        }
+
+        private static <K> long count(Map<K, LongAdder> counters, K key) {
+            LongAdder adder = counters.get(key);
+            return adder != null ? adder.sum() : 0L;
+        }
+
+        private static <K> Map<String, Long> snapshot(Map<K, LongAdder> counters) {
+            Map<String, Long> result = new TreeMap<>();
+            counters.forEach((key, adder) -> {
+                long value = adder.sum();
+                if (value != 0) {
+                    result.put(key.toString(), value);
+                }
+            });
+            return result;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.dto.MatchingJobDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A matching run executing in the background. The result future completes when the run ends.
+ */
+public class MatchingJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final UUID id = UUID.randomUUID();
+    private final String kind;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final CompletableFuture<List<MatchDto>> result = new CompletableFuture<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String stage;
+    private volatile int progress;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    public MatchingJob(String kind) {
+        this.kind = kind;
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void updateProgress(String stage, int progress) {
+        this.stage = stage;
+        this.progress = progress;
+    }
+
+    public void complete(List<MatchDto> matches) {
+        finishedAt = LocalDateTime.now();
+        progress = 100;
+        status = Status.SUCCEEDED;
+        result.complete(matches);
+    }
+
+    public void fail(Throwable cause) {
+        finishedAt = LocalDateTime.now();
+        error = cause.getMessage();
+        status = Status.FAILED;
+        result.completeExceptionally(cause);
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    public UUID getId() { return id; }
+
+    public String getKind() { return kind; }
+
+    public Status getStatus() { return status; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+
+    public CompletableFuture<List<MatchDto>> getResult() { return result; }
+
+    public MatchingJobDto toDto() {
+        MatchingJobDto dto = new MatchingJobDto();
+        dto.setJobId(id);
+        dto.setKind(kind);
+        dto.setStatus(status.name());
+        dto.setStage(stage);
+        dto.setProgress(progress);
+        dto.setError(error);
+        dto.setSubmittedAt(submittedAt);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        if (status == Status.SUCCEEDED) {
+            dto.setMatchCount(result.join().size());
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,242 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.dto.MatchingJobDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs matching as background jobs through the matching work scheduler.
+ *
+ * Triggers return immediately with a job; identical triggers arriving while a run of the same
+ * kind is queued or running join that run instead of starting another one. Only the leader
+ * replica optimizes the pool; jobs on other replicas return the matches the leader published.
+ * The leader also repairs pairs freed by failed matches as soon as the failure commits.
+ */
+@Service
+public class MatchingJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchingJobService.class);
+
+    public static final String FULL_RUN = "FULL_RUN";
+    public static final String STREAMING_RUN = "STREAMING_RUN";
+
+    @Autowired
+    private MatchingService matchingService;
+
+    @Autowired
+    private MatchingWorkScheduler scheduler;
+
+    @Autowired
+    private RegionShardCoordinator shardCoordinator;
+
+    @Autowired
+    private LeaderElectionService leaderElection;
+
+    @Value("${organsync.matching.scheduler.trigger-priority:5}")
+    private int triggerPriority;
+
+    @Value("${organsync.matching.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${organsync.matching.repair.priority:9}")
+    private int repairPriority;
+
+    private final Map<UUID, MatchingJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, MatchingJob> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean rematchQueued = new AtomicBoolean();
+    private final AtomicReference<LocalDateTime> repairedThrough = new AtomicReference<>(LocalDateTime.now());
+
+    /**
+     * Start a pool-wide matching run, or join the one already in flight
+     */
+    public MatchingJob submitFullRun() {
+        return inFlight.compute(FULL_RUN, (kind, current) -> {
+            if (current != null && !current.isDone()) {
+                logger.info("Joining in-flight matching job {}", current.getId());
+                return current;
+            }
+            MatchingJob job = new MatchingJob(kind);
+            jobs.put(job.getId(), job);
+            try {
+                scheduler.submit(MatchingWorkScheduler.WorkKind.TRIGGER, null, triggerPriority, () -> run(job, null));
+            } catch (RuntimeException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            logger.info("Submitted matching job {}", job.getId());
+            return job;
+        });
+    }
+
+    /**
+     * Start a dedicated pool-wide run whose stages and match batches are also reported to the
+     * listener. Never shared, since the listener sees the run from its first stage.
+     */
+    public MatchingJob submitStreamingRun(MatchingService.ProgressListener listener) {
+        MatchingJob job = new MatchingJob(STREAMING_RUN);
+        jobs.put(job.getId(), job);
+        try {
+            scheduler.submit(MatchingWorkScheduler.WorkKind.TRIGGER, null, triggerPriority, () -> run(job, listener));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        logger.info("Submitted streaming matching job {}", job.getId());
+        return job;
+    }
+
+    public Optional<MatchingJob> getJob(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Job status once the job finishes or the wait elapses, whichever comes first
+     */
+    public Optional<CompletableFuture<MatchingJobDto>> awaitJob(UUID jobId, Duration maxWait) {
+        return getJob(jobId).map(job -> job.getResult()
+                .handle((result, error) -> job.toDto())
+                .completeOnTimeout(null, maxWait.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(dto -> dto != null ? dto : job.toDto()));
+    }
+
+    private void run(MatchingJob job, MatchingService.ProgressListener listener) {
+        job.start();
+        try {
+            if (!leaderElection.isLeader()) {
+                List<MatchDto> published = matchingService.getPublishedMatches();
+                if (listener != null) {
+                    listener.onProgress("published", 0);
+                    listener.onMatches("published", published);
+                }
+                job.complete(published);
+                logger.info("Matching job {} served {} matches published by leader {}", job.getId(),
+                        published.size(), leaderElection.getLeaderId().orElse("(none)"));
+                return;
+            }
+            if (listener == null && shardCoordinator.isEnabled()) {
+                job.complete(shardCoordinator.runSharded(job::updateProgress));
+                logger.info("Sharded matching job {} finished", job.getId());
+                return;
+            }
+            job.complete(matchingService.findAllMatches(listener == null ? job::updateProgress
+                    : new MatchingService.ProgressListener() {
+                        @Override
+                        public void onProgress(String stage, int percentComplete) {
+                            job.updateProgress(stage, percentComplete);
+                            listener.onProgress(stage, percentComplete);
+                        }
+
+                        @Override
+                        public void onMatches(String stage, List<MatchDto> matches) {
+                            listener.onMatches(stage, matches);
+                        }
+                    }));
+            logger.info("Matching job {} finished", job.getId());
+        } catch (Exception e) {
+            logger.error("Matching job {} failed", job.getId(), e);
+            job.fail(e);
+        }
+    }
+
+    /**
+     * Periodic sharded run, including the cross-region pass, started by the leader
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.sharding.run-interval-ms:900000}",
+               initialDelayString = "${organsync.matching.sharding.run-interval-ms:900000}")
+    public void runShardedPeriodically() {
+        if (shardCoordinator.isEnabled() && leaderElection.isLeader()) {
+            submitFullRun();
+        }
+    }
+
+    /**
+     * Rematch the pool on the leader when compatibilities changed since its last rematch, covering
+     * registrations handled by other replicas and anything missed before a leadership change
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.leader.rematch-interval-ms:30000}")
+    public void rematchChangedPool() {
+        if (!leaderElection.isLeader() || !matchingService.hasUnmatchedPoolChanges()
+                || !rematchQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.submit(MatchingWorkScheduler.WorkKind.REMATCH, null, triggerPriority, () -> {
+                if (leaderElection.isLeader()) {
+                    logger.info("Leader rematch found {} new matches", matchingService.rematchPool());
+                }
+            }).whenComplete((result, error) -> rematchQueued.set(false));
+        } catch (RuntimeException e) {
+            rematchQueued.set(false);
+            logger.warn("Leader rematch not queued: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Repair pairs freed by a failed match as urgent work, without waiting for the next rematch.
+     * Failures committed on other replicas are picked up by the leader's sweep.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPairsFreed(PairsFreedEvent event) {
+        if (!leaderElection.isLeader()) {
+            logger.debug("Leaving repair of {} freed pairs to the leader", event.getPairIds().size());
+            return;
+        }
+        submitRepair(event.getPairIds());
+    }
+
+    /**
+     * Repair pairs of matches that failed on any replica since the last sweep
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.repair.sweep-interval-ms:10000}")
+    public void repairFailedMatches() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        LocalDateTime sweepStarted = LocalDateTime.now();
+        Set<UUID> freed = matchingService.findPairsFreedSince(repairedThrough.getAndSet(sweepStarted));
+        if (!freed.isEmpty()) {
+            submitRepair(freed);
+        }
+    }
+
+    private void submitRepair(Set<UUID> pairIds) {
+        try {
+            scheduler.submit(MatchingWorkScheduler.WorkKind.REPAIR, null, repairPriority, () -> {
+                if (leaderElection.isLeader()) {
+                    matchingService.repairFreedPairs(pairIds);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Repair of {} freed pairs not queued: {}", pairIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop finished jobs past the retention window
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isDone() && job.getFinishedAt() != null
+                && job.getFinishedAt().isBefore(cutoff));
+    }
+}
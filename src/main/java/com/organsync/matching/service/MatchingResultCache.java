@@ -0,0 +1,131 @@
+package com.organsync.matching.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.entity.MatchingResult;
+import com.organsync.matching.repository.MatchingResultRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Results of pool-wide matching runs, keyed by the fingerprint of the pool they were found in.
+ *
+ * Matching is deterministic, so a run on a pool with an already stored fingerprint can return the
+ * stored matches instead of running the algorithms again. Results are stored in the database,
+ * where they survive restarts and are shared by replicas, and the latest one is also kept in
+ * memory. Caching is best effort: a result that cannot be stored or read is simply recomputed,
+ * and cache reads and writes run in their own transactions so they never fail the caller's.
+ */
+@Service
+public class MatchingResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchingResultCache.class);
+
+    private static final TypeReference<List<MatchDto>> MATCH_LIST = new TypeReference<>() { };
+
+    @Autowired
+    private MatchingResultRepository resultRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${organsync.matching.cache.match-results-ttl:1800}")
+    private long ttlSeconds;
+
+    private final AtomicReference<CachedResult> latest = new AtomicReference<>();
+
+    /**
+     * Matches stored for the fingerprint, unless they have expired
+     */
+    public Optional<List<MatchDto>> get(String fingerprint) {
+        Instant cutoff = cutoff();
+        CachedResult cached = latest.get();
+        if (cached != null && cached.fingerprint.equals(fingerprint) && cached.createdAt.isAfter(cutoff)) {
+            return Optional.of(new ArrayList<>(cached.matches));
+        }
+        try {
+            Optional<MatchingResult> stored = newTransaction(true).execute(status ->
+                    resultRepository.findById(fingerprint).filter(result -> result.getCreatedAt().isAfter(cutoff)));
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            List<MatchDto> matches = objectMapper.readValue(stored.get().getMatches(), MATCH_LIST);
+            latest.set(new CachedResult(fingerprint, matches, stored.get().getCreatedAt()));
+            return Optional.of(new ArrayList<>(matches));
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Could not read cached matching result {}: {}", fingerprint, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store the matches found for the fingerprint
+     */
+    public void put(String fingerprint, List<MatchDto> matches) {
+        Instant now = Instant.now();
+        List<MatchDto> copy = List.copyOf(matches);
+        latest.set(new CachedResult(fingerprint, copy, now));
+        try {
+            MatchingResult result = new MatchingResult(fingerprint, objectMapper.writeValueAsString(copy),
+                    copy.size(), now);
+            newTransaction(false).executeWithoutResult(status -> resultRepository.save(result));
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Could not store matching result {}: {}", fingerprint, e.getMessage());
+        }
+    }
+
+    /**
+     * Drop stored results past the TTL
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.cache.evict-interval-ms:300000}")
+    public void evictExpired() {
+        Instant cutoff = cutoff();
+        Integer evicted = newTransaction(false).execute(status -> resultRepository.deleteCreatedBefore(cutoff));
+        if (evicted != null && evicted > 0) {
+            logger.debug("Evicted {} cached matching results", evicted);
+        }
+    }
+
+    private TransactionTemplate newTransaction(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(readOnly);
+        return transaction;
+    }
+
+    private Instant cutoff() {
+        return Instant.now().minus(Duration.ofSeconds(ttlSeconds));
+    }
+
+    private static final class CachedResult {
+
+        private final String fingerprint;
+        private final List<MatchDto> matches;
+        private final Instant createdAt;
+
+        CachedResult(String fingerprint, List<MatchDto> matches, Instant createdAt) {
+            this.fingerprint = fingerprint;
+            this.matches = matches;
+            this.createdAt = createdAt;
+        }
+    }
+}
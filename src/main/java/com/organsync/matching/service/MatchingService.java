@@ -1,26 +1,61 @@
 package com.organsync.matching.service;
 
+import com.organsync.matching.algorithm.GraphReducer;
 import com.organsync.matching.algorithm.MatchingAlgorithmService;
 import com.organsync.matching.dto.CompatibilityDto;
 import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.dto.MatchFilter;
+import com.organsync.matching.dto.MatchPageDto;
 import com.organsync.matching.entity.Compatibility;
 import com.organsync.matching.entity.Match;
 import com.organsync.matching.entity.MatchStatus;
 import com.organsync.matching.entity.MatchType;
+import com.organsync.matching.event.MatchStatusBatchEvent;
+import com.organsync.matching.monitoring.MatchingMetrics;
+import com.organsync.matching.monitoring.MatchingMetrics.MatchingRun;
+import com.organsync.matching.monitoring.MatchingMetrics.Stage;
+import com.organsync.matching.monitoring.jfr.MatchPublishEvent;
+import com.organsync.matching.monitoring.jfr.PoolLoadEvent;
 import com.organsync.matching.repository.CompatibilityRepository;
 import com.organsync.matching.repository.MatchRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Core matching service for kidney exchange operations
@@ -31,6 +66,10 @@ public class MatchingService {
 
     private static final Logger logger = LoggerFactory.getLogger(MatchingService.class);
 
+    static final String STATUS_BATCH_TOPIC = "match.status.batch-updated";
+
+    private static final int POOL_CYCLE_LENGTH = 3;
+
     @Autowired
     private MatchRepository matchRepository;
 
@@ -43,53 +82,484 @@ public class MatchingService {
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Autowired
+    private MatchingMetrics metrics;
+
+    @Autowired
+    private MatchStatisticsService statisticsService;
+
+    @Autowired
+    private LeaderElectionService leaderElection;
+
+    @Autowired
+    private MatchSnapshotService snapshotService;
+
+    @Autowired
+    private HospitalMatchViewService hospitalViewService;
+
+    @Autowired
+    private PairMatchIndexService pairIndex;
+
+    @Autowired
+    private BridgeDonorService bridgeDonors;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MatchingResultCache resultCache;
+
+    @Value("${organsync.matching.algorithm.max-chain-length:5}")
+    private int maxChainLength;
+
+    @Value("${organsync.matching.repair.budget-ms:200}")
+    private long repairBudgetMs;
+
+    @Value("${organsync.matching.repair.max-cycle-length:3}")
+    private int repairMaxCycleLength;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<LocalDateTime> rematchedThrough = new AtomicReference<>();
+
+    /** Start of the last committed rematch, from which pairs and donors new since then extend chains */
+    private final AtomicReference<LocalDateTime> extendedThrough = new AtomicReference<>();
+
+    /** Held by whichever rematch or repair is persisting matches */
+    private final ReentrantLock poolWrites = new ReentrantLock();
+    private final AtomicBoolean rematchRequested = new AtomicBoolean();
+
     /**
-     * Process new pair registration event and find matches
+     * Process new pair registration event and find matches. Not transactional itself, so that a
+     * worker holds one connection at a time: the saves and the rematch commit on their own.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processPairRegistration(UUID pairId) {
-        logger.info("Processing pair registration for pair ID: {}", pairId);
+        try (MatchingRun run = metrics.startRun("pair_registration")) {
+            logger.info("Processing pair registration for pair ID: {} in run {}", pairId, run.getRunId());
+
+            // Calculate compatibility with existing pairs
+            List<Compatibility> newCompatibilities = calculateCompatibilityForPair(pairId);
+
+            // Save new compatibility relationships, committed before any rematch so that whichever run
+            // picks this registration up sees the pair
+            metrics.recordStage(Stage.PERSISTENCE, () -> newTransaction().executeWithoutResult(
+                    status -> compatibilityRepository.saveAll(newCompatibilities)));
+
+            // Only the leader re-optimizes the pool; it picks this pair up on its next rematch
+            if (!leaderElection.isLeader()) {
+                logger.info("Saved compatibilities for pair {}, leaving pool matching to the leader", pairId);
+                return;
+            }
+
+            int matchCount = rematchPool();
+            logger.info("Processed pair registration, found {} new matches", matchCount);
+        }
+    }
+
+    /**
+     * Re-optimize the whole pool, then persist and publish the new matches and extend open chains
+     * with pairs registered, on any replica, since the last rematch. Run by the leader only.
+     *
+     * Only one rematch runs at a time, each in its own transaction that commits before the next
+     * starts, so every run's held-pair check sees the matches of the runs before it. A call that
+     * finds a rematch running returns at once and leaves it to that run to go again. Writes are
+     * fenced by the leader lease, so a run that outlasts this replica's leadership persists nothing.
+     * @return Number of new matches found by this call, 0 when coalesced into a running rematch
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rematchPool() {
+        rematchRequested.set(true);
+        int matchCount = 0;
+        // Checking the request after unlocking covers a call that arrived just before the unlock
+        while (rematchRequested.get() && poolWrites.tryLock()) {
+            try {
+                if (rematchRequested.getAndSet(false)) {
+                    LocalDateTime startedAt = LocalDateTime.now();
+                    LocalDateTime since = extendedThrough.get();
+                    matchCount += newTransaction().execute(status -> rematchOnce(since));
+                    extendedThrough.set(startedAt);
+                }
+            } catch (LeadershipLostException e) {
+                logger.warn("Discarded pool rematch: {}", e.getMessage());
+                return matchCount;
+            } finally {
+                poolWrites.unlock();
+            }
+        }
+        return matchCount;
+    }
+
+    private int rematchOnce(LocalDateTime extendSince) {
+        LocalDateTime poolVersion = compatibilityRepository.findLatestUpdate();
+
+        // Find new matches, skipping any that involve a pair already held by an active match
+        List<MatchDto> candidates = findNewMatches();
+        leaderElection.fenceWrites();
+        Set<UUID> heldPairs = pairIndex.findActiveMatchIds(candidates.stream()
+                .filter(match -> match.getPairIds() != null)
+                .flatMap(match -> match.getPairIds().stream())
+                .collect(Collectors.toSet())).keySet();
+        List<MatchDto> newMatches = candidates.stream()
+                .filter(match -> match.getPairIds() == null || match.getPairIds().stream().noneMatch(heldPairs::contains))
+                .collect(Collectors.toList());
+        if (newMatches.size() < candidates.size()) {
+            logger.info("Skipped {} matches whose pairs already have active matches", candidates.size() - newMatches.size());
+        }
+
+        saveAndPublish(newMatches);
+
+        if (poolVersion != null) {
+            rematchedThrough.accumulateAndGet(poolVersion, (a, b) -> a == null || b.isAfter(a) ? b : a);
+        }
+
+        int matchCount = newMatches.size();
+        for (UUID pairId : findChainExtensions(extendSince)) {
+            matchCount += extendOpenChains(pairId).size();
+        }
+        return matchCount;
+    }
+
+    /**
+     * Pairs to extend open chains with, read from the database so that registrations handled by
+     * any replica count: pairs first seen in compatibilities after the given time, and donors
+     * that became available to start chains since then. The first rematch on a new leader has no
+     * such time and searches from every available donor instead.
+     */
+    private Set<UUID> findChainExtensions(LocalDateTime since) {
+        if (since == null) {
+            return bridgeDonors.getAvailableDonors();
+        }
+        Set<UUID> pairs = new LinkedHashSet<>(compatibilityRepository.findDonorPairsFirstSeenAfter(since));
+        pairs.addAll(compatibilityRepository.findRecipientPairsFirstSeenAfter(since));
+        pairs.addAll(bridgeDonors.getDonorsAvailableSince(since));
+        return pairs;
+    }
+
+    /**
+     * Extend open chains with a newly registered pair or available donor, searching only from the chain tails that
+     * can reach it, or start chains from the pair itself if it is an altruistic donor. Run by
+     * the leader only, within a pool rematch.
+     * @return Chain matches persisted and published
+     */
+    private List<MatchDto> extendOpenChains(UUID pairId) {
+        // Read for every pair, as chains persisted for earlier pairs reserve their sources
+        Set<UUID> sources = bridgeDonors.getAvailableDonors();
+        if (sources.isEmpty()) {
+            return List.of();
+        }
+
+        List<Compatibility> local = new ArrayList<>();
+        Set<UUID> tails;
+        UUID throughPair;
+        if (sources.contains(pairId)) {
+            tails = Set.of(pairId);
+            throughPair = null;
+            local.addAll(expandChainNeighbourhood(Set.of(pairId), maxChainLength - 1, true, new HashSet<>()));
+        } else {
+            // Tails within chain reach of the pair, then what lies beyond it
+            Set<UUID> reaching = new HashSet<>();
+            local.addAll(expandChainNeighbourhood(Set.of(pairId), maxChainLength - 1, false, reaching));
+            tails = reaching.stream().filter(sources::contains).collect(Collectors.toSet());
+            if (tails.isEmpty()) {
+                return List.of();
+            }
+            throughPair = pairId;
+            local.addAll(expandChainNeighbourhood(Set.of(pairId), maxChainLength - 2, true, new HashSet<>()));
+        }
+
+        Set<UUID> held = pairIndex.findActiveMatchIds(local.stream()
+                .flatMap(c -> Stream.of(c.getDonorPairId(), c.getRecipientPairId()))
+                .collect(Collectors.toSet())).keySet();
+        List<MatchDto> chains = algorithmService.extendChains(local, tails, throughPair, held, maxChainLength);
+        return saveAndPublish(chains);
+    }
+
+    /**
+     * Compatibilities on paths of up to the given number of hops from any of the given pairs,
+     * following donor to recipient when forward and against it otherwise. One query per hop.
+     * @param reached Collects the pairs reached, starting pairs included
+     */
+    private List<Compatibility> expandChainNeighbourhood(Set<UUID> pairIds, int hops, boolean forward,
+                                                         Set<UUID> reached) {
+        List<Compatibility> edges = new ArrayList<>();
+        reached.addAll(pairIds);
+        Set<UUID> frontier = pairIds;
+        for (int hop = 0; hop < hops && !frontier.isEmpty(); hop++) {
+            List<Compatibility> found = forward ? compatibilityRepository.findFullyCompatibleFrom(frontier)
+                    : compatibilityRepository.findFullyCompatibleInto(frontier);
+            edges.addAll(found);
+            Set<UUID> next = new HashSet<>();
+            for (Compatibility edge : found) {
+                UUID other = forward ? edge.getRecipientPairId() : edge.getDonorPairId();
+                if (reached.add(other)) {
+                    next.add(other);
+                }
+            }
+            frontier = next;
+        }
+        return edges;
+    }
+
+    /**
+     * Propose replacement matches for pairs freed by failed matches. Searches only short cycles
+     * through the freed pairs, on compatibilities loaded around them, then, with what is left of
+     * the repair latency budget, chains through the freed pairs from the available donors, which
+     * include the source of a failed chain; the pool is not re-optimized. Run by the leader only. Waits for a running pool
+     * rematch and commits before the next one, so the two never match the same pairs; a rematch
+     * requested while the repair ran is run afterwards.
+     * @return Replacement matches persisted and published
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<MatchDto> repairFreedPairs(Collection<UUID> freedPairs) {
+        List<MatchDto> replacements;
+        poolWrites.lock();
+        try {
+            replacements = newTransaction().execute(status -> repair(freedPairs));
+        } catch (LeadershipLostException e) {
+            logger.warn("Discarded repair of {} freed pairs: {}", freedPairs.size(), e.getMessage());
+            replacements = List.of();
+        } finally {
+            poolWrites.unlock();
+        }
+        if (rematchRequested.get()) {
+            rematchPool();
+        }
+        return replacements;
+    }
 
-        // Calculate compatibility with existing pairs
-        List<Compatibility> newCompatibilities = calculateCompatibilityForPair(pairId);
+    private List<MatchDto> repair(Collection<UUID> freedPairs) {
+        try (MatchingRun run = metrics.startRun("repair")) {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(repairBudgetMs);
+            Set<UUID> freed = new HashSet<>(freedPairs);
+
+            // Freed pairs and their direct neighbours hold every cycle of length 3 or less through a freed pair
+            leaderElection.fenceWrites();
+            List<Compatibility> local = metrics.recordStage(Stage.POOL_LOAD, () -> {
+                Set<UUID> neighbourhood = new HashSet<>(freed);
+                compatibilityRepository.findFullyCompatibleTouching(freed).forEach(c -> {
+                    neighbourhood.add(c.getDonorPairId());
+                    neighbourhood.add(c.getRecipientPairId());
+                });
+                return compatibilityRepository.findFullyCompatibleAmong(neighbourhood);
+            });
+            Set<UUID> held = pairIndex.findActiveMatchIds(local.stream()
+                    .flatMap(c -> Stream.of(c.getDonorPairId(), c.getRecipientPairId()))
+                    .collect(Collectors.toSet())).keySet();
+
+            List<MatchDto> replacements = new ArrayList<>(algorithmService.findRepairCycles(local, freed, held,
+                    repairMaxCycleLength, deadline));
+            if (System.nanoTime() < deadline) {
+                replacements.addAll(repairChains(freed, held, replacements));
+            }
+            List<MatchDto> saved = saveAndPublish(replacements);
+            logger.info("Repair run {} proposed {} replacement matches for {} freed pairs in {} ms", run.getRunId(),
+                    saved.size(), freed.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return saved;
+        }
+    }
 
-        // Save new compatibility relationships
-        compatibilityRepository.saveAll(newCompatibilities);
+    /**
+     * Chains through freed pairs from the available donors that can reach them within chain
+     * length, or that were freed themselves. Pairs held by active matches or used by the
+     * replacement cycles are left out, so the chains are disjoint from both.
+     */
+    private List<MatchDto> repairChains(Set<UUID> freed, Set<UUID> held, List<MatchDto> cycles) {
+        Set<UUID> sources = bridgeDonors.getAvailableDonors();
+        if (sources.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> reaching = new HashSet<>();
+        List<Compatibility> local = new ArrayList<>(expandChainNeighbourhood(freed, maxChainLength - 1, false, reaching));
+        Set<UUID> tails = reaching.stream().filter(sources::contains).collect(Collectors.toSet());
+        if (tails.isEmpty()) {
+            return List.of();
+        }
+        local.addAll(expandChainNeighbourhood(freed, maxChainLength - 1, true, new HashSet<>()));
+
+        Set<UUID> unavailable = new HashSet<>(held);
+        unavailable.addAll(pairIndex.findActiveMatchIds(local.stream()
+                .flatMap(c -> Stream.of(c.getDonorPairId(), c.getRecipientPairId()))
+                .collect(Collectors.toSet())).keySet());
+        cycles.forEach(cycle -> unavailable.addAll(cycle.getPairIds()));
+        return algorithmService.extendChainsThrough(local, tails, freed, unavailable, maxChainLength);
+    }
 
-        // Find new matches
-        List<MatchDto> newMatches = findNewMatches();
+    /**
+     * Pairs of matches that failed after the given time, for repairing failures recorded on other replicas
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> findPairsFreedSince(LocalDateTime since) {
+        List<MatchStatus> failures = Arrays.stream(MatchStatus.values())
+                .filter(MatchStatus::isFailure)
+                .collect(Collectors.toList());
+        return matchRepository.findByStatusInAndUpdatedAtAfter(failures, since).stream()
+                .filter(match -> match.getPairIds() != null)
+                .flatMap(match -> match.getPairIds().stream())
+                .collect(Collectors.toSet());
+    }
 
-        // Save and publish matches
-        for (MatchDto matchDto : newMatches) {
-            Match match = convertToEntity(matchDto);
-            Match savedMatch = matchRepository.save(match);
+    /**
+     * Persist new matches with their view, index and statistics entries, then publish them
+     */
+    private List<MatchDto> saveAndPublish(List<MatchDto> newMatches) {
+        List<Match> savedMatches = metrics.recordStage(Stage.PERSISTENCE, () -> newMatches.stream()
+                .map(matchDto -> matchRepository.save(convertToEntity(matchDto)))
+                .collect(Collectors.toList()));
+        savedMatches.forEach(statisticsService::recordCreated);
+        savedMatches.forEach(hospitalViewService::recordCreated);
+        savedMatches.forEach(pairIndex::recordCreated);
+        savedMatches.forEach(bridgeDonors::recordChainCreated);
+        List<MatchDto> saved = savedMatches.stream()
+                .map(MatchingService::convertToDto)
+                .collect(Collectors.toList());
+        snapshotService.recordChanged(saved);
+
+        // Publish match found events
+        MatchPublishEvent publishEvent = new MatchPublishEvent();
+        publishEvent.begin();
+        metrics.recordStage(Stage.PUBLISH, () -> saved.forEach(this::publishMatchFoundEvent));
+        if (publishEvent.complete()) {
+            publishEvent.topic = "match.found";
+            publishEvent.resultCount = saved.size();
+            publishEvent.commit();
+        }
+        return saved;
+    }
 
-            // Publish match found event
-            publishMatchFoundEvent(convertToDto(savedMatch));
+    /**
+     * Announce pairs of failed matches so they can be repaired once the failure commits
+     */
+    private void publishPairsFreed(Collection<Match> failed) {
+        Set<UUID> freed = failed.stream()
+                .filter(match -> match.getPairIds() != null)
+                .flatMap(match -> match.getPairIds().stream())
+                .collect(Collectors.toSet());
+        if (!freed.isEmpty()) {
+            eventPublisher.publishEvent(new PairsFreedEvent(freed));
         }
+    }
 
-        logger.info("Processed pair registration, found {} new matches", newMatches.size());
+    /**
+     * Whether compatibilities changed, or donors became available to start chains, since the
+     * last pool rematch on this replica
+     */
+    @Transactional(readOnly = true)
+    public boolean hasUnmatchedPoolChanges() {
+        LocalDateTime latest = compatibilityRepository.findLatestUpdate();
+        LocalDateTime matched = rematchedThrough.get();
+        LocalDateTime extended = extendedThrough.get();
+        return latest != null && (matched == null || latest.isAfter(matched))
+                || extended != null && !bridgeDonors.getDonorsAvailableSince(extended).isEmpty();
+    }
+
+    /**
+     * Matches the leader has persisted and not yet resolved, served by replicas that are not leading
+     */
+    @Transactional(readOnly = true)
+    public List<MatchDto> getPublishedMatches() {
+        return matchRepository.findByStatus(MatchStatus.PENDING).stream()
+                .map(MatchingService::convertToDto)
+                .collect(Collectors.toList());
     }
 
     /**
      * Find all available matches using multiple algorithms
      */
     public List<MatchDto> findAllMatches() {
-        logger.info("Finding all available matches");
+        return findAllMatches((stage, percentComplete) -> { });
+    }
 
-        List<Compatibility> compatibilities = compatibilityRepository.findFullyCompatible();
+    /**
+     * Find all available matches, reporting progress as each stage starts and handing each
+     * batch of matches to the listener as soon as an algorithm produces it. A pool whose
+     * fingerprint matches a cached run returns that run's matches as a single batch.
+     */
+    public List<MatchDto> findAllMatches(ProgressListener progress) {
+        try (MatchingRun run = metrics.startRun("find_all_matches")) {
+            logger.info("Finding all available matches in run {}", run.getRunId());
+
+            progress.onProgress("pool_load", 0);
+            List<Compatibility> compatibilities = loadPool();
+            List<UUID> altruisticDonors = getAltruisticDonors();
+            String fingerprint = algorithmService.fingerprint(compatibilities, altruisticDonors,
+                    POOL_CYCLE_LENGTH, maxChainLength);
+            Optional<List<MatchDto>> cached = resultCache.get(fingerprint);
+            if (cached.isPresent()) {
+                progress.onProgress("cached", 100);
+                progress.onMatches("cached", cached.get());
+                logger.info("Pool {} was already matched, returning {} cached matches", fingerprint,
+                        cached.get().size());
+                return cached.get();
+            }
+
+            List<MatchDto> allMatches = matchPool(compatibilities, altruisticDonors, progress);
+            resultCache.put(fingerprint, allMatches);
+
+            logger.info("Found {} total matches", allMatches.size());
+            return allMatches;
+        }
+    }
+
+    /**
+     * Run every matching algorithm on an already loaded pool, such as one region of a sharded pool
+     */
+    public List<MatchDto> matchPool(List<Compatibility> compatibilities, ProgressListener progress) {
+        return matchPool(compatibilities, getAltruisticDonors(), progress);
+    }
+
+    private List<MatchDto> matchPool(List<Compatibility> compatibilities, List<UUID> altruisticDonors,
+                                     ProgressListener progress) {
+        return matchPool(compatibilities, altruisticDonors, POOL_CYCLE_LENGTH, maxChainLength, progress);
+    }
+
+    /**
+     * Run every matching algorithm on a pool that is not the live one, such as a simulated pool,
+     * with its own chain sources and length limits. Nothing is read from or written to the database.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<MatchDto> matchPool(List<Compatibility> compatibilities, Collection<UUID> sources,
+                                    int cycleLength, int chainLength, ProgressListener progress) {
         List<MatchDto> allMatches = new ArrayList<>();
 
+        // Drop edges no exchange can use and match each independent component on its own
+        progress.onProgress("reduction", 10);
+        List<GraphReducer.Component> components = algorithmService.reduce(compatibilities, sources,
+                cycleLength, chainLength).getComponents();
+
         // Find optimal matches using Edmonds' Blossom Algorithm
-        allMatches.addAll(algorithmService.findOptimalMatches(compatibilities));
+        progress.onProgress("blossom", 20);
+        for (GraphReducer.Component component : components) {
+            algorithmService.findOptimalMatches(component.getCompatibilities(), batch -> {
+                allMatches.addAll(batch);
+                progress.onMatches("blossom", batch);
+            });
+        }
 
         // Find cycles
-        allMatches.addAll(algorithmService.findCycles(compatibilities, 3));
+        progress.onProgress("cycles", 50);
+        for (GraphReducer.Component component : components) {
+            algorithmService.findCycles(component.getCompatibilities(), cycleLength, batch -> {
+                allMatches.addAll(batch);
+                progress.onMatches("cycles", batch);
+            });
+        }
 
-        // Find chains (assuming we have altruistic donors)
-        List<UUID> altruisticDonors = getAltruisticDonors();
-        allMatches.addAll(algorithmService.findChains(compatibilities, altruisticDonors, 5));
+        // Find chains from altruistic and bridge donors
+        progress.onProgress("chains", 80);
+        for (GraphReducer.Component component : components) {
+            if (component.getSources().isEmpty()) {
+                continue;
+            }
+            algorithmService.findChains(component.getCompatibilities(), component.getSources(), chainLength,
+                    batch -> {
+                        allMatches.addAll(batch);
+                        progress.onMatches("chains", batch);
+                    });
+        }
 
-        logger.info("Found {} total matches", allMatches.size());
         return allMatches;
     }
 
@@ -97,33 +567,161 @@ public class MatchingService {
      * Get match by ID
      */
     public Optional<MatchDto> getMatchById(UUID matchId) {
-        return matchRepository.findById(matchId).map(this::convertToDto);
+        return matchRepository.findById(matchId).map(MatchingService::convertToDto);
     }
 
     /**
      * Get all matches for a hospital
      */
     public List<MatchDto> getMatchesByHospital(String hospitalId) {
-        return matchRepository.findByHospitalId(hospitalId)
-                .stream()
-                .map(this::convertToDto)
+        return hospitalViewService.getMatches(hospitalId);
+    }
+
+    /**
+     * Active matches of many pairs at once, resolved through the pair index
+     * @return Active matches per pair; pairs without active matches are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, List<MatchDto>> findActiveMatchesByPairs(Collection<UUID> pairIds) {
+        Map<UUID, Set<UUID>> matchIdsByPair = pairIndex.findActiveMatchIds(pairIds);
+        Set<UUID> matchIds = matchIdsByPair.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+
+        // Serve from the in-memory snapshot, loading only matches it has not seen yet
+        MatchSnapshot snapshot = snapshotService.current();
+        Map<UUID, MatchDto> matches = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        for (UUID matchId : matchIds) {
+            snapshot.getMatch(matchId).ifPresentOrElse(match -> matches.put(matchId, match), () -> missing.add(matchId));
+        }
+        if (!missing.isEmpty()) {
+            matchRepository.findByIdIn(missing)
+                    .forEach(match -> matches.put(match.getId(), convertToDto(match)));
+        }
+
+        Map<UUID, List<MatchDto>> result = new HashMap<>();
+        matchIdsByPair.forEach((pairId, ids) -> result.put(pairId, ids.stream()
+                .map(matches::get)
+                .filter(Objects::nonNull)
+                .sorted(MatchSnapshot.NEWEST_FIRST)
+                .collect(Collectors.toList())));
+        return result;
+    }
+
+    /**
+     * Get one keyset page of matches, newest first
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public MatchPageDto findMatches(MatchFilter filter, String cursor, int size) {
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = decodeCursor(cursor);
+                afterCreatedAt = LocalDateTime.parse(parts[0]);
+                afterId = UUID.fromString(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
+
+        List<MatchRepository.KeysetKey> keys = matchRepository.findKeysForKeysetPage(
+                filter.getStatus() != null ? MatchStatus.valueOf(filter.getStatus().toUpperCase()) : null,
+                filter.getMatchType() != null ? MatchType.valueOf(filter.getMatchType().toUpperCase()) : null,
+                filter.getHospitalId(), filter.getFrom(), filter.getTo(), filter.getMinScore(),
+                afterCreatedAt, afterId, PageRequest.of(0, size));
+        if (keys.isEmpty()) {
+            return new MatchPageDto(new ArrayList<>(), null, 0);
+        }
+
+        // Second query loads the page with its pairs in one round trip, then restores keyset order.
+        // A match deleted between the two queries is left out of the page.
+        List<UUID> ids = keys.stream().map(MatchRepository.KeysetKey::getId).collect(Collectors.toList());
+        Map<UUID, Match> byId = matchRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Match::getId, Function.identity()));
+        List<MatchDto> items = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(MatchingService::convertToDto)
                 .collect(Collectors.toList());
+
+        // The cursor follows the keys, so a page whose last match was deleted still continues after it
+        MatchRepository.KeysetKey last = keys.get(keys.size() - 1);
+        String nextCursor = keys.size() < size ? null : encodeCursor(last.getCreatedAt(), last.getId());
+        return new MatchPageDto(items, nextCursor, items.size());
+    }
+
+    /**
+     * Stream every match passing the filter, one keyset page at a time
+     * @return Number of matches exported
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long exportMatches(MatchFilter filter, int batchSize, Consumer<MatchDto> sink) {
+        // Each page is read in its own read-only transaction, so the persistence context never
+        // outlives a page and the sink writes to the client without holding a connection
+        TransactionTemplate pageTransaction = newTransaction();
+        pageTransaction.setReadOnly(true);
+        long exported = 0;
+        String cursor = null;
+        do {
+            String pageCursor = cursor;
+            MatchPageDto page = pageTransaction.execute(status -> findMatches(filter, pageCursor, batchSize));
+            page.getItems().forEach(sink);
+            exported += page.getSize();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return exported;
     }
 
     /**
      * Update match status
      */
     public MatchDto updateMatchStatus(UUID matchId, String newStatus) {
+        return updateMatchStatus(matchId, newStatus, null);
+    }
+
+    /**
+     * Update match status if the match is still at the expected version (any version when null).
+     * Moves the status table does not allow fail with {@link IllegalMatchTransitionException};
+     * changes that lose a race with another update fail with an optimistic locking failure.
+     */
+    public MatchDto updateMatchStatus(UUID matchId, String newStatus, Long expectedVersion) {
         logger.info("Updating match {} status to {}", matchId, newStatus);
 
         Optional<Match> matchOpt = matchRepository.findById(matchId);
         if (matchOpt.isPresent()) {
             Match match = matchOpt.get();
-            match.setStatus(MatchStatus.PENDING);
-            Match savedMatch = matchRepository.save(match);
+            MatchStatus status = MatchStatus.valueOf(newStatus.toUpperCase());
+            if (expectedVersion != null && !expectedVersion.equals(match.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Match.class, matchId);
+            }
+            MatchStatus previousStatus = match.getStatus();
+            if (!previousStatus.canTransitionTo(status)) {
+                throw new IllegalMatchTransitionException(matchId, previousStatus, status);
+            }
+            match.setStatus(status);
+            // Flush now so a concurrent update is detected before anything is published
+            Match savedMatch = metrics.recordStage(Stage.PERSISTENCE, () -> matchRepository.saveAndFlush(match));
+            statisticsService.recordStatusChange(savedMatch, previousStatus);
+            hospitalViewService.recordStatusChange(savedMatch);
+            pairIndex.recordStatusChange(savedMatch, previousStatus);
+            bridgeDonors.recordChainStatusChange(savedMatch);
+            snapshotService.recordChanged(List.of(convertToDto(savedMatch)));
+            if (status.isFailure()) {
+                publishPairsFreed(List.of(savedMatch));
+            }
 
             // Publish status update event
-            publishMatchStatusUpdateEvent(convertToDto(savedMatch));
+            MatchPublishEvent publishEvent = new MatchPublishEvent();
+            publishEvent.begin();
+            metrics.recordStage(Stage.PUBLISH, () -> publishMatchStatusUpdateEvent(convertToDto(savedMatch)));
+            if (publishEvent.complete()) {
+                publishEvent.topic = "match.status.updated";
+                publishEvent.resultCount = 1;
+                publishEvent.commit();
+            }
 
             return convertToDto(savedMatch);
         }
@@ -132,17 +730,75 @@ public class MatchingService {
     }
 
     /**
-     * Get match statistics
+     * Move several matches to one status atomically, such as confirming every match of a cycle.
+     * Either all of them move or none do. Each group of matches sharing a current status is
+     * updated by a single statement, and one coalesced event is published for the whole batch.
      */
-    public MatchStatistics getMatchStatistics() {
-        MatchStatistics stats = new MatchStatistics();
+    public List<MatchDto> transitionMatches(Collection<UUID> matchIds, MatchStatus status) {
+        Set<UUID> ids = new LinkedHashSet<>(matchIds);
+        logger.info("Moving {} matches to {}", ids.size(), status);
+
+        List<Match> matches = matchRepository.findByIdIn(ids);
+        if (matches.size() < ids.size()) {
+            Set<UUID> missing = new LinkedHashSet<>(ids);
+            matches.forEach(match -> missing.remove(match.getId()));
+            throw new IllegalArgumentException("Matches not found with IDs: " + missing);
+        }
+        Map<UUID, MatchStatus> previousStatuses = new HashMap<>();
+        Map<MatchStatus, List<UUID>> byPreviousStatus = new HashMap<>();
+        for (Match match : matches) {
+            if (!match.getStatus().canTransitionTo(status)) {
+                throw new IllegalMatchTransitionException(match.getId(), match.getStatus(), status);
+            }
+            previousStatuses.put(match.getId(), match.getStatus());
+            byPreviousStatus.computeIfAbsent(match.getStatus(), s -> new ArrayList<>()).add(match.getId());
+        }
 
-        stats.setTotalMatches(matchRepository.count());
-        stats.setPendingMatches(matchRepository.countByStatus("PENDING"));
-        stats.setCompletedMatches(matchRepository.countByStatus("COMPLETED"));
-        stats.setAverageCompatibilityScore(matchRepository.averageCompatibilityScore());
+        LocalDateTime now = LocalDateTime.now();
+        metrics.recordStage(Stage.PERSISTENCE, () -> byPreviousStatus.forEach((previousStatus, group) -> {
+            int updated = matchRepository.transitionStatus(group, previousStatus, status, now);
+            if (updated < group.size()) {
+                // Rolls back the groups already moved
+                throw new ObjectOptimisticLockingFailureException(Match.class, group);
+            }
+        }));
+
+        // The bulk update bypassed the loaded entities; bring them in line with the rows
+        for (Match match : matches) {
+            match.setStatus(status);
+            match.setVersion(match.getVersion() != null ? match.getVersion() + 1 : null);
+            match.setUpdatedAt(now);
+            statisticsService.recordStatusChange(match, previousStatuses.get(match.getId()));
+        }
+        hospitalViewService.recordStatusChanges(matches, status);
+        pairIndex.recordStatusChanges(matches, previousStatuses);
+        matches.forEach(bridgeDonors::recordChainStatusChange);
+        List<MatchDto> updated = matches.stream()
+                .map(MatchingService::convertToDto)
+                .collect(Collectors.toList());
+        snapshotService.recordChanged(updated);
+        if (status.isFailure()) {
+            publishPairsFreed(matches);
+        }
 
-        return stats;
+        MatchPublishEvent publishEvent = new MatchPublishEvent();
+        publishEvent.begin();
+        metrics.recordStage(Stage.PUBLISH, () -> publishMatchStatusBatchEvent(
+                new MatchStatusBatchEvent(UUID.randomUUID().toString(), status.name(), updated)));
+        if (publishEvent.complete()) {
+            publishEvent.topic = STATUS_BATCH_TOPIC;
+            publishEvent.resultCount = updated.size();
+            publishEvent.commit();
+        }
+        return updated;
+    }
+
+    /**
+     * Get match statistics from the in-memory rollup
+     */
+    @Transactional(readOnly = true)
+    public MatchStatistics getMatchStatistics() {
+        return statisticsService.getStatistics();
     }
 
     /**
@@ -154,21 +810,48 @@ public class MatchingService {
         return new ArrayList<>();
     }
 
+    /**
+     * Transaction that commits on its own, independent of the caller's
+     */
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
+    }
+
     /**
      * Find new matches after pair registration
      */
     private List<MatchDto> findNewMatches() {
-        List<Compatibility> compatibilities = compatibilityRepository.findFullyCompatible();
+        List<Compatibility> compatibilities = loadPool();
         return algorithmService.findOptimalMatches(compatibilities);
     }
 
     /**
-     * Get list of altruistic donors
+     * Load the fully compatible pool from the database
+     */
+    private List<Compatibility> loadPool() {
+        PoolLoadEvent event = new PoolLoadEvent();
+        event.begin();
+        List<Compatibility> compatibilities =
+                metrics.recordStage(Stage.POOL_LOAD, () -> compatibilityRepository.findFullyCompatible());
+        if (event.complete()) {
+            event.poolSize = (int) compatibilities.stream()
+                    .flatMap(c -> Stream.of(c.getDonorPairId(), c.getRecipientPairId()))
+                    .distinct()
+                    .count();
+            event.edgeCount = compatibilities.size();
+            event.resultCount = compatibilities.size();
+            event.commit();
+        }
+        return compatibilities;
+    }
+
+    /**
+     * Donors that can start chains: altruistic donors and bridge donors left by completed chains
      */
     private List<UUID> getAltruisticDonors() {
-        // This would integrate with the registration service
-        // For now, return empty list - implementation depends on integration
-        return new ArrayList<>();
+        return bridgeDonors.getAvailableDonors().stream().sorted().collect(Collectors.toList());
     }
 
     /**
@@ -195,31 +878,59 @@ public class MatchingService {
         }
     }
 
+    /**
+     * Publish one event for a batch of status changes to Kafka
+     */
+    private void publishMatchStatusBatchEvent(MatchStatusBatchEvent event) {
+        try {
+            kafkaTemplate.send(STATUS_BATCH_TOPIC, event.getBatchId(), event);
+            logger.info("Published status update event for {} matches in batch {}", event.getMatches().size(),
+                    event.getBatchId());
+        } catch (Exception e) {
+            logger.error("Failed to publish match status batch event", e);
+        }
+    }
+
     /**
      * Convert Match entity to DTO
      */
-    private MatchDto convertToDto(Match match) {
+    static MatchDto convertToDto(Match match) {
         MatchDto dto = new MatchDto();
         dto.setId(match.getId());
         dto.setMatchType(match.getMatchType().toString());
         dto.setStatus(match.getStatus().toString());
-        dto.setPairIds(match.getPairIds());
+        dto.setPairIds(match.getPairIds() != null ? new ArrayList<>(match.getPairIds()) : null);
         dto.setCompatibilityScore(match.getCompatibilityScore());
         dto.setCreatedAt(match.getCreatedAt());
         dto.setUpdatedAt(match.getUpdatedAt());
         dto.setHospitalId(match.getHospitalId());
         dto.setPriorityLevel(match.getPriorityLevel());
+        dto.setVersion(match.getVersion());
         return dto;
     }
 
+    private static String encodeCursor(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return parts;
+    }
+
     /**
      * Convert MatchDto to entity
      */
     private Match convertToEntity(MatchDto dto) {
         Match match = new Match();
         match.setId(dto.getId());
-        match.setMatchType(MatchType.DIRECT_EXCHANGE);
-        match.setStatus(MatchStatus.CONFIRMED);
+        match.setMatchType(dto.getMatchType() != null ? MatchType.valueOf(dto.getMatchType()) : MatchType.DIRECT_EXCHANGE);
+        match.setStatus(dto.getStatus() != null ? MatchStatus.valueOf(dto.getStatus()) : MatchStatus.CONFIRMED);
         match.setPairIds(dto.getPairIds());
         match.setCompatibilityScore(dto.getCompatibilityScore());
         match.setHospitalId(dto.getHospitalId());
@@ -227,6 +938,19 @@ public class MatchingService {
         return match;
     }
 
+    /**
+     * Callback for the progress of a matching run
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(String stage, int percentComplete);
+
+        /**
+         * Called with each batch of matches as it is produced; an exception aborts the run
+         */
+        default void onMatches(String stage, List<MatchDto> matches) { }
+    }
+
     /**
      * Inner class for match statistics
      */
@@ -235,6 +959,10 @@ public class MatchingService {
         private long pendingMatches;
         private long completedMatches;
         private Double averageCompatibilityScore;
+        private Map<String, Long> matchesByStatus;
+        private Map<String, Long> matchesByType;
+        private Map<String, Long> matchesByHospital;
+        private LocalDateTime reconciledAt;
 
         // Getters and setters
         public long getTotalMatches() { return totalMatches; }
@@ -248,5 +976,17 @@ public class MatchingService {
 
         public Double getAverageCompatibilityScore() { return averageCompatibilityScore; }
         public void setAverageCompatibilityScore(Double averageCompatibilityScore) { this.averageCompatibilityScore = averageCompatibilityScore; }
+
+        public Map<String, Long> getMatchesByStatus() { return matchesByStatus; }
+        public void setMatchesByStatus(Map<String, Long> matchesByStatus) { this.matchesByStatus = matchesByStatus; }
+
+        public Map<String, Long> getMatchesByType() { return matchesByType; }
+        public void setMatchesByType(Map<String, Long> matchesByType) { this.matchesByType = matchesByType; }
+
+        public Map<String, Long> getMatchesByHospital() { return matchesByHospital; }
+        public void setMatchesByHospital(Map<String, Long> matchesByHospital) { this.matchesByHospital = matchesByHospital; }
+
+        public LocalDateTime getReconciledAt() { return reconciledAt; }
+        public void setReconciledAt(LocalDateTime reconciledAt) { this.reconciledAt = reconciledAt; }
     }
 }
\ No newline at end of file
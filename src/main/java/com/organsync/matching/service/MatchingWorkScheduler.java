@@ -0,0 +1,270 @@
+package com.organsync.matching.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs registration, rematch, repair and trigger work in order of urgency rather than arrival.
+ *
+ * Work at or above the urgent priority goes to the urgent queue, everything else to the routine
+ * queue. A few workers are reserved for the urgent queue so urgent cases never wait behind a
+ * routine backlog; the remaining workers take whichever queue head ranks higher. Waiting work
+ * gains one priority level per aging interval, so a stream of urgent work cannot starve routine
+ * work indefinitely.
+ *
+ * The worker count and backlog bound come from {@code app.thread-pool}.
+ */
+@Service
+public class MatchingWorkScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchingWorkScheduler.class);
+
+    /**
+     * Kinds of scheduled matching work
+     */
+    public enum WorkKind {
+        REGISTRATION,
+        REMATCH,
+        TRIGGER,
+        REGION_RUN,
+        REPAIR
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.thread-pool.core-size:5}")
+    private int workers;
+
+    @Value("${organsync.matching.scheduler.urgent-workers:1}")
+    private int urgentWorkers;
+
+    @Value("${organsync.matching.scheduler.urgent-priority:8}")
+    private int urgentPriority;
+
+    @Value("${organsync.matching.scheduler.aging-seconds:30}")
+    private long agingSeconds;
+
+    @Value("${app.thread-pool.queue-capacity:10000}")
+    private int capacity;
+
+    @Value("${organsync.matching.scheduler.submit-timeout-ms:60000}")
+    private long submitTimeoutMs;
+
+    private Clock clock = Clock.systemUTC();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final PriorityQueue<Task> urgentQueue = new PriorityQueue<>(Task.ORDER);
+    private final PriorityQueue<Task> routineQueue = new PriorityQueue<>(Task.ORDER);
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("organsync.matching.scheduler.backlog", this, s -> s.backlog(true))
+                .description("Matching work waiting to run")
+                .tag("lane", "urgent")
+                .register(meterRegistry);
+        Gauge.builder("organsync.matching.scheduler.backlog", this, s -> s.backlog(false))
+                .description("Matching work waiting to run")
+                .tag("lane", "routine")
+                .register(meterRegistry);
+
+        running = true;
+        int reserved = Math.min(urgentWorkers, workers - 1);
+        for (int i = 0; i < workers; i++) {
+            boolean urgentOnly = i < reserved;
+            Thread thread = new Thread(() -> workLoop(urgentOnly),
+                    (urgentOnly ? "matching-urgent-" : "matching-") + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        logger.info("Matching scheduler started with {} workers ({} reserved for priority >= {})",
+                workers, reserved, urgentPriority);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Queue work, failing fast when the backlog is full
+     * @param pairId Pair the work is for, or null for pool-wide work
+     * @return Future completing when the work has run, exceptionally if the work threw
+     * @throws TaskRejectedException if the backlog is at capacity
+     */
+    public CompletableFuture<Void> submit(WorkKind kind, UUID pairId, int priority, Runnable work) {
+        lock.lock();
+        try {
+            if (size() >= capacity) {
+                throw new TaskRejectedException("Matching backlog is at capacity (" + capacity + ")");
+            }
+            return enqueue(kind, pairId, priority, work);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queue work, waiting for room when the backlog is full. Used by event listeners so a
+     * saturated backlog slows consumption instead of growing without bound. The wait is bounded
+     * by {@code organsync.matching.scheduler.submit-timeout-ms}, which must stay below the
+     * consumer's {@code max.poll.interval.ms} so a blocked listener is not evicted from its group.
+     * @return Future completing when the work has run, exceptionally if the work threw
+     * @throws TaskRejectedException if the backlog stayed at capacity for the whole timeout
+     */
+    public CompletableFuture<Void> submitBlocking(WorkKind kind, UUID pairId, int priority, Runnable work)
+            throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(submitTimeoutMs);
+            while (size() >= capacity) {
+                if (remainingNanos <= 0) {
+                    throw new TaskRejectedException("Matching backlog stayed at capacity (" + capacity + ") for "
+                            + submitTimeoutMs + " ms");
+                }
+                remainingNanos = spaceAvailable.awaitNanos(remainingNanos);
+            }
+            return enqueue(kind, pairId, priority, work);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lowest priority that is served by the reserved urgent workers
+     */
+    public int getUrgentPriority() { return urgentPriority; }
+
+    private CompletableFuture<Void> enqueue(WorkKind kind, UUID pairId, int priority, Runnable work) {
+        Task task = new Task(kind, pairId, priority, priority >= urgentPriority, clock.millis(),
+                sequence.incrementAndGet(), agingSeconds * 1000, work);
+        (task.urgent ? urgentQueue : routineQueue).add(task);
+        workAvailable.signalAll();
+        return task.done;
+    }
+
+    /**
+     * Remove the next task for a worker. Reserved workers only see the urgent queue; shared
+     * workers take the higher-ranked head of the two queues.
+     */
+    Task poll(boolean urgentOnly) {
+        Task urgent = urgentQueue.peek();
+        if (urgentOnly) {
+            return urgentQueue.poll();
+        }
+        Task routine = routineQueue.peek();
+        if (urgent == null || (routine != null && Task.ORDER.compare(routine, urgent) < 0)) {
+            return routineQueue.poll();
+        }
+        return urgentQueue.poll();
+    }
+
+    private void workLoop(boolean urgentOnly) {
+        while (running) {
+            Task task;
+            lock.lock();
+            try {
+                while ((task = poll(urgentOnly)) == null) {
+                    workAvailable.await();
+                }
+                spaceAvailable.signal();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            execute(task);
+        }
+    }
+
+    private void execute(Task task) {
+        Timer.builder("organsync.matching.scheduler.wait")
+                .description("Time matching work spent queued before running")
+                .tag("kind", task.kind.name())
+                .tag("lane", task.urgent ? "urgent" : "routine")
+                .register(meterRegistry)
+                .record(clock.millis() - task.enqueuedAt, TimeUnit.MILLISECONDS);
+        try {
+            task.work.run();
+            task.done.complete(null);
+        } catch (Throwable e) {
+            // Errors too: a worker that dies here would leave the future, and its listener ack, pending forever
+            logger.error("Scheduled {} work for pair {} failed", task.kind, task.pairId, e);
+            task.done.completeExceptionally(e);
+        }
+    }
+
+    int size() {
+        return urgentQueue.size() + routineQueue.size();
+    }
+
+    private int backlog(boolean urgent) {
+        lock.lock();
+        try {
+            return urgent ? urgentQueue.size() : routineQueue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queued unit of work. Ranking by priority plus one level per aging interval waited reduces to
+     * a fixed key (priority * interval - enqueue time), so queued tasks never need re-sorting.
+     */
+    static final class Task {
+
+        static final Comparator<Task> ORDER = Comparator.comparingLong((Task t) -> -t.rank)
+                .thenComparingLong(t -> t.sequence);
+
+        final WorkKind kind;
+        final UUID pairId;
+        final int priority;
+        final boolean urgent;
+        final long enqueuedAt;
+        final long sequence;
+        final long rank;
+        final Runnable work;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Task(WorkKind kind, UUID pairId, int priority, boolean urgent, long enqueuedAt,
+             long sequence, long agingMillis, Runnable work) {
+            this.kind = kind;
+            this.pairId = pairId;
+            this.priority = priority;
+            this.urgent = urgent;
+            this.enqueuedAt = enqueuedAt;
+            this.sequence = sequence;
+            this.rank = priority * Math.max(agingMillis, 1) - enqueuedAt;
+            this.work = work;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.organsync.matching.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One-off migration of match membership from the legacy match_pairs table into the
+ * matches.pair_ids array column.
+ *
+ * Enabled with organsync.matching.migrations.pair-ids-array.enabled=true, once the pair_ids
+ * column exists (docker/init-db.sql adds it). Only matches whose array is still null are touched,
+ * and matches without match_pairs rows get an empty array, so the migration can be re-run safely
+ * and alongside a running service. match_pairs is left in place for rollback and can be dropped
+ * afterwards.
+ */
+@Component
+@ConditionalOnProperty(name = "organsync.matching.migrations.pair-ids-array.enabled", havingValue = "true")
+public class PairIdsArrayMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PairIdsArrayMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${organsync.matching.migrations.pair-ids-array.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!legacyTablePresent()) {
+            logger.info("No match_pairs table found, nothing to migrate");
+            return;
+        }
+        int migrated = migrate();
+        logger.info("Migrated pair ids of {} matches from match_pairs to matches.pair_ids", migrated);
+    }
+
+    /**
+     * Copy membership of every match without a pair_ids array from match_pairs
+     * @return Number of matches updated
+     */
+    public int migrate() {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        List<UUID> pending = jdbcTemplate.queryForList("SELECT id FROM matches WHERE pair_ids IS NULL", UUID.class);
+        int migrated = 0;
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<UUID> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            // Matches without legacy rows are marked migrated with an empty array
+            Map<UUID, List<UUID>> pairsByMatch = new LinkedHashMap<>();
+            batch.forEach(id -> pairsByMatch.put(id, new ArrayList<>()));
+            named.query("SELECT match_id, pair_id FROM match_pairs WHERE match_id IN (:ids)",
+                    new MapSqlParameterSource("ids", batch),
+                    rs -> {
+                        pairsByMatch.get(rs.getObject("match_id", UUID.class)).add(rs.getObject("pair_id", UUID.class));
+                    });
+            List<Map.Entry<UUID, List<UUID>>> rows = new ArrayList<>(pairsByMatch.entrySet());
+            int[][] updated = jdbcTemplate.batchUpdate(
+                    "UPDATE matches SET pair_ids = ? WHERE id = ? AND pair_ids IS NULL", rows, rows.size(),
+                    (ps, row) -> {
+                        ps.setArray(1, ps.getConnection().createArrayOf("uuid", row.getValue().toArray()));
+                        ps.setObject(2, row.getKey());
+                    });
+            for (int[] counts : updated) {
+                for (int count : counts) {
+                    migrated += Math.max(count, 0);
+                }
+            }
+            logger.debug("Migrated batch of {} matches", rows.size());
+        }
+        return migrated;
+    }
+
+    private boolean legacyTablePresent() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM match_pairs", Long.class);
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.PairMatchIndex;
+import com.organsync.matching.repository.MatchRepository;
+import com.organsync.matching.repository.PairMatchIndexRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the persistent pair-to-active-match index.
+ *
+ * Entries are written in the same transaction as the match, when an active match is created or a
+ * match moves into an active status, and removed when it leaves them. Lookups take many pair ids
+ * at once and resolve them with primary key range scans instead of a membership scan over
+ * every match.
+ */
+@Service
+@Transactional
+public class PairMatchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PairMatchIndexService.class);
+
+    static final int LOOKUP_BATCH_SIZE = 500;
+
+    @Autowired
+    private PairMatchIndexRepository indexRepository;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    /**
+     * Index a newly persisted match if it is active
+     */
+    public void recordCreated(Match match) {
+        if (match.getStatus() != null && match.getStatus().isActive()) {
+            indexRepository.saveAll(entries(match));
+        }
+    }
+
+    /**
+     * Add or drop a match's entries when it moves into or out of the active statuses
+     */
+    public void recordStatusChange(Match match, MatchStatus previousStatus) {
+        boolean wasActive = previousStatus != null && previousStatus.isActive();
+        boolean isActive = match.getStatus() != null && match.getStatus().isActive();
+        if (wasActive && !isActive) {
+            indexRepository.deleteByMatchId(match.getId());
+        } else if (!wasActive && isActive) {
+            indexRepository.saveAll(entries(match));
+        }
+    }
+
+    /**
+     * Add or drop the entries of matches that all moved to the same status, with at most one
+     * delete statement
+     */
+    public void recordStatusChanges(Collection<Match> matches, Map<UUID, MatchStatus> previousStatuses) {
+        List<UUID> deactivated = new ArrayList<>();
+        List<PairMatchIndex> activated = new ArrayList<>();
+        for (Match match : matches) {
+            MatchStatus previousStatus = previousStatuses.get(match.getId());
+            boolean wasActive = previousStatus != null && previousStatus.isActive();
+            boolean isActive = match.getStatus() != null && match.getStatus().isActive();
+            if (wasActive && !isActive) {
+                deactivated.add(match.getId());
+            } else if (!wasActive && isActive) {
+                activated.addAll(entries(match));
+            }
+        }
+        if (!deactivated.isEmpty()) {
+            indexRepository.deleteByMatchIdIn(deactivated);
+        }
+        if (!activated.isEmpty()) {
+            indexRepository.saveAll(activated);
+        }
+    }
+
+    /**
+     * Active matches of each pair. Pairs without active matches are absent from the result.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Set<UUID>> findActiveMatchIds(Collection<UUID> pairIds) {
+        Map<UUID, Set<UUID>> result = new HashMap<>();
+        List<UUID> distinct = new ArrayList<>(new HashSet<>(pairIds));
+        for (int from = 0; from < distinct.size(); from += LOOKUP_BATCH_SIZE) {
+            List<UUID> batch = distinct.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, distinct.size()));
+            for (PairMatchIndex entry : indexRepository.findByPairIdIn(batch)) {
+                result.computeIfAbsent(entry.getPairId(), p -> new HashSet<>()).add(entry.getMatchId());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Build the index from the matches table when active matches are missing from it, such as on
+     * first deployment of the index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<MatchStatus> active = Arrays.stream(MatchStatus.values())
+                .filter(MatchStatus::isActive)
+                .collect(Collectors.toList());
+        long indexed = indexRepository.countIndexedMatches();
+        if (indexed >= matchRepository.countByStatusIn(active)) {
+            return;
+        }
+        indexRepository.deleteAllInBatch();
+        List<PairMatchIndex> rows = matchRepository.findAll().stream()
+                .filter(match -> match.getStatus() != null && match.getStatus().isActive())
+                .flatMap(match -> entries(match).stream())
+                .collect(Collectors.toList());
+        indexRepository.saveAll(rows);
+        logger.info("Rebuilt pair match index with {} entries ({} matches were indexed)", rows.size(), indexed);
+    }
+
+    private static List<PairMatchIndex> entries(Match match) {
+        if (match.getPairIds() == null) {
+            return List.of();
+        }
+        return match.getPairIds().stream()
+                .distinct()
+                .map(pairId -> new PairMatchIndex(pairId, match.getId()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,113 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.algorithm.MatchingAlgorithmService;
+import com.organsync.matching.algorithm.RankedAdjacency;
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.entity.Compatibility;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.monitoring.MatchingMetrics;
+import com.organsync.matching.monitoring.MatchingMetrics.Stage;
+import com.organsync.matching.repository.CompatibilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers "what are the best exchange options for this pair?" without matching the pool.
+ *
+ * The pool's compatibility graph is kept in memory with every pair's out-edges ranked by score,
+ * rebuilt periodically off the request path, together with the chain sources available at that
+ * time. A query walks only the neighbourhood of the pair in that graph and checks which pairs are
+ * held by active matches against the in-memory match snapshot, so it never touches the database.
+ * Options are suggestions: nothing is persisted or published.
+ */
+@Service
+public class PairOptionsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PairOptionsService.class);
+
+    @Autowired
+    private CompatibilityRepository compatibilityRepository;
+
+    @Autowired
+    private MatchingAlgorithmService algorithmService;
+
+    @Autowired
+    private BridgeDonorService bridgeDonors;
+
+    @Autowired
+    private MatchSnapshotService snapshotService;
+
+    @Autowired
+    private MatchingMetrics metrics;
+
+    @Value("${organsync.matching.algorithm.max-cycle-length:3}")
+    private int maxCycleLength;
+
+    @Value("${organsync.matching.algorithm.max-chain-length:5}")
+    private int maxChainLength;
+
+    private final AtomicReference<Neighbourhoods> current = new AtomicReference<>();
+
+    /**
+     * Best cycles and chains that include the pair, best score first. Pairs held by active
+     * matches other than the queried pair itself are left out.
+     */
+    public List<MatchDto> findBestOptions(UUID pairId, int k) {
+        Neighbourhoods neighbourhoods = current.get();
+        if (neighbourhoods == null) {
+            neighbourhoods = load();
+        }
+        MatchSnapshot matches = snapshotService.current();
+        RankedAdjacency adjacency = neighbourhoods.adjacency;
+        Set<UUID> sources = neighbourhoods.sources;
+        return metrics.recordStage(Stage.OPTIONS, () -> algorithmService.findBestOptions(adjacency, sources, pairId,
+                pair -> isHeld(matches, pair), maxCycleLength, maxChainLength, k));
+    }
+
+    /**
+     * Rebuild the ranked graph from the current pool
+     */
+    @Scheduled(fixedDelayString = "${organsync.matching.options.refresh-interval-ms:30000}")
+    public void refresh() {
+        load();
+    }
+
+    private Neighbourhoods load() {
+        List<Compatibility> compatibilities = metrics.recordStage(Stage.POOL_LOAD,
+                compatibilityRepository::findFullyCompatible);
+        RankedAdjacency adjacency = metrics.recordStage(Stage.GRAPH_BUILD,
+                () -> algorithmService.rankAdjacency(compatibilities));
+        Neighbourhoods next = new Neighbourhoods(adjacency, Set.copyOf(bridgeDonors.getAvailableDonors()));
+        current.set(next);
+        logger.debug("Ranked {} compatibilities for pair option queries", adjacency.getEdgeCount());
+        return next;
+    }
+
+    private static boolean isHeld(MatchSnapshot matches, UUID pairId) {
+        return matches.getMatchesByPair(pairId).stream()
+                .anyMatch(match -> match.getStatus() != null && MatchStatus.valueOf(match.getStatus()).isActive());
+    }
+
+    /**
+     * Ranked graph and chain sources loaded together
+     */
+    private static final class Neighbourhoods {
+
+        private final RankedAdjacency adjacency;
+        private final Set<UUID> sources;
+
+        Neighbourhoods(RankedAdjacency adjacency, Set<UUID> sources) {
+            this.adjacency = adjacency;
+            this.sources = sources;
+        }
+    }
+}
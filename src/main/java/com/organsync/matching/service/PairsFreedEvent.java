@@ -0,0 +1,19 @@
+package com.organsync.matching.service;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published when matches fail and their pairs return to the pool. Listeners see it once the
+ * status change has committed.
+ */
+public class PairsFreedEvent {
+
+    private final Set<UUID> pairIds;
+
+    public PairsFreedEvent(Set<UUID> pairIds) {
+        this.pairIds = Set.copyOf(pairIds);
+    }
+
+    public Set<UUID> getPairIds() { return pairIds; }
+}
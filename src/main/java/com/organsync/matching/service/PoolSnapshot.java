@@ -0,0 +1,99 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.CompatibilityDto;
+import com.organsync.matching.entity.Compatibility;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable view of the compatibility pool at one point in time.
+ *
+ * Each fork operation returns a new snapshot that shares the untouched compatibilities with its
+ * parent and adds or drops only what the delta changes, so forking never mutates the pool seen by
+ * other simulations. Compatibilities in a snapshot are detached and must not be modified.
+ */
+public final class PoolSnapshot {
+
+    private final List<Compatibility> compatibilities;
+    private final LocalDateTime loadedAt;
+
+    private PoolSnapshot(List<Compatibility> compatibilities, LocalDateTime loadedAt) {
+        this.compatibilities = Collections.unmodifiableList(compatibilities);
+        this.loadedAt = loadedAt;
+    }
+
+    public static PoolSnapshot of(List<Compatibility> compatibilities) {
+        return new PoolSnapshot(new ArrayList<>(compatibilities), LocalDateTime.now());
+    }
+
+    public List<Compatibility> getCompatibilities() { return compatibilities; }
+
+    public LocalDateTime getLoadedAt() { return loadedAt; }
+
+    /**
+     * Pairs with at least one compatibility in this snapshot
+     */
+    public Set<UUID> getPairIds() {
+        return compatibilities.stream()
+                .flatMap(c -> Stream.of(c.getDonorPairId(), c.getRecipientPairId()))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Fork with hypothetical compatibilities added; they exist only in the fork
+     */
+    public PoolSnapshot withAddedCompatibilities(Collection<CompatibilityDto> added) {
+        if (added == null || added.isEmpty()) {
+            return this;
+        }
+        List<Compatibility> forked = new ArrayList<>(compatibilities.size() + added.size());
+        forked.addAll(compatibilities);
+        for (CompatibilityDto dto : added) {
+            Compatibility hypothetical = new Compatibility();
+            hypothetical.setDonorPairId(dto.getDonorPairId());
+            hypothetical.setRecipientPairId(dto.getRecipientPairId());
+            hypothetical.setBloodTypeCompatible(true);
+            hypothetical.setHlaCompatible(true);
+            hypothetical.setCrossmatchCompatible(true);
+            hypothetical.setCompatibilityScore(dto.getCompatibilityScore() != null ? dto.getCompatibilityScore() : 1.0);
+            hypothetical.setDistanceKm(dto.getDistanceKm());
+            hypothetical.setSuccessProbability(dto.getSuccessProbability());
+            forked.add(hypothetical);
+        }
+        return new PoolSnapshot(forked, loadedAt);
+    }
+
+    /**
+     * Fork with the given pairs withdrawn from the pool
+     */
+    public PoolSnapshot withoutPairs(Collection<UUID> pairIds) {
+        if (pairIds == null || pairIds.isEmpty()) {
+            return this;
+        }
+        Set<UUID> removed = new HashSet<>(pairIds);
+        return new PoolSnapshot(compatibilities.stream()
+                .filter(c -> !removed.contains(c.getDonorPairId()) && !removed.contains(c.getRecipientPairId()))
+                .collect(Collectors.toCollection(ArrayList::new)), loadedAt);
+    }
+
+    /**
+     * Fork keeping only compatibilities scoring at least the threshold
+     */
+    public PoolSnapshot withMinimumScore(Double minScore) {
+        if (minScore == null) {
+            return this;
+        }
+        return new PoolSnapshot(compatibilities.stream()
+                .filter(c -> c.getCompatibilityScore() != null && c.getCompatibilityScore() >= minScore)
+                .collect(Collectors.toCollection(ArrayList::new)), loadedAt);
+    }
+}
@@ -0,0 +1,241 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.algorithm.RegionPartitioner;
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.entity.Compatibility;
+import com.organsync.matching.entity.PairRegion;
+import com.organsync.matching.event.RegionRunRequest;
+import com.organsync.matching.event.RegionRunResult;
+import com.organsync.matching.repository.CompatibilityRepository;
+import com.organsync.matching.repository.PairRegionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Coordinates sharded matching across replicas.
+ *
+ * The pool is partitioned into regions and each region is hashed to a shard. Shards are the
+ * partitions of the region run topic, so Kafka's consumer group assignment decides which replica
+ * matches which shard and rebalances them when replicas come and go. A sharded run repartitions
+ * the pool, sends one run request per shard, collects the per-shard results and finishes with a
+ * cross-region pass over the pairs that have compatibilities in more than one shard.
+ */
+@Service
+public class RegionShardCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionShardCoordinator.class);
+
+    @Autowired
+    private CompatibilityRepository compatibilityRepository;
+
+    @Autowired
+    private PairRegionRepository pairRegionRepository;
+
+    @Autowired
+    private RegionPartitioner partitioner;
+
+    @Autowired
+    private MatchingService matchingService;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${organsync.matching.sharding.enabled:false}")
+    private boolean enabled;
+
+    @Value("${organsync.matching.sharding.shards:4}")
+    private int shards;
+
+    @Value("${organsync.matching.sharding.region-radius-km:300}")
+    private double regionRadiusKm;
+
+    @Value("${organsync.matching.sharding.run-topic:matching.region.runs}")
+    private String runTopic;
+
+    @Value("${organsync.matching.sharding.result-topic:matching.region.results}")
+    private String resultTopic;
+
+    @Value("${organsync.matching.sharding.region-timeout-seconds:120}")
+    private long regionTimeoutSeconds;
+
+    private final Set<Integer> ownedShards = ConcurrentHashMap.newKeySet();
+    private final Map<String, PendingRun> pendingRuns = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() { return enabled; }
+
+    public Set<Integer> getOwnedShards() { return Set.copyOf(ownedShards); }
+
+    public void shardsAssigned(Collection<Integer> assigned) {
+        ownedShards.addAll(assigned);
+        logger.info("Now matching shards {}", ownedShards);
+    }
+
+    public void shardsRevoked(Collection<Integer> revoked) {
+        ownedShards.removeAll(revoked);
+        logger.info("Now matching shards {}", ownedShards);
+    }
+
+    /**
+     * Match the whole pool region by region across the replicas
+     */
+    public List<MatchDto> runSharded(MatchingService.ProgressListener progress) {
+        progress.onProgress("partition", 0);
+        Map<UUID, Integer> shardByPair = repartition();
+
+        String runId = UUID.randomUUID().toString();
+        PendingRun pending = new PendingRun(shards);
+        pendingRuns.put(runId, pending);
+        try {
+            progress.onProgress("regions", 20);
+            for (int shard = 0; shard < shards; shard++) {
+                kafkaTemplate.send(runTopic, shard, runId, new RegionRunRequest(runId, shard));
+            }
+            List<MatchDto> matches = new ArrayList<>(pending.await(regionTimeoutSeconds));
+
+            progress.onProgress("cross_region", 80);
+            matches.addAll(crossRegionPass(shardByPair));
+            logger.info("Sharded run {} found {} matches across {} shards", runId, matches.size(), shards);
+            return matches;
+        } finally {
+            pendingRuns.remove(runId);
+        }
+    }
+
+    /**
+     * Match the regions of one shard and report back to the requesting replica
+     */
+    public void runRegion(RegionRunRequest request) {
+        RegionRunResult result;
+        try {
+            List<Compatibility> pool = compatibilityRepository.findFullyCompatibleWithinShard(request.getShard());
+            List<MatchDto> matches = pool.isEmpty() ? List.of()
+                    : matchingService.matchPool(pool, (stage, percentComplete) -> { });
+            logger.info("Shard {} matched {} compatibilities into {} matches for run {}",
+                    request.getShard(), pool.size(), matches.size(), request.getRunId());
+            result = new RegionRunResult(request.getRunId(), request.getShard(), matches, null);
+        } catch (Exception e) {
+            logger.error("Shard {} failed for run {}", request.getShard(), request.getRunId(), e);
+            result = new RegionRunResult(request.getRunId(), request.getShard(), List.of(), String.valueOf(e.getMessage()));
+        }
+        kafkaTemplate.send(resultTopic, request.getRunId(), result);
+    }
+
+    /**
+     * Record a shard's result; results for runs started elsewhere are ignored
+     */
+    public void regionCompleted(RegionRunResult result) {
+        PendingRun pending = pendingRuns.get(result.getRunId());
+        if (pending != null) {
+            pending.complete(result);
+        }
+    }
+
+    /**
+     * Recompute regions and store each pair's shard so shard owners can load only their part of the pool
+     */
+    Map<UUID, Integer> repartition() {
+        Map<UUID, String> regions = partitioner.partition(
+                compatibilityRepository.findFullyCompatibleEdgeDistances(), regionRadiusKm);
+        List<PairRegion> assignments = regions.entrySet().stream()
+                .map(e -> new PairRegion(e.getKey(), e.getValue(), RegionPartitioner.shardOf(e.getValue(), shards)))
+                .collect(Collectors.toList());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            pairRegionRepository.deleteAllInBatch();
+            pairRegionRepository.saveAll(assignments);
+        });
+        return assignments.stream().collect(Collectors.toMap(PairRegion::getPairId, PairRegion::getShard));
+    }
+
+    /**
+     * Match the pairs with compatibilities in other shards, keeping only matches that span shards
+     * since everything within a shard was already matched by its owner
+     */
+    List<MatchDto> crossRegionPass(Map<UUID, Integer> shardByPair) {
+        Set<UUID> boundary = new HashSet<>();
+        for (Compatibility edge : compatibilityRepository.findFullyCompatibleAcrossShards()) {
+            boundary.add(edge.getDonorPairId());
+            boundary.add(edge.getRecipientPairId());
+        }
+        if (boundary.isEmpty()) {
+            return List.of();
+        }
+        List<Compatibility> pool = compatibilityRepository.findFullyCompatibleAmong(boundary);
+        List<MatchDto> matches = matchingService.matchPool(pool, (stage, percentComplete) -> { }).stream()
+                .filter(match -> match.getPairIds().stream().map(shardByPair::get).distinct().count() > 1)
+                .collect(Collectors.toList());
+        logger.info("Cross-region pass over {} boundary pairs found {} matches", boundary.size(), matches.size());
+        return matches;
+    }
+
+    /**
+     * Results collected so far for one sharded run
+     */
+    private static class PendingRun {
+        private final int shards;
+        private final Map<Integer, List<MatchDto>> results = new ConcurrentHashMap<>();
+        private final CompletableFuture<List<MatchDto>> done = new CompletableFuture<>();
+
+        PendingRun(int shards) {
+            this.shards = shards;
+        }
+
+        void complete(RegionRunResult result) {
+            if (result.getError() != null) {
+                done.completeExceptionally(new IllegalStateException(
+                        "Shard " + result.getShard() + " failed: " + result.getError()));
+                return;
+            }
+            results.put(result.getShard(), result.getMatches() != null ? result.getMatches() : List.of());
+            if (results.size() == shards) {
+                done.complete(results.values().stream().flatMap(List::stream).collect(Collectors.toList()));
+            }
+        }
+
+        List<MatchDto> await(long timeoutSeconds) {
+            try {
+                return done.get(timeoutSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Shards " + missing() + " did not report within " + timeoutSeconds + "s", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for shards", e);
+            }
+        }
+
+        private Set<Integer> missing() {
+            Set<Integer> missing = new HashSet<>();
+            for (int shard = 0; shard < shards; shard++) {
+                if (!results.containsKey(shard)) {
+                    missing.add(shard);
+                }
+            }
+            return missing;
+        }
+    }
+}
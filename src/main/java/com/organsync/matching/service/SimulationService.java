@@ -0,0 +1,215 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.dto.SimulationRequest;
+import com.organsync.matching.dto.SimulationResultDto;
+import com.organsync.matching.monitoring.MatchingMetrics;
+import com.organsync.matching.monitoring.MatchingMetrics.MatchingRun;
+import com.organsync.matching.repository.CompatibilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * What-if matching on hypothetical pool changes.
+ *
+ * A simulation forks a cached snapshot of the live pool, applies the requested deltas to the fork
+ * and runs the matching algorithms on both the snapshot and the fork. Nothing is persisted or
+ * published. Simulations run on their own small, low-priority executor so they cannot take
+ * threads or CPU from live matching.
+ */
+@Service
+public class SimulationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationService.class);
+
+    @Autowired
+    private CompatibilityRepository compatibilityRepository;
+
+    @Autowired
+    private MatchingService matchingService;
+
+    @Autowired
+    private BridgeDonorService bridgeDonors;
+
+    @Autowired
+    private MatchingMetrics metrics;
+
+    @Autowired
+    @Qualifier("simulationExecutor")
+    private ThreadPoolTaskExecutor simulationExecutor;
+
+    @Value("${organsync.matching.algorithm.max-cycle-length:3}")
+    private int maxCycleLength;
+
+    @Value("${organsync.matching.algorithm.max-chain-length:5}")
+    private int maxChainLength;
+
+    @Value("${organsync.matching.algorithm.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    @Value("${organsync.matching.simulation.snapshot-ttl-seconds:60}")
+    private long snapshotTtlSeconds;
+
+    private final AtomicReference<PoolSnapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Run a simulation on the simulation executor. A simulation that times out is cancelled, which
+     * stops it at the next stage or batch of matches rather than leaving it to hold its thread.
+     * @throws org.springframework.core.task.TaskRejectedException if the simulation queue is full
+     */
+    public CompletableFuture<SimulationResultDto> simulate(SimulationRequest request) {
+        CompletableFuture<SimulationResultDto> result = new CompletableFuture<>();
+        Future<?> task = simulationExecutor.submit(() -> {
+            try {
+                result.complete(run(request));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .whenComplete((simulation, error) -> task.cancel(true));
+        return result;
+    }
+
+    SimulationResultDto run(SimulationRequest request) {
+        try (MatchingRun run = metrics.startRun("simulation")) {
+            long start = System.nanoTime();
+            PoolSnapshot baselinePool = currentSnapshot();
+            PoolSnapshot scenarioPool = baselinePool
+                    .withoutPairs(request.getRemovedPairIds())
+                    .withAddedCompatibilities(request.getAddedCompatibilities())
+                    .withMinimumScore(request.getMinCompatibilityScore());
+
+            // Both runs start chains from the live donors; the scenario adds its hypothetical ones
+            Set<UUID> liveDonors = bridgeDonors.getAvailableDonors();
+            Set<UUID> scenarioDonors = new TreeSet<>(liveDonors);
+            if (request.getAltruisticDonorIds() != null) {
+                scenarioDonors.addAll(request.getAltruisticDonorIds());
+            }
+            if (request.getRemovedPairIds() != null) {
+                request.getRemovedPairIds().forEach(scenarioDonors::remove);
+            }
+            List<MatchDto> baseline = runAlgorithms(baselinePool, new TreeSet<>(liveDonors),
+                    maxCycleLength, maxChainLength);
+            List<MatchDto> scenario = runAlgorithms(scenarioPool, scenarioDonors,
+                    request.getMaxCycleLength() != null ? request.getMaxCycleLength() : maxCycleLength,
+                    request.getMaxChainLength() != null ? request.getMaxChainLength() : maxChainLength);
+
+            Map<String, MatchDto> baselineByKey = byKey(baseline);
+            Map<String, MatchDto> scenarioByKey = byKey(scenario);
+
+            SimulationResultDto result = new SimulationResultDto();
+            result.setSnapshotLoadedAt(baselinePool.getLoadedAt());
+            result.setBaseline(outcome(baseline));
+            result.setScenario(outcome(scenario));
+            result.setAddedMatches(scenarioByKey.entrySet().stream()
+                    .filter(e -> !baselineByKey.containsKey(e.getKey()))
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toList()));
+            result.setRemovedMatches(baselineByKey.entrySet().stream()
+                    .filter(e -> !scenarioByKey.containsKey(e.getKey()))
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toList()));
+            result.setPairsCoveredDelta(result.getScenario().getPairsCovered() - result.getBaseline().getPairsCovered());
+            result.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            logger.info("Simulation run {} finished: {} matches added, {} removed, pairs covered {} -> {}",
+                    run.getRunId(), result.getAddedMatches().size(), result.getRemovedMatches().size(),
+                    result.getBaseline().getPairsCovered(), result.getScenario().getPairsCovered());
+            return result;
+        }
+    }
+
+    /**
+     * Cached live pool, reloaded once it is older than the snapshot TTL
+     */
+    private PoolSnapshot currentSnapshot() {
+        PoolSnapshot current = snapshot.get();
+        if (current == null || current.getLoadedAt().isBefore(LocalDateTime.now().minusSeconds(snapshotTtlSeconds))) {
+            current = PoolSnapshot.of(compatibilityRepository.findFullyCompatible());
+            snapshot.set(current);
+            logger.debug("Loaded simulation pool snapshot with {} compatibilities", current.getCompatibilities().size());
+        }
+        return current;
+    }
+
+    /**
+     * Match a pool the way the live path does, reduced and split into components. A cancelled
+     * simulation stops at the next stage or batch.
+     */
+    private List<MatchDto> runAlgorithms(PoolSnapshot pool, Set<UUID> donors, int cycleLength, int chainLength) {
+        if (pool.getCompatibilities().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return matchingService.matchPool(pool.getCompatibilities(), donors, cycleLength, chainLength,
+                new MatchingService.ProgressListener() {
+                    @Override
+                    public void onProgress(String stage, int percentComplete) {
+                        checkCancelled();
+                    }
+
+                    @Override
+                    public void onMatches(String stage, List<MatchDto> matches) {
+                        checkCancelled();
+                    }
+                });
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Simulation was cancelled");
+        }
+    }
+
+    private static SimulationResultDto.Outcome outcome(List<MatchDto> matches) {
+        Map<String, Long> byType = new TreeMap<>();
+        matches.forEach(match -> byType.merge(match.getMatchType(), 1L, Long::sum));
+        int pairsCovered = (int) matches.stream()
+                .flatMap(match -> match.getPairIds().stream())
+                .distinct()
+                .count();
+        return new SimulationResultDto.Outcome(matches.size(), byType, pairsCovered);
+    }
+
+    private static Map<String, MatchDto> byKey(List<MatchDto> matches) {
+        Map<String, MatchDto> byKey = new LinkedHashMap<>();
+        for (MatchDto match : matches) {
+            byKey.putIfAbsent(matchKey(match), match);
+        }
+        return byKey;
+    }
+
+    /**
+     * Identity of a match across runs: its type and pairs, with cycles rotated to start at the
+     * smallest pair ID since a cycle can be found from any of its members
+     */
+    static String matchKey(MatchDto match) {
+        List<UUID> pairs = new ArrayList<>(match.getPairIds());
+        if (!"CHAIN".equals(match.getMatchType()) && !pairs.isEmpty()) {
+            Collections.rotate(pairs, -pairs.indexOf(Collections.min(pairs)));
+        }
+        return match.getMatchType() + pairs;
+    }
+}
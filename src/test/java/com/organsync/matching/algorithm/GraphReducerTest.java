@@ -0,0 +1,82 @@
+package com.organsync.matching.algorithm;
+
+import com.organsync.matching.entity.Compatibility;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphReducerTest {
+
+    @Test
+    void testKeepsOnlyEdgesOnShortCyclesOrChainsAndSplitsComponents() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        UUID x = UUID.randomUUID(), y = UUID.randomUUID();
+        UUID source = UUID.randomUUID(), tail = UUID.randomUUID();
+        UUID deadEnd = UUID.randomUUID(), far1 = UUID.randomUUID(), far2 = UUID.randomUUID(), far3 = UUID.randomUUID();
+        Compatibility weakDuplicate = edge(a, b, 0.2);
+        List<Compatibility> pool = List.of(
+                // 3-way cycle with a weaker duplicate compatibility
+                edge(a, b, 0.8), weakDuplicate, edge(b, c, 0.7), edge(c, a, 0.6),
+                // Separate 2-way cycle
+                edge(x, y, 0.5), edge(y, x, 0.5),
+                // Chain from a source into the cycle and out to a tail
+                edge(source, a, 0.9), edge(c, tail, 0.4),
+                // Leads nowhere
+                edge(a, deadEnd, 0.9),
+                // Only on a 4-way cycle
+                edge(far1, far2, 0.9), edge(far2, far3, 0.9), edge(far3, x, 0.9), edge(x, far1, 0.9));
+
+        GraphReducer.Reduction reduction = GraphReducer.reduce(pool, List.of(source), 3, 5);
+
+        assertEquals(2, reduction.getComponents().size());
+        Set<Compatibility> kept = reduction.getComponents().stream()
+                .flatMap(component -> component.getCompatibilities().stream())
+                .collect(Collectors.toSet());
+        assertEquals(8, kept.size());
+        assertFalse(kept.contains(weakDuplicate));
+        assertEquals(Set.of(a, b, c, source, tail, deadEnd), pairs(reduction, source));
+        assertEquals(1L, reduction.getRemovedEdges().get(GraphReducer.DOMINATED));
+        assertEquals(4L, reduction.getRemovedEdges().get(GraphReducer.DEAD_END)
+                + reduction.getRemovedEdges().get(GraphReducer.NO_CYCLE));
+        assertEquals(8, reduction.getEdgesAfter());
+    }
+
+    @Test
+    void testWithoutSourcesDeadEndsArePeeled() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        List<Compatibility> pool = List.of(edge(a, b, 0.5), edge(b, c, 0.5), edge(c, b, 0.5));
+
+        GraphReducer.Reduction reduction = GraphReducer.reduce(pool, List.of(), 3, 3);
+
+        assertEquals(1, reduction.getComponents().size());
+        assertEquals(2, reduction.getEdgesAfter());
+        assertEquals(1L, reduction.getRemovedEdges().get(GraphReducer.DEAD_END));
+        assertTrue(reduction.getComponents().get(0).getSources().isEmpty());
+    }
+
+    private static Set<UUID> pairs(GraphReducer.Reduction reduction, UUID member) {
+        return reduction.getComponents().stream()
+                .filter(component -> component.getSources().contains(member))
+                .flatMap(component -> component.getCompatibilities().stream())
+                .flatMap(c -> List.of(c.getDonorPairId(), c.getRecipientPairId()).stream())
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static Compatibility edge(UUID donorPair, UUID recipientPair, double score) {
+        Compatibility compatibility = new Compatibility();
+        compatibility.setId(UUID.randomUUID());
+        compatibility.setDonorPairId(donorPair);
+        compatibility.setRecipientPairId(recipientPair);
+        compatibility.setBloodTypeCompatible(true);
+        compatibility.setHlaCompatible(true);
+        compatibility.setCrossmatchCompatible(true);
+        compatibility.setCompatibilityScore(score);
+        return compatibility;
+    }
+}
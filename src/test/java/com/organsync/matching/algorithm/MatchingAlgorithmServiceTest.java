@@ -0,0 +1,336 @@
+package com.organsync.matching.algorithm;
+
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.entity.Compatibility;
+import com.organsync.matching.monitoring.MatchingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingAlgorithmServiceTest {
+
+    private final MatchingAlgorithmService algorithmService = new MatchingAlgorithmService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(algorithmService, "metrics", new MatchingMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testRepairFindsDisjointCyclesThroughFreedPairsOnly() {
+        UUID freed1 = UUID.randomUUID(), freed2 = UUID.randomUUID();
+        UUID partner = UUID.randomUUID(), second = UUID.randomUUID(), third = UUID.randomUUID();
+        UUID held = UUID.randomUUID(), other1 = UUID.randomUUID(), other2 = UUID.randomUUID();
+        List<Compatibility> pool = new ArrayList<>();
+        pool.add(edge(freed1, partner, 0.6));
+        pool.add(edge(partner, freed1, 0.6));
+        pool.add(edge(freed2, second, 0.5));
+        pool.add(edge(second, third, 0.5));
+        pool.add(edge(third, freed2, 0.5));
+        // A better partner that is already held by an active match
+        pool.add(edge(freed1, held, 0.9));
+        pool.add(edge(held, freed1, 0.9));
+        // A cycle that does not involve any freed pair
+        pool.add(edge(other1, other2, 0.9));
+        pool.add(edge(other2, other1, 0.9));
+
+        List<MatchDto> repairs = algorithmService.findRepairCycles(pool, Set.of(freed1, freed2), Set.of(held), 3,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+
+        assertEquals(2, repairs.size());
+        assertEquals(Set.of(freed2, second, third), new HashSet<>(repairs.get(0).getPairIds()));
+        assertEquals("THREE_WAY_CYCLE", repairs.get(0).getMatchType());
+        assertEquals(1.5, repairs.get(0).getCompatibilityScore(), 1e-9);
+        assertEquals(Set.of(freed1, partner), new HashSet<>(repairs.get(1).getPairIds()));
+        assertEquals("TWO_WAY_CYCLE", repairs.get(1).getMatchType());
+        assertEquals("PENDING", repairs.get(1).getStatus());
+    }
+
+    @Test
+    void testRepairStopsAtDeadline() {
+        UUID freed = UUID.randomUUID(), partner = UUID.randomUUID();
+        List<Compatibility> pool = List.of(edge(freed, partner, 0.6), edge(partner, freed, 0.6));
+
+        List<MatchDto> repairs = algorithmService.findRepairCycles(pool, Set.of(freed), Set.of(), 3, System.nanoTime() - 1);
+
+        assertTrue(repairs.isEmpty());
+    }
+
+    @Test
+    void testChainExtensionStartsAtTailsAndPassesThroughNewPair() {
+        UUID tail = UUID.randomUUID(), otherTail = UUID.randomUUID();
+        UUID waiting = UUID.randomUUID(), newPair = UUID.randomUUID(), beyond = UUID.randomUUID();
+        List<Compatibility> pool = List.of(
+                edge(tail, waiting, 0.5),
+                edge(waiting, newPair, 0.5),
+                edge(newPair, beyond, 0.5),
+                // Reaches the new pair only against compatibility direction
+                edge(newPair, otherTail, 0.9));
+
+        List<MatchDto> chains = algorithmService.extendChains(pool, List.of(tail, otherTail), newPair, Set.of(), 5);
+
+        assertEquals(1, chains.size());
+        assertEquals(List.of(tail, waiting, newPair, beyond), chains.get(0).getPairIds());
+        assertEquals("CHAIN", chains.get(0).getMatchType());
+        assertEquals(1.5, chains.get(0).getCompatibilityScore(), 1e-9);
+    }
+
+    @Test
+    void testChainRepairKeepsChainsThroughAnyFreedPair() {
+        UUID source = UUID.randomUUID(), releasedSource = UUID.randomUUID();
+        UUID freed = UUID.randomUUID(), otherFreed = UUID.randomUUID(), bystander = UUID.randomUUID();
+        List<Compatibility> pool = List.of(
+                edge(source, freed, 0.5),
+                // Better, but passes no freed pair
+                edge(source, bystander, 0.9),
+                edge(releasedSource, otherFreed, 0.4));
+
+        List<MatchDto> chains = algorithmService.extendChainsThrough(pool, List.of(source, releasedSource),
+                Set.of(freed, otherFreed), Set.of(), 5);
+
+        assertEquals(2, chains.size());
+        assertEquals(List.of(source, freed), chains.get(0).getPairIds());
+        assertEquals(List.of(releasedSource, otherFreed), chains.get(1).getPairIds());
+    }
+
+    @Test
+    void testExpectedScoringCountsChainUpToFirstFailure() {
+        useExpectedScoring(0.05);
+        UUID source = UUID.randomUUID(), first = UUID.randomUUID(), second = UUID.randomUUID();
+        UUID unlikely = UUID.randomUUID();
+        List<Compatibility> pool = List.of(
+                edge(source, first, 1.0, 0.5),
+                edge(first, second, 1.0, 0.5),
+                // Reached with probability 0.5 * 0.5 * 0.1, below the minimum path probability
+                edge(second, unlikely, 1.0, 0.1));
+
+        List<MatchDto> chains = algorithmService.findChains(pool, List.of(source), 5);
+
+        assertEquals(2, chains.size());
+        assertEquals(List.of(source, first, second), chains.get(0).getPairIds());
+        assertEquals(1.0 * 0.5 + 1.0 * 0.25, chains.get(0).getCompatibilityScore(), 1e-9);
+        assertEquals(0.5, chains.get(1).getCompatibilityScore(), 1e-9);
+    }
+
+    @Test
+    void testExpectedScoringAddsBackArcFallbackToThreeWayCycle() {
+        useExpectedScoring(0.0);
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        List<Compatibility> pool = List.of(
+                edge(a, b, 1.0, 0.9),
+                edge(b, c, 1.0, 0.5),
+                edge(c, a, 1.0, 0.5),
+                // Back arc: a and b can still exchange if the cycle falls through
+                edge(b, a, 1.0, 0.8));
+
+        List<MatchDto> cycles = algorithmService.findCycles(pool, 3);
+
+        MatchDto twoWay = cycles.stream().filter(m -> "TWO_WAY_CYCLE".equals(m.getMatchType())).findFirst().orElseThrow();
+        MatchDto threeWay = cycles.stream().filter(m -> "THREE_WAY_CYCLE".equals(m.getMatchType())).findFirst().orElseThrow();
+        assertEquals(2.0 * 0.9 * 0.8, twoWay.getCompatibilityScore(), 1e-9);
+        double allThree = 0.9 * 0.5 * 0.5;
+        assertEquals(3.0 * allThree + 2.0 * 0.9 * 0.8 * (1 - 0.25), threeWay.getCompatibilityScore(), 1e-9);
+    }
+
+    @Test
+    void testBestOptionsReturnsTopCyclesAndChainsThroughPair() {
+        UUID pair = UUID.randomUUID(), partner = UUID.randomUUID(), weak = UUID.randomUUID();
+        UUID second = UUID.randomUUID(), held = UUID.randomUUID(), source = UUID.randomUUID();
+        UUID other1 = UUID.randomUUID(), other2 = UUID.randomUUID();
+        List<Compatibility> pool = List.of(
+                edge(pair, partner, 0.9), edge(partner, pair, 0.9),
+                edge(pair, weak, 0.2), edge(weak, pair, 0.2),
+                edge(pair, second, 0.7), edge(second, partner, 0.7),
+                edge(pair, held, 1.0), edge(held, pair, 1.0),
+                edge(source, pair, 0.8),
+                // Best cycle in the pool, but without the pair
+                edge(other1, other2, 1.0), edge(other2, other1, 1.0));
+        RankedAdjacency adjacency = algorithmService.rankAdjacency(pool);
+
+        List<MatchDto> options = algorithmService.findBestOptions(adjacency, Set.of(source), pair,
+                held::equals, 3, 3, 3);
+
+        assertEquals(3, options.size());
+        assertEquals(List.of(pair, second, partner), options.get(0).getPairIds());
+        assertEquals("THREE_WAY_CYCLE", options.get(0).getMatchType());
+        assertEquals(2.3, options.get(0).getCompatibilityScore(), 1e-9);
+        assertEquals(List.of(pair, partner), options.get(1).getPairIds());
+        assertEquals(List.of(source, pair, partner), options.get(2).getPairIds());
+        assertEquals("CHAIN", options.get(2).getMatchType());
+        assertEquals(1.7, options.get(2).getCompatibilityScore(), 1e-9);
+    }
+
+    @Test
+    void testResultsAndFingerprintIgnoreInputOrder() {
+        List<UUID> pairs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            pairs.add(UUID.randomUUID());
+        }
+        List<Compatibility> pool = new ArrayList<>();
+        for (UUID donor : pairs) {
+            for (UUID recipient : pairs) {
+                if (!donor.equals(recipient) && (donor.hashCode() ^ recipient.hashCode()) % 3 != 0) {
+                    pool.add(edge(donor, recipient, 0.5));
+                }
+            }
+        }
+        List<Compatibility> shuffled = new ArrayList<>(pool);
+        Collections.shuffle(shuffled, new Random(7));
+
+        assertEquals(algorithmService.fingerprint(pool, List.of(pairs.get(0)), 3, 4),
+                algorithmService.fingerprint(shuffled, List.of(pairs.get(0)), 3, 4));
+        assertNotEquals(algorithmService.fingerprint(pool, List.of(pairs.get(0)), 3, 4),
+                algorithmService.fingerprint(pool, List.of(pairs.get(1)), 3, 4));
+        assertEquals(pairIds(algorithmService.findCycles(pool, 3)), pairIds(algorithmService.findCycles(shuffled, 3)));
+        assertEquals(pairIds(algorithmService.findChains(pool, List.of(pairs.get(0)), 4)),
+                pairIds(algorithmService.findChains(shuffled, List.of(pairs.get(0)), 4)));
+    }
+
+    @Test
+    void testOffHeapGraphGivesSameResultsAsHeapGraph() {
+        useExpectedScoring(0.3);
+        Random random = new Random(11);
+        List<UUID> pairs = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            pairs.add(UUID.randomUUID());
+        }
+        List<Compatibility> pool = new ArrayList<>();
+        for (UUID donor : pairs) {
+            for (UUID recipient : pairs) {
+                if (!donor.equals(recipient) && random.nextInt(3) == 0) {
+                    pool.add(edge(donor, recipient, random.nextDouble(), 0.5 + random.nextDouble() / 2));
+                }
+            }
+        }
+        List<UUID> sources = List.of(pairs.get(0), pairs.get(1));
+
+        List<MatchDto> heapCycles = algorithmService.findCycles(pool, 3);
+        List<MatchDto> heapChains = algorithmService.findChains(pool, sources, 4);
+        ReflectionTestUtils.setField(algorithmService, "offHeapGraph", true);
+        List<MatchDto> offHeapCycles = algorithmService.findCycles(pool, 3);
+        List<MatchDto> offHeapChains = algorithmService.findChains(pool, sources, 4);
+
+        assertFalse(heapCycles.isEmpty());
+        assertFalse(heapChains.isEmpty());
+        assertEquals(pairIds(heapCycles), pairIds(offHeapCycles));
+        assertEquals(scores(heapCycles), scores(offHeapCycles));
+        assertEquals(pairIds(heapChains), pairIds(offHeapChains));
+        assertEquals(scores(heapChains), scores(offHeapChains));
+    }
+
+    @Test
+    void testThreeWayCycleReportedOnceWhenBothDirectionsExist() {
+        List<UUID> pairs = new ArrayList<>(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+        Collections.sort(pairs);
+        UUID a = pairs.get(0), b = pairs.get(1), c = pairs.get(2);
+        List<Compatibility> pool = List.of(edge(a, b, 0.5), edge(b, c, 0.5), edge(c, a, 0.5),
+                edge(a, c, 0.4), edge(c, b, 0.4), edge(b, a, 0.4));
+
+        List<MatchDto> threeWay = algorithmService.findCycles(pool, 3).stream()
+                .filter(cycle -> "THREE_WAY_CYCLE".equals(cycle.getMatchType()))
+                .toList();
+
+        assertEquals(1, threeWay.size());
+        assertEquals(List.of(a, b, c), threeWay.get(0).getPairIds());
+        assertEquals(1.5, threeWay.get(0).getCompatibilityScore(), 1e-9);
+    }
+
+    @Test
+    void testBackToBackRunsReuseWorkspacesWithoutLeakingState() {
+        Random random = new Random(5);
+        List<UUID> pairs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pairs.add(UUID.randomUUID());
+        }
+        List<Compatibility> large = new ArrayList<>();
+        for (UUID donor : pairs) {
+            for (UUID recipient : pairs) {
+                if (!donor.equals(recipient) && random.nextInt(3) == 0) {
+                    large.add(edge(donor, recipient, random.nextDouble()));
+                }
+            }
+        }
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID();
+        List<Compatibility> small = List.of(edge(a, b, 0.5), edge(b, a, 0.5));
+        List<UUID> sources = List.of(pairs.get(0));
+
+        List<MatchDto> cycles = algorithmService.findCycles(large, 3);
+        List<MatchDto> chains = algorithmService.findChains(large, sources, 4);
+        assertEquals(List.of(List.of(a, b).stream().sorted().toList()),
+                pairIds(algorithmService.findCycles(small, 3)));
+        assertEquals(pairIds(cycles), pairIds(algorithmService.findCycles(large, 3)));
+        assertEquals(pairIds(chains), pairIds(algorithmService.findChains(large, sources, 4)));
+        SearchWorkspace.Pool workspaces = (SearchWorkspace.Pool) ReflectionTestUtils.getField(algorithmService,
+                "workspaces");
+        assertEquals(1, workspaces.idle());
+    }
+
+    @Test
+    void testDuplicateCompatibilitiesUseTheEdgeGraphReductionKeeps() {
+        useExpectedScoring(0.0);
+        List<UUID> pairs = new ArrayList<>(List.of(UUID.randomUUID(), UUID.randomUUID()));
+        Collections.sort(pairs);
+        UUID a = pairs.get(0), b = pairs.get(1);
+        Compatibility worse = edge(a, b, 0.2, 0.5);
+        Compatibility better = edge(a, b, 0.9, 1.0);
+        Compatibility back = edge(b, a, 0.5, 1.0);
+
+        for (List<Compatibility> pool : List.of(List.of(worse, better, back), List.of(better, worse, back))) {
+            assertEquals(List.of(better, back), GraphReducer.reduce(pool, List.of(), 2, 2)
+                    .getComponents().get(0).getCompatibilities().stream()
+                    .sorted(Comparator.comparing(Compatibility::getDonorPairId)).toList());
+            assertEquals(1.4, algorithmService.findCycles(pool, 2).get(0).getCompatibilityScore(), 1e-9);
+            assertEquals(0.9, algorithmService.extendChains(pool, List.of(a), b, Set.of(), 2)
+                    .get(0).getCompatibilityScore(), 1e-9);
+            assertEquals(1.4, algorithmService.findRepairCycles(pool, Set.of(a), Set.of(), 2,
+                    System.nanoTime() + TimeUnit.SECONDS.toNanos(5)).get(0).getCompatibilityScore(), 1e-9);
+            assertEquals(1.4, algorithmService.findBestOptions(algorithmService.rankAdjacency(pool), List.of(), a,
+                    pair -> false, 2, 2, 1).get(0).getCompatibilityScore(), 1e-9);
+        }
+    }
+
+    private static List<Double> scores(List<MatchDto> matches) {
+        return matches.stream().map(MatchDto::getCompatibilityScore).toList();
+    }
+
+    private static List<List<UUID>> pairIds(List<MatchDto> matches) {
+        return matches.stream().map(MatchDto::getPairIds).toList();
+    }
+
+    private void useExpectedScoring(double minPathProbability) {
+        ReflectionTestUtils.setField(algorithmService, "scoringMode", "expected");
+        ReflectionTestUtils.setField(algorithmService, "defaultSuccessProbability", 0.8);
+        ReflectionTestUtils.setField(algorithmService, "minPathProbability", minPathProbability);
+    }
+
+    private static Compatibility edge(UUID donorPair, UUID recipientPair, double score, double successProbability) {
+        Compatibility compatibility = edge(donorPair, recipientPair, score);
+        compatibility.setSuccessProbability(successProbability);
+        return compatibility;
+    }
+
+    private static Compatibility edge(UUID donorPair, UUID recipientPair, double score) {
+        Compatibility compatibility = new Compatibility();
+        compatibility.setId(UUID.randomUUID());
+        compatibility.setDonorPairId(donorPair);
+        compatibility.setRecipientPairId(recipientPair);
+        compatibility.setBloodTypeCompatible(true);
+        compatibility.setHlaCompatible(true);
+        compatibility.setCrossmatchCompatible(true);
+        compatibility.setCompatibilityScore(score);
+        return compatibility;
+    }
+}
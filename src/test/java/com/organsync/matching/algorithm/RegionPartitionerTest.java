@@ -0,0 +1,57 @@
+package com.organsync.matching.algorithm;
+
+import com.organsync.matching.repository.CompatibilityRepository.EdgeDistance;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionPartitionerTest {
+
+    private final RegionPartitioner partitioner = new RegionPartitioner();
+
+    @Test
+    void testNearbyPairsShareRegionAndDistantPairsDoNot() {
+        UUID north1 = UUID.randomUUID(), north2 = UUID.randomUUID(), north3 = UUID.randomUUID();
+        UUID south1 = UUID.randomUUID(), south2 = UUID.randomUUID();
+        List<EdgeDistance> edges = new ArrayList<>();
+        edges.add(edge(north1, north2, 20.0));
+        edges.add(edge(north2, north3, 40.0));
+        edges.add(edge(north3, north1, 35.0));
+        edges.add(edge(south1, south2, 15.0));
+        edges.add(edge(south2, south1, 15.0));
+        // Long-haul and unknown-distance edges do not merge the two areas
+        edges.add(edge(north1, south1, 1200.0));
+        edges.add(edge(north2, south2, null));
+
+        Map<UUID, String> regions = partitioner.partition(edges, 300);
+
+        assertEquals(5, regions.size());
+        assertEquals(regions.get(north1), regions.get(north2));
+        assertEquals(regions.get(north1), regions.get(north3));
+        assertEquals(regions.get(south1), regions.get(south2));
+        assertNotEquals(regions.get(north1), regions.get(south1));
+        assertEquals(regions, partitioner.partition(edges, 300));
+    }
+
+    @Test
+    void testShardOfIsStableAndInRange() {
+        String region = UUID.randomUUID().toString();
+        int shard = RegionPartitioner.shardOf(region, 4);
+
+        assertTrue(shard >= 0 && shard < 4);
+        assertEquals(shard, RegionPartitioner.shardOf(region, 4));
+    }
+
+    private static EdgeDistance edge(UUID donor, UUID recipient, Double distanceKm) {
+        return new EdgeDistance() {
+            public UUID getDonorPairId() { return donor; }
+            public UUID getRecipientPairId() { return recipient; }
+            public Double getDistanceKm() { return distanceKm; }
+        };
+    }
+}
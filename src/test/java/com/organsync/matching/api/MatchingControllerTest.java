@@ -2,24 +2,47 @@ package com.organsync.matching.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.dto.MatchFilter;
+import com.organsync.matching.dto.MatchPageDto;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.service.IllegalMatchTransitionException;
+import com.organsync.matching.service.MatchingJob;
+import com.organsync.matching.service.MatchSnapshot;
+import com.organsync.matching.service.MatchSnapshotService;
+import com.organsync.matching.service.MatchingJobService;
 import com.organsync.matching.service.MatchingService;
+import com.organsync.matching.service.PairOptionsService;
+import com.organsync.matching.service.SimulationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -32,9 +55,30 @@ class MatchingControllerTest {
     @MockBean
     private MatchingService matchingService;
 
+    @MockBean
+    private MatchingJobService jobService;
+
+    @MockBean
+    private SimulationService simulationService;
+
+    @MockBean
+    private MatchSnapshotService snapshotService;
+
+    @MockBean
+    private PairOptionsService pairOptionsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @TestConfiguration
+    static class StreamConfig {
+        // Send stream events on the calling thread so responses are complete when the test reads them
+        @Bean(name = "streamExecutor")
+        Executor streamExecutor() {
+            return Runnable::run;
+        }
+    }
+
     @Test
     void testHealthEndpoint() throws Exception {
         mockMvc.perform(get("/api/v1/matching/health"))
@@ -45,15 +89,87 @@ class MatchingControllerTest {
     @Test
     @WithMockUser(authorities = "SCOPE_match.read")
     void testFindAllMatches() throws Exception {
-        List<MatchDto> matches = Arrays.asList(createTestMatchDto());
-        when(matchingService.findAllMatches()).thenReturn(matches);
+        MatchingJob job = new MatchingJob(MatchingJobService.FULL_RUN);
+        job.complete(Arrays.asList(createTestMatchDto()));
+        when(jobService.submitFullRun()).thenReturn(job);
 
-        mockMvc.perform(get("/api/v1/matching/matches"))
+        MvcResult result = mockMvc.perform(get("/api/v1/matching/matches"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].match_type").value("TWO_WAY_CYCLE"));
 
-        verify(matchingService).findAllMatches();
+        verify(jobService).submitFullRun();
+    }
+
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.read")
+    void testGetPairOptions() throws Exception {
+        UUID pairId = UUID.randomUUID();
+        when(pairOptionsService.findBestOptions(pairId, 3)).thenReturn(List.of(createTestMatchDto()));
+
+        mockMvc.perform(get("/api/v1/matching/pairs/{pairId}/options", pairId).param("k", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].match_type").value("TWO_WAY_CYCLE"));
+        mockMvc.perform(get("/api/v1/matching/pairs/{pairId}/options", pairId).param("k", "51"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.write")
+    void testTriggerMatchingReturnsJob() throws Exception {
+        MatchingJob job = new MatchingJob(MatchingJobService.FULL_RUN);
+        when(jobService.submitFullRun()).thenReturn(job);
+
+        mockMvc.perform(post("/api/v1/matching/matches/trigger").with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", endsWith("/matches/jobs/" + job.getId())))
+                .andExpect(jsonPath("$.job_id").value(job.getId().toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.read")
+    void testStreamMatches() throws Exception {
+        MatchingJob job = new MatchingJob(MatchingJobService.STREAMING_RUN);
+        List<MatchDto> matches = Arrays.asList(createTestMatchDto());
+        when(jobService.submitStreamingRun(any())).thenAnswer(invocation -> {
+            MatchingService.ProgressListener listener = invocation.getArgument(0);
+            listener.onProgress("cycles", 50);
+            listener.onMatches("cycles", matches);
+            job.complete(matches);
+            return job;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/matching/matches/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.indexOf("event:stage") < body.indexOf("event:match"));
+        assertTrue(body.indexOf("event:match") < body.indexOf("event:summary"));
+        assertTrue(body.contains("\"match_count\":1"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.read")
+    void testGetMatchingJobResult() throws Exception {
+        MatchingJob running = new MatchingJob(MatchingJobService.FULL_RUN);
+        MatchingJob finished = new MatchingJob(MatchingJobService.FULL_RUN);
+        finished.complete(Arrays.asList(createTestMatchDto()));
+        when(jobService.getJob(running.getId())).thenReturn(Optional.of(running));
+        when(jobService.getJob(finished.getId())).thenReturn(Optional.of(finished));
+
+        mockMvc.perform(get("/api/v1/matching/matches/jobs/{jobId}/result", running.getId()))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(get("/api/v1/matching/matches/jobs/{jobId}/result", finished.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].match_type").value("TWO_WAY_CYCLE"));
+        mockMvc.perform(get("/api/v1/matching/matches/jobs/{jobId}/result", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -63,28 +179,68 @@ class MatchingControllerTest {
         MatchDto match = createTestMatchDto();
         match.setId(matchId);
 
-        when(matchingService.getMatchById(matchId)).thenReturn(Optional.of(match));
+        when(snapshotService.current()).thenReturn(MatchSnapshot.of(7, List.of(match)));
 
         mockMvc.perform(get("/api/v1/matching/matches/{matchId}", matchId))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Match-Epoch", "7"))
                 .andExpect(jsonPath("$.match_type").value("TWO_WAY_CYCLE"))
                 .andExpect(jsonPath("$.id").value(matchId.toString()));
 
-        verify(matchingService).getMatchById(matchId);
+        verify(snapshotService).current();
     }
 
     @Test
     @WithMockUser(authorities = "SCOPE_match.read")
     void testGetMatchByIdNotFound() throws Exception {
         UUID matchId = UUID.randomUUID();
+        when(snapshotService.current()).thenReturn(MatchSnapshot.of(1, List.of()));
         when(matchingService.getMatchById(matchId)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/v1/matching/matches/{matchId}", matchId))
                 .andExpect(status().isNotFound());
 
+        verify(snapshotService).current();
         verify(matchingService).getMatchById(matchId);
     }
 
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.read")
+    void testGetMatchByIdNewerThanSnapshotReadsDatabase() throws Exception {
+        UUID matchId = UUID.randomUUID();
+        MatchDto match = createTestMatchDto();
+        match.setId(matchId);
+        when(snapshotService.current()).thenReturn(MatchSnapshot.of(1, List.of()));
+        when(matchingService.getMatchById(matchId)).thenReturn(Optional.of(match));
+
+        mockMvc.perform(get("/api/v1/matching/matches/{matchId}", matchId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Match-Epoch"))
+                .andExpect(jsonPath("$.id").value(matchId.toString()));
+    }
+
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.read")
+    void testGetMatchByIdAtEpochDoesNotReadDatabase() throws Exception {
+        UUID matchId = UUID.randomUUID();
+        when(snapshotService.atEpoch(1)).thenReturn(Optional.of(MatchSnapshot.of(1, List.of())));
+
+        mockMvc.perform(get("/api/v1/matching/matches/{matchId}", matchId).param("epoch", "1"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string("X-Match-Epoch", "1"));
+
+        verify(matchingService, never()).getMatchById(any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.read")
+    void testGetMatchByIdAtExpiredEpoch() throws Exception {
+        when(snapshotService.atEpoch(3)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/matching/matches/{matchId}", UUID.randomUUID()).param("epoch", "3"))
+                .andExpect(status().isGone());
+    }
+
     @Test
     @WithMockUser(authorities = "SCOPE_match.write")
     void testUpdateMatchStatus() throws Exception {
@@ -93,7 +249,7 @@ class MatchingControllerTest {
         updatedMatch.setId(matchId);
         updatedMatch.setStatus("APPROVED");
 
-        when(matchingService.updateMatchStatus(eq(matchId), eq("APPROVED"))).thenReturn(updatedMatch);
+        when(matchingService.updateMatchStatus(eq(matchId), eq("APPROVED"), isNull())).thenReturn(updatedMatch);
 
         MatchingController.StatusUpdateRequest request = new MatchingController.StatusUpdateRequest();
         request.setStatus("APPROVED");
@@ -104,7 +260,20 @@ class MatchingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("APPROVED"));
 
-        verify(matchingService).updateMatchStatus(matchId, "APPROVED");
+        verify(matchingService).updateMatchStatus(matchId, "APPROVED", null);
+    }
+
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.write")
+    void testUpdateMatchStatusesRejectsIllegalTransition() throws Exception {
+        UUID matchId = UUID.randomUUID();
+        when(matchingService.transitionMatches(eq(List.of(matchId)), eq(MatchStatus.COMPLETED)))
+                .thenThrow(new IllegalMatchTransitionException(matchId, MatchStatus.PENDING, MatchStatus.COMPLETED));
+
+        mockMvc.perform(post("/api/v1/matching/matches/status").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"match_ids\":[\"" + matchId + "\"],\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -128,6 +297,36 @@ class MatchingControllerTest {
         verify(matchingService).getMatchStatistics();
     }
 
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.read")
+    void testSearchMatches() throws Exception {
+        MatchPageDto page = new MatchPageDto(Arrays.asList(createTestMatchDto()), "next-page", 1);
+        when(matchingService.findMatches(any(MatchFilter.class), isNull(), eq(25))).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/matching/matches/search")
+                        .param("hospitalId", "HOSPITAL_001")
+                        .param("status", "PENDING")
+                        .param("minScore", "0.5")
+                        .param("size", "25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].hospital_id").value("HOSPITAL_001"))
+                .andExpect(jsonPath("$.next_cursor").value("next-page"));
+
+        verify(matchingService).findMatches(argThat(filter ->
+                "HOSPITAL_001".equals(filter.getHospitalId()) && "PENDING".equals(filter.getStatus())
+                        && filter.getMinScore() == 0.5), isNull(), eq(25));
+    }
+
+    @Test
+    @WithMockUser(authorities = "SCOPE_match.read")
+    void testSearchMatchesInvalidCursor() throws Exception {
+        when(matchingService.findMatches(any(MatchFilter.class), eq("bogus"), eq(50)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        mockMvc.perform(get("/api/v1/matching/matches/search").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
     private MatchDto createTestMatchDto() {
         MatchDto match = new MatchDto();
         match.setId(UUID.randomUUID());
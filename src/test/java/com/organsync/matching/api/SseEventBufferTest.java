@@ -0,0 +1,129 @@
+package com.organsync.matching.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SseEventBufferTest {
+
+    @Mock
+    private SseEmitter emitter;
+
+    // Drain tasks only run when the test says so, like a sender thread stuck on a stalled client
+    private final Queue<Runnable> sender = new ArrayDeque<>();
+
+    private final ExecutorService senderThread = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        senderThread.shutdownNow();
+    }
+
+    @Test
+    void testEventsAreSentInOrderThenCompleted() throws Exception {
+        SseEventBuffer events = new SseEventBuffer(emitter, 3, 1000, sender::add);
+        SseEmitter.SseEventBuilder first = SseEmitter.event().name("stage");
+        SseEmitter.SseEventBuilder second = SseEmitter.event().name("match");
+        events.send(first);
+        events.send(second);
+        events.complete(SseEmitter.event().name("summary"));
+        runSender();
+
+        verify(emitter).send(first);
+        verify(emitter).send(second);
+        verify(emitter, times(3)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).complete();
+    }
+
+    @Test
+    void testBatchLargerThanTheBufferWaitsForADrainingClient() throws Exception {
+        List<SseEmitter.SseEventBuilder> sent = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            Thread.sleep(1);
+            sent.add(invocation.getArgument(0));
+            return null;
+        }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        CountDownLatch completed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            completed.countDown();
+            return null;
+        }).when(emitter).complete();
+        SseEventBuffer events = new SseEventBuffer(emitter, 3, 5000, senderThread);
+
+        List<SseEmitter.SseEventBuilder> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name("match").id(String.valueOf(i));
+            batch.add(event);
+            events.send(event);
+        }
+        events.complete(SseEmitter.event().name("summary"));
+
+        // Wait on a latch: verifying with a timeout holds the emitter's lock that complete() needs
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(51, sent.size());
+        assertEquals(batch, sent.subList(0, 50));
+    }
+
+    @Test
+    void testStalledClientEndsTheStream() throws Exception {
+        SseEventBuffer events = new SseEventBuffer(emitter, 3, 50, sender::add);
+        events.send(SseEmitter.event().name("match"));
+        events.send(SseEmitter.event().name("match"));
+        events.send(SseEmitter.event().name("match"));
+
+        assertThrows(UncheckedIOException.class, () -> events.send(SseEmitter.event().name("match")));
+        runSender();
+
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).complete();
+        // Later events, including the final one, are dropped
+        assertThrows(UncheckedIOException.class, () -> events.send(SseEmitter.event().name("match")));
+        events.complete(SseEmitter.event().name("summary"));
+        runSender();
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void testClientGoingAwayFailsTheNextSend() throws Exception {
+        SseEventBuffer events = new SseEventBuffer(emitter, 3, 1000, sender::add);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        events.send(SseEmitter.event().name("stage"));
+        runSender();
+
+        assertThrows(UncheckedIOException.class, () -> events.send(SseEmitter.event().name("match")));
+        assertTrue(sender.isEmpty());
+    }
+
+    private void runSender() {
+        Runnable task;
+        while ((task = sender.poll()) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.organsync.matching.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.organsync.matching.entity.Compatibility;
+import com.organsync.matching.repository.CompatibilityRepository;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load harness for the donor.registered -> match.found path.
+ *
+ * Drives {@code DonorRegistrationEventListener} through an embedded KRaft broker at a fixed
+ * open-loop arrival rate and records, per registered pair, the time until the pair first shows
+ * up in a published match. Consumer lag of the matching group is sampled throughout the run.
+ * Results are written as JSON (plus an HdrHistogram .hgrm percentile file) for sizing partitions
+ * and pods.
+ *
+ * Excluded from the default build; run with {@code mvn test -Pload-test}. Tunables are system
+ * properties, e.g. {@code -Dload.rate=50 -Dload.duration-seconds=120 -Dload.partitions=6}.
+ *
+ * Pairs arrive in reciprocal couples so every new pair has at least one two-way exchange open to
+ * it, and the measured latency is the pipeline's rather than the wait for a compatible partner.
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.organsync.matching=WARN",
+        "logging.level.org.apache.kafka=WARN",
+        "logging.level.org.springframework.kafka=WARN"
+})
+class RegistrationLoadHarnessTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationLoadHarnessTest.class);
+
+    private static final String REGISTRATION_TOPIC = "donor.registered";
+    private static final String MATCH_FOUND_TOPIC = "match.found";
+    private static final String MATCHING_GROUP = "matching-service-group";
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "5"));
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 30);
+    private static final int INITIAL_POOL = Integer.getInteger("load.initial-pool", 20);
+    private static final int POOL_GROWTH = Integer.getInteger("load.pool-growth", 3);
+    private static final int PARTITIONS = Integer.getInteger("load.partitions", 3);
+    private static final long LAG_SAMPLE_MILLIS = Long.getLong("load.lag-sample-millis", 250L);
+    private static final int DRAIN_SECONDS = Integer.getInteger("load.drain-seconds", 60);
+    private static final String REPORT = System.getProperty("load.report",
+            "target/load-test/registration-load-report.json");
+
+    private static EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private CompatibilityRepository compatibilityRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random = new Random(42);
+    private final List<UUID> pool = new ArrayList<>();
+
+    // Intended send time (nanos) of every pair not yet seen in a published match
+    private final Map<UUID, Long> pendingPairs = new ConcurrentHashMap<>();
+    private final Histogram latencyMicros = new Histogram(TimeUnit.MINUTES.toMicros(10), 3);
+    // Latencies above the histogram's ceiling, recorded at the ceiling
+    private final AtomicLong latenciesAboveCeiling = new AtomicLong();
+    private final AtomicLong matchEvents = new AtomicLong();
+
+    @DynamicPropertySource
+    static void kafkaProperties(DynamicPropertyRegistry registry) {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS,
+                REGISTRATION_TOPIC, "donor.updated", "donor.deleted", MATCH_FOUND_TOPIC, "match.status.updated");
+        broker.afterPropertiesSet();
+        registry.add("spring.kafka.bootstrap-servers", broker::getBrokersAsString);
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        if (broker != null) {
+            broker.destroy();
+        }
+    }
+
+    @Test
+    void registrationToMatchFoundUnderLoad() throws Exception {
+        seedInitialPool();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread matchConsumer = new Thread(() -> consumeMatches(running), "load-match-consumer");
+        matchConsumer.start();
+
+        List<long[]> lagSamples = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong sent = new AtomicLong();
+        long startNanos = System.nanoTime();
+
+        try (AdminClient admin = AdminClient.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> lagSamples.add(new long[]{
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    consumerLag(admin), sent.get(), matchEvents.get(), pendingPairs.size()
+            }), 0, LAG_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+            // Open-loop schedule: latency is measured from the intended arrival time, so a stalled
+            // pipeline cannot hide its own queueing delay (coordinated omission)
+            long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * 2 / RATE);
+            long endNanos = startNanos + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+            for (long intended = startNanos; intended < endNanos; intended += intervalNanos) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                registerCouple(intended);
+                sent.addAndGet(2);
+            }
+            long sendEndNanos = System.nanoTime();
+
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_SECONDS);
+            while (System.nanoTime() < drainDeadline && consumerLag(admin) > 0) {
+                Thread.sleep(LAG_SAMPLE_MILLIS);
+            }
+            long drainedNanos = System.nanoTime();
+
+            sampler.shutdownNow();
+            running.set(false);
+            matchConsumer.join(TimeUnit.SECONDS.toMillis(10));
+
+            writeReport(sent.get(), sendEndNanos - startNanos, drainedNanos - startNanos, lagSamples);
+        }
+
+        assertTrue(sent.get() > 0, "No registration events were sent");
+        assertTrue(latencyMicros.getTotalCount() > 0, "No registered pair reached a published match");
+        assertTrue(Files.exists(Paths.get(REPORT)));
+    }
+
+    /**
+     * Seed the pool with reciprocal couples so the first registrations have partners
+     */
+    private void seedInitialPool() {
+        List<Compatibility> edges = new ArrayList<>();
+        for (int i = 0; i < INITIAL_POOL / 2; i++) {
+            UUID a = UUID.randomUUID();
+            UUID b = UUID.randomUUID();
+            edges.add(edge(a, b));
+            edges.add(edge(b, a));
+            pool.add(a);
+            pool.add(b);
+        }
+        compatibilityRepository.saveAll(edges);
+    }
+
+    /**
+     * Store the compatibility edges of a new reciprocal couple, then publish both registrations
+     */
+    private void registerCouple(long intendedNanos) {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+
+        List<Compatibility> edges = new ArrayList<>();
+        edges.add(edge(a, b));
+        edges.add(edge(b, a));
+        for (UUID newPair : List.of(a, b)) {
+            for (int i = 0; i < POOL_GROWTH && !pool.isEmpty(); i++) {
+                UUID existing = pool.get(random.nextInt(pool.size()));
+                edges.add(random.nextBoolean() ? edge(newPair, existing) : edge(existing, newPair));
+            }
+        }
+        compatibilityRepository.saveAll(edges);
+        pool.add(a);
+        pool.add(b);
+
+        pendingPairs.put(a, intendedNanos);
+        pendingPairs.put(b, intendedNanos);
+        kafkaTemplate.send(REGISTRATION_TOPIC, a.toString(), a.toString());
+        kafkaTemplate.send(REGISTRATION_TOPIC, b.toString(), b.toString());
+    }
+
+    private Compatibility edge(UUID donorPairId, UUID recipientPairId) {
+        return new Compatibility(donorPairId, recipientPairId, true, true, true,
+                0.5 + random.nextDouble() / 2);
+    }
+
+    /**
+     * Record registration-to-publication latency the first time each pending pair is matched
+     */
+    private void consumeMatches(AtomicBoolean running) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "load-harness");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props)) {
+            consumer.subscribe(List.of(MATCH_FOUND_TOPIC));
+            while (running.get()) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(100))) {
+                    long now = System.nanoTime();
+                    matchEvents.incrementAndGet();
+                    try {
+                        for (JsonNode pairId : objectMapper.readTree(record.value()).path("pair_ids")) {
+                            Long intended = pendingPairs.remove(UUID.fromString(pairId.asText()));
+                            if (intended != null) {
+                                recordLatency(Math.max(0, TimeUnit.NANOSECONDS.toMicros(now - intended)));
+                            }
+                        }
+                    } catch (Exception e) {
+                        logger.warn("Unreadable match.found payload at offset {}", record.offset(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void recordLatency(long micros) {
+        long ceiling = latencyMicros.getHighestTrackableValue();
+        if (micros > ceiling) {
+            latenciesAboveCeiling.incrementAndGet();
+        }
+        latencyMicros.recordValue(Math.min(micros, ceiling));
+    }
+
+    /**
+     * Sum over partitions of log end offset minus the matching group's committed offset
+     */
+    private long consumerLag(AdminClient admin) {
+        try {
+            Map<TopicPartition, OffsetAndMetadata> committed = admin
+                    .listConsumerGroupOffsets(MATCHING_GROUP)
+                    .partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            for (int p = 0; p < PARTITIONS; p++) {
+                latest.put(new TopicPartition(REGISTRATION_TOPIC, p), OffsetSpec.latest());
+            }
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends =
+                    admin.listOffsets(latest).all().get(5, TimeUnit.SECONDS);
+
+            long lag = 0;
+            for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end : ends.entrySet()) {
+                OffsetAndMetadata offset = committed.get(end.getKey());
+                lag += end.getValue().offset() - (offset != null ? offset.offset() : 0);
+            }
+            return lag;
+        } catch (Exception e) {
+            logger.warn("Failed to sample consumer lag", e);
+            return -1;
+        }
+    }
+
+    private void writeReport(long sent, long sendNanos, long drainedNanos, List<long[]> lagSamples) throws Exception {
+        Path reportPath = Paths.get(REPORT);
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("generatedAt", Instant.now().toString());
+
+        ObjectNode config = report.putObject("config");
+        config.put("arrivalRatePerSecond", RATE);
+        config.put("durationSeconds", DURATION_SECONDS);
+        config.put("initialPool", INITIAL_POOL);
+        config.put("poolGrowthEdgesPerPair", POOL_GROWTH);
+        config.put("partitions", PARTITIONS);
+
+        ObjectNode throughput = report.putObject("throughput");
+        throughput.put("eventsSent", sent);
+        throughput.put("offeredEventsPerSecond", sent / (sendNanos / 1e9));
+        throughput.put("sustainedEventsPerSecond", sent / (drainedNanos / 1e9));
+        throughput.put("matchFoundEvents", matchEvents.get());
+        throughput.put("finalPoolSize", pool.size());
+        throughput.put("pairsNeverMatched", pendingPairs.size());
+
+        ObjectNode latency = report.putObject("registrationToMatchFoundMillis");
+        latency.put("count", latencyMicros.getTotalCount());
+        latency.put("countAboveCeiling", latenciesAboveCeiling.get());
+        latency.put("ceiling", latencyMicros.getHighestTrackableValue() / 1000.0);
+        if (latencyMicros.getTotalCount() > 0) {
+            latency.put("min", latencyMicros.getMinValue() / 1000.0);
+            latency.put("mean", latencyMicros.getMean() / 1000.0);
+            for (double percentile : new double[]{50, 90, 99, 99.9}) {
+                latency.put("p" + percentile, latencyMicros.getValueAtPercentile(percentile) / 1000.0);
+            }
+            latency.put("max", latencyMicros.getMaxValue() / 1000.0);
+        }
+        ByteBuffer encoded = ByteBuffer.allocate(latencyMicros.getNeededByteBufferCapacity());
+        int length = latencyMicros.encodeIntoCompressedByteBuffer(encoded);
+        latency.put("hdrHistogramMicrosBase64", Base64.getEncoder().encodeToString(Arrays.copyOf(encoded.array(), length)));
+
+        ArrayNode lag = report.putArray("consumerLag");
+        synchronized (lagSamples) {
+            for (long[] sample : lagSamples) {
+                ObjectNode point = lag.addObject();
+                point.put("elapsedMillis", sample[0]);
+                point.put("lag", sample[1]);
+                point.put("eventsSent", sample[2]);
+                point.put("matchFoundEvents", sample[3]);
+                point.put("pairsAwaitingMatch", sample[4]);
+            }
+        }
+
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), report);
+
+        Path hgrm = Paths.get(REPORT.replaceAll("\\.json$", "") + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm))) {
+            latencyMicros.outputPercentileDistribution(out, 1000.0);
+        }
+
+        logger.info("Load report written to {}: {}", reportPath.toAbsolutePath(),
+                latency.fields().hasNext() ? latency.toString() : "no latencies");
+    }
+}
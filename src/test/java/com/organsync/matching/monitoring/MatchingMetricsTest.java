@@ -0,0 +1,93 @@
+package com.organsync.matching.monitoring;
+
+import com.organsync.matching.monitoring.MatchingMetrics.MatchingRun;
+import com.organsync.matching.monitoring.MatchingMetrics.Stage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private MatchingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MatchingMetrics(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void testStageTimerIsTaggedByStage() {
+        assertEquals(42, metrics.recordStage(Stage.BLOSSOM, () -> 42));
+        metrics.recordStage(Stage.PERSISTENCE, () -> { });
+
+        assertEquals(1, registry.get("organsync.matching.stage").tag("stage", "blossom").timer().count());
+        assertEquals(1, registry.get("organsync.matching.stage").tag("stage", "persistence").timer().count());
+        assertEquals(0, registry.get("organsync.matching.stage").tag("stage", "cycles").timer().count());
+        assertEquals(Stage.values().length, registry.find("organsync.matching.stage").timers().size());
+    }
+
+    @Test
+    void testStageIsTimedWhenItFails() {
+        assertThrows(IllegalStateException.class, () -> metrics.recordStage(Stage.CHAINS, () -> {
+            throw new IllegalStateException("chain search failed");
+        }));
+
+        assertEquals(1, registry.get("organsync.matching.stage").tag("stage", "chains").timer().count());
+    }
+
+    @Test
+    void testCountersAndGauges() {
+        metrics.updatePoolSize(12, 30);
+        metrics.recordReduction(Map.of("no_cycle_or_chain", 7L), 23, 2);
+        metrics.candidatesEnumerated("cycles", 5);
+        metrics.candidatesPruned("cycles", 3);
+
+        assertEquals(12.0, registry.get("organsync.matching.pool.vertices").gauge().value());
+        assertEquals(30.0, registry.get("organsync.matching.pool.edges").gauge().value());
+        assertEquals(23.0, registry.get("organsync.matching.reduction.edges").gauge().value());
+        assertEquals(2.0, registry.get("organsync.matching.reduction.components").gauge().value());
+
+        Counter removed = registry.get("organsync.matching.reduction.removed").tag("reason", "no_cycle_or_chain").counter();
+        assertEquals(7.0, removed.count());
+        assertEquals(5.0, registry.get("organsync.matching.candidates.enumerated").tag("algorithm", "cycles")
+                .counter().count());
+        assertEquals(3.0, registry.get("organsync.matching.candidates.pruned").tag("algorithm", "cycles")
+                .counter().count());
+    }
+
+    @Test
+    void testRunIdIsSharedByNestedRunsAndClearedOnClose() {
+        String runId;
+        try (MatchingRun run = metrics.startRun("pair_registration")) {
+            runId = run.getRunId();
+            assertEquals(runId, MDC.get(MatchingMetrics.RUN_ID_MDC_KEY));
+
+            try (MatchingRun nested = metrics.startRun("rematch")) {
+                assertEquals(runId, nested.getRunId());
+            }
+            // Closing the nested run leaves the enclosing run's ID in place
+            assertEquals(runId, MDC.get(MatchingMetrics.RUN_ID_MDC_KEY));
+        }
+
+        assertNull(MDC.get(MatchingMetrics.RUN_ID_MDC_KEY));
+        Timer runTimer = registry.get("organsync.matching.run").tag("operation", "pair_registration").timer();
+        assertEquals(1, runTimer.count());
+        // Only the run that owns the ID is timed
+        assertNull(registry.find("organsync.matching.run").tag("operation", "rematch").timer());
+    }
+}
@@ -0,0 +1,96 @@
+package com.organsync.matching.monitoring.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingEndpointTest {
+
+    private FlightRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new FlightRecordingEndpoint();
+        ReflectionTestUtils.setField(endpoint, "maxDurationSeconds", 60L);
+        ReflectionTestUtils.setField(endpoint, "maxSizeMb", 10L);
+        ReflectionTestUtils.setField(endpoint, "settings", "default");
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    void testRecordingCapturesMatchingEvents() throws Exception {
+        Map<String, Object> started = endpoint.start(3600L, null);
+        assertEquals("RUNNING", started.get("state"));
+        assertEquals(60L, started.get("maxDurationSeconds"));
+
+        GraphBuildEvent event = new GraphBuildEvent();
+        event.begin();
+        assertTrue(event.complete());
+        event.poolSize = 4;
+        event.edgeCount = 6;
+        event.resultCount = 6;
+        event.commit();
+
+        Map<String, Object> stopped = endpoint.stop();
+        assertEquals("CLOSED", stopped.get("state"));
+
+        Resource resource = endpoint.download((Long) stopped.get("recordingId"));
+        assertNotNull(resource);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(resource.getFile().toPath());
+        RecordedEvent recorded = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.organsync.matching.GraphBuild"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(4, recorded.getInt("poolSize"));
+        assertEquals(6, recorded.getInt("edgeCount"));
+    }
+
+    @Test
+    void testOnlyOneRecordingAtATime() throws Exception {
+        endpoint.start(null, null);
+        assertThrows(IllegalStateException.class, () -> endpoint.start(null, null));
+    }
+
+    @Test
+    void testSnapshotOfRunningRecordingIsDeletedAfterStreaming() throws Exception {
+        Map<String, Object> started = endpoint.start(null, null);
+
+        Resource snapshot = endpoint.download((Long) started.get("recordingId"));
+        Path file = snapshot.getFile().toPath();
+        assertTrue(Files.exists(file));
+        try (InputStream in = snapshot.getInputStream()) {
+            assertTrue(in.readAllBytes().length > 0);
+        }
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testNonPositiveDurationIsRejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start(0L, null));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start(-5L, null));
+        assertEquals("NONE", endpoint.status().get("state"));
+    }
+
+    @Test
+    void testDownloadUnknownRecording() throws Exception {
+        assertNull(endpoint.download(-1L));
+    }
+}
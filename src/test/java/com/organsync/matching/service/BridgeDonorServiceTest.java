@@ -0,0 +1,74 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.BridgeDonor;
+import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.MatchType;
+import com.organsync.matching.repository.BridgeDonorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BridgeDonorServiceTest {
+
+    @Mock
+    private BridgeDonorRepository bridgeDonorRepository;
+
+    @InjectMocks
+    private BridgeDonorService bridgeDonorService;
+
+    @Test
+    void testCompletedChainRetiresSourceAndPromotesTail() {
+        UUID source = UUID.randomUUID(), middle = UUID.randomUUID(), tail = UUID.randomUUID();
+        Match chain = chain(source, middle, tail);
+        BridgeDonor donor = new BridgeDonor(source, BridgeDonor.Kind.ALTRUISTIC, null);
+        when(bridgeDonorRepository.findById(source)).thenReturn(Optional.of(donor));
+
+        bridgeDonorService.recordChainCreated(chain);
+        assertEquals(BridgeDonor.Status.RESERVED, donor.getStatus());
+
+        chain.setStatus(MatchStatus.COMPLETED);
+        bridgeDonorService.recordChainStatusChange(chain);
+
+        assertEquals(BridgeDonor.Status.RETIRED, donor.getStatus());
+        verify(bridgeDonorRepository).save(argThat(bridge -> bridge.getPairId().equals(tail)
+                && bridge.getKind() == BridgeDonor.Kind.BRIDGE
+                && bridge.getStatus() == BridgeDonor.Status.AVAILABLE
+                && chain.getId().equals(bridge.getChainMatchId())));
+    }
+
+    @Test
+    void testFailedChainReleasesSource() {
+        UUID source = UUID.randomUUID(), tail = UUID.randomUUID();
+        Match chain = chain(source, tail);
+        BridgeDonor donor = new BridgeDonor(source, BridgeDonor.Kind.BRIDGE, null);
+        donor.setStatus(BridgeDonor.Status.RESERVED);
+        donor.setChainMatchId(chain.getId());
+        when(bridgeDonorRepository.findById(source)).thenReturn(Optional.of(donor));
+
+        chain.setStatus(MatchStatus.REJECTED);
+        bridgeDonorService.recordChainStatusChange(chain);
+
+        assertEquals(BridgeDonor.Status.AVAILABLE, donor.getStatus());
+        assertNull(donor.getChainMatchId());
+        verify(bridgeDonorRepository, never()).save(any());
+    }
+
+    private static Match chain(UUID... pairIds) {
+        Match match = new Match(MatchType.CHAIN, MatchStatus.PENDING, List.of(pairIds), 1.0, "HOSPITAL_001");
+        match.setId(UUID.randomUUID());
+        return match;
+    }
+}
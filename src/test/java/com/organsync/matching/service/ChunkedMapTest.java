@@ -0,0 +1,56 @@
+package com.organsync.matching.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedMapTest {
+
+    @Test
+    void testUpdatesLeaveTheOriginalUnchanged() {
+        Map<Integer, String> entries = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put(i, "v" + i);
+        }
+        ChunkedMap<Integer, String> original = ChunkedMap.of(entries);
+
+        Map<Integer, String> updates = new HashMap<>();
+        updates.put(1, "changed");
+        updates.put(2, null);
+        updates.put(5000, "added");
+        updates.put(6000, null);
+        ChunkedMap<Integer, String> next = original.with(updates);
+
+        assertEquals(1000, next.size());
+        assertEquals("changed", next.get(1));
+        assertNull(next.get(2));
+        assertEquals("added", next.get(5000));
+        assertEquals("v3", next.get(3));
+        assertEquals("none", next.getOrDefault(6000, "none"));
+
+        assertEquals(1000, original.size());
+        assertEquals("v1", original.get(1));
+        assertEquals("v2", original.get(2));
+        assertNull(original.get(5000));
+    }
+
+    @Test
+    void testValuesCoverEveryChunk() {
+        Map<Integer, String> entries = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            entries.put(i, "v" + i);
+        }
+        ChunkedMap<Integer, String> map = ChunkedMap.of(entries).with(Map.of(0, "first"));
+
+        Set<String> values = new HashSet<>(map.values());
+        assertEquals(300, map.values().size());
+        assertEquals(300, values.size());
+        assertTrue(values.contains("first"));
+        assertFalse(values.contains("v0"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.entity.HospitalMatchView;
+import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.MatchType;
+import com.organsync.matching.repository.HospitalMatchViewRepository;
+import com.organsync.matching.repository.MatchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HospitalMatchViewServiceTest {
+
+    @Mock
+    private HospitalMatchViewRepository viewRepository;
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @InjectMocks
+    private HospitalMatchViewService viewService;
+
+    @Test
+    void testRowRoundTripsToDto() {
+        Match match = match();
+
+        MatchDto dto = HospitalMatchViewService.toDto(HospitalMatchViewService.toRow(match));
+
+        assertEquals(match.getId(), dto.getId());
+        assertEquals("THREE_WAY_CYCLE", dto.getMatchType());
+        assertEquals("PENDING", dto.getStatus());
+        assertEquals(match.getPairIds(), dto.getPairIds());
+        assertEquals("HOSPITAL_001", dto.getHospitalId());
+        assertEquals(match.getCreatedAt(), dto.getCreatedAt());
+    }
+
+    @Test
+    void testStatusChangeAddsRowMissingFromView() {
+        Match match = match();
+        match.setStatus(MatchStatus.CONFIRMED);
+        when(viewRepository.updateStatus(eq(match.getId()), eq("CONFIRMED"), any(), any())).thenReturn(0);
+
+        viewService.recordStatusChange(match);
+
+        verify(viewRepository).save(argThat((HospitalMatchView row) ->
+                row.getMatchId().equals(match.getId()) && "CONFIRMED".equals(row.getStatus())));
+    }
+
+    private static Match match() {
+        Match match = new Match();
+        match.setId(UUID.randomUUID());
+        match.setMatchType(MatchType.THREE_WAY_CYCLE);
+        match.setStatus(MatchStatus.PENDING);
+        match.setPairIds(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+        match.setHospitalId("HOSPITAL_001");
+        match.setCreatedAt(LocalDateTime.now());
+        return match;
+    }
+}
@@ -0,0 +1,107 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.MatchingLease;
+import com.organsync.matching.repository.MatchingLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderElectionServiceTest {
+
+    @Mock
+    private MatchingLeaseRepository leaseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private LeaderElectionService leaderElection;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(leaderElection, "enabled", true);
+        ReflectionTestUtils.setField(leaderElection, "leaseSeconds", 30L);
+        ReflectionTestUtils.setField(leaderElection, "instanceId", "replica-a");
+        leaderElection.init();
+        at(0);
+    }
+
+    @Test
+    void testFirstReplicaCreatesLeaseAndLeads() {
+        when(leaseRepository.acquireOrRenew(eq(LeaderElectionService.LEASE_NAME), eq("replica-a"), any(), any()))
+                .thenReturn(0);
+        when(leaseRepository.existsById(LeaderElectionService.LEASE_NAME)).thenReturn(false);
+
+        leaderElection.heartbeat();
+
+        assertTrue(leaderElection.isLeader());
+        verify(leaseRepository).saveAndFlush(any(MatchingLease.class));
+    }
+
+    @Test
+    void testLeadershipLapsesWhenRenewalStops() {
+        when(leaseRepository.acquireOrRenew(any(), any(), any(), any())).thenReturn(1);
+        leaderElection.heartbeat();
+        assertTrue(leaderElection.isLeader());
+
+        // Renewal keeps failing; the replica steps down once its own lease view expires
+        when(leaseRepository.acquireOrRenew(any(), any(), any(), any())).thenThrow(new IllegalStateException("db down"));
+        at(20_000);
+        leaderElection.heartbeat();
+        assertTrue(leaderElection.isLeader());
+        at(30_000);
+        assertFalse(leaderElection.isLeader());
+    }
+
+    @Test
+    void testFollowerDoesNotLeadWhileLeaseHeldElsewhere() {
+        when(leaseRepository.acquireOrRenew(any(), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(LeaderElectionService.LEASE_NAME)).thenReturn(true);
+
+        leaderElection.heartbeat();
+
+        assertFalse(leaderElection.isLeader());
+        verify(leaseRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testFenceFailsOnceAnotherReplicaTookTheLeaseOver() {
+        when(leaseRepository.acquireOrRenew(any(), any(), any(), any())).thenReturn(1);
+        leaderElection.heartbeat();
+        when(leaseRepository.findForUpdate(LeaderElectionService.LEASE_NAME)).thenReturn(Optional.of(
+                new MatchingLease(LeaderElectionService.LEASE_NAME, "replica-a", Instant.EPOCH, Instant.ofEpochSecond(30))));
+        leaderElection.fenceWrites();
+
+        // Paused past its lease, the replica still believes it leads until the fence reads the row
+        when(leaseRepository.findForUpdate(LeaderElectionService.LEASE_NAME)).thenReturn(Optional.of(
+                new MatchingLease(LeaderElectionService.LEASE_NAME, "replica-b", Instant.EPOCH, Instant.ofEpochSecond(60))));
+        assertTrue(leaderElection.isLeader());
+        assertThrows(LeadershipLostException.class, () -> leaderElection.fenceWrites());
+        assertFalse(leaderElection.isLeader());
+    }
+
+    private void at(long millis) {
+        ReflectionTestUtils.setField(leaderElection, "clock", Clock.fixed(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,51 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.MatchDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchSnapshotTest {
+
+    @Test
+    void testChangesPublishNewEpochWithoutTouchingPrevious() {
+        UUID pairA = UUID.randomUUID(), pairB = UUID.randomUUID(), pairC = UUID.randomUUID();
+        MatchDto older = match("HOSPITAL_001", LocalDateTime.now().minusHours(1), pairA, pairB);
+        MatchDto newer = match("HOSPITAL_001", LocalDateTime.now(), pairB, pairC);
+        MatchSnapshot first = MatchSnapshot.of(1, List.of(older, newer));
+
+        assertEquals(List.of(newer, older), first.getMatchesByHospital("HOSPITAL_001"));
+        assertEquals(2, first.getMatchesByPair(pairB).size());
+
+        // Reassign the newer match to another hospital and drop pair C from it
+        MatchDto moved = match("HOSPITAL_002", newer.getCreatedAt(), pairB);
+        moved.setId(newer.getId());
+        MatchSnapshot second = first.withChanges(2, List.of(moved));
+
+        assertEquals(2, second.getEpoch());
+        assertEquals(List.of(older), second.getMatchesByHospital("HOSPITAL_001"));
+        assertEquals(List.of(moved), second.getMatchesByHospital("HOSPITAL_002"));
+        assertTrue(second.getMatchesByPair(pairC).isEmpty());
+        assertSame(moved, second.getMatch(newer.getId()).orElseThrow());
+
+        // The earlier epoch still answers as it did
+        assertSame(newer, first.getMatch(newer.getId()).orElseThrow());
+        assertEquals(List.of(newer, older), first.getMatchesByHospital("HOSPITAL_001"));
+        assertEquals(List.of(newer), first.getMatchesByPair(pairC));
+    }
+
+    private static MatchDto match(String hospitalId, LocalDateTime createdAt, UUID... pairIds) {
+        MatchDto match = new MatchDto();
+        match.setId(UUID.randomUUID());
+        match.setMatchType("TWO_WAY_CYCLE");
+        match.setStatus("PENDING");
+        match.setHospitalId(hospitalId);
+        match.setCreatedAt(createdAt);
+        match.setPairIds(List.of(pairIds));
+        return match;
+    }
+}
@@ -0,0 +1,146 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.MatchType;
+import com.organsync.matching.repository.MatchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatchStatisticsServiceTest {
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private LeaderElectionService leaderElection;
+
+    @InjectMocks
+    private MatchStatisticsService statisticsService;
+
+    @Test
+    void testStatisticsLoadedFromSingleAggregate() {
+        when(matchRepository.aggregateStatistics()).thenReturn(List.of(
+                row(MatchStatus.PENDING, MatchType.TWO_WAY_CYCLE, "HOSPITAL_001", 30L, 24.0, 30L),
+                row(MatchStatus.COMPLETED, MatchType.TWO_WAY_CYCLE, "HOSPITAL_001", 20L, 16.0, 20L),
+                row(MatchStatus.COMPLETED, MatchType.CHAIN, null, 30L, 20.0, 30L)));
+
+        MatchingService.MatchStatistics stats = statisticsService.getStatistics();
+        statisticsService.getStatistics();
+
+        assertEquals(80L, stats.getTotalMatches());
+        assertEquals(30L, stats.getPendingMatches());
+        assertEquals(50L, stats.getCompletedMatches());
+        assertEquals(0.72, stats.getAverageCompatibilityScore(), 1e-9);
+        assertEquals(50L, stats.getMatchesByType().get("TWO_WAY_CYCLE"));
+        assertEquals(30L, stats.getMatchesByType().get("CHAIN"));
+        assertEquals(50L, stats.getMatchesByHospital().get("HOSPITAL_001"));
+        assertEquals(30L, stats.getMatchesByHospital().get(MatchStatisticsService.UNASSIGNED_HOSPITAL));
+        verify(matchRepository, times(1)).aggregateStatistics();
+        verifyNoMoreInteractions(matchRepository);
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        when(matchRepository.aggregateStatistics()).thenReturn(List.of());
+        statisticsService.getStatistics();
+
+        Match match = match(MatchStatus.PENDING, 0.8);
+        statisticsService.recordCreated(match);
+        match.setStatus(MatchStatus.COMPLETED);
+        statisticsService.recordStatusChange(match, MatchStatus.PENDING);
+
+        MatchingService.MatchStatistics stats = statisticsService.getStatistics();
+        assertEquals(1L, stats.getTotalMatches());
+        assertEquals(0L, stats.getPendingMatches());
+        assertEquals(1L, stats.getCompletedMatches());
+        assertEquals(0.8, stats.getAverageCompatibilityScore(), 1e-9);
+        assertFalse(stats.getMatchesByStatus().containsKey("PENDING"));
+    }
+
+    @Test
+    void testReconcileCorrectsDrift() {
+        when(matchRepository.aggregateStatistics())
+                .thenReturn(List.of())
+                .thenReturn(List.of(row(MatchStatus.PENDING, MatchType.CHAIN, "HOSPITAL_002", 5L, null, 0L)));
+        statisticsService.getStatistics();
+
+        statisticsService.recordCreated(match(MatchStatus.PENDING, 0.9));
+        assertEquals(1L, statisticsService.getStatistics().getTotalMatches());
+
+        statisticsService.reconcile();
+
+        MatchingService.MatchStatistics stats = statisticsService.getStatistics();
+        assertEquals(5L, stats.getTotalMatches());
+        assertNull(stats.getAverageCompatibilityScore());
+    }
+
+    @Test
+    void testChangeCommittedDuringReconcileIsKept() {
+        when(matchRepository.aggregateStatistics()).thenReturn(List.of(
+                row(MatchStatus.PENDING, MatchType.TWO_WAY_CYCLE, "HOSPITAL_001", 2L, 1.6, 2L)));
+        statisticsService.getStatistics();
+        // A match commits while the aggregate runs, after the query has read the table
+        when(matchRepository.aggregateStatistics()).thenAnswer(invocation -> {
+            statisticsService.recordCreated(match(MatchStatus.PENDING, 0.8));
+            return List.of(row(MatchStatus.PENDING, MatchType.TWO_WAY_CYCLE, "HOSPITAL_001", 2L, 1.6, 2L));
+        });
+
+        statisticsService.reconcile();
+
+        MatchingService.MatchStatistics stats = statisticsService.getStatistics();
+        assertEquals(3L, stats.getTotalMatches());
+        assertEquals(3L, stats.getPendingMatches());
+    }
+
+    @Test
+    void testChangeBeforeFirstLoadIsCountedOnlyByTheAggregate() {
+        statisticsService.recordCreated(match(MatchStatus.PENDING, 0.8));
+        when(matchRepository.aggregateStatistics()).thenReturn(List.of(
+                row(MatchStatus.PENDING, MatchType.TWO_WAY_CYCLE, "HOSPITAL_001", 1L, 0.8, 1L)));
+
+        assertEquals(1L, statisticsService.getStatistics().getTotalMatches());
+    }
+
+    @Test
+    void testOnlyFollowersReconcileOnTheShortInterval() {
+        when(matchRepository.aggregateStatistics()).thenReturn(List.of());
+        when(leaderElection.isLeader()).thenReturn(true, false);
+
+        statisticsService.reconcileFollower();
+        verify(matchRepository, never()).aggregateStatistics();
+
+        statisticsService.reconcileFollower();
+        verify(matchRepository).aggregateStatistics();
+    }
+
+    private Match match(MatchStatus status, double score) {
+        Match match = new Match(MatchType.TWO_WAY_CYCLE, status,
+                Arrays.asList(UUID.randomUUID(), UUID.randomUUID()), score, "HOSPITAL_001");
+        match.setId(UUID.randomUUID());
+        return match;
+    }
+
+    private MatchRepository.StatisticsRow row(MatchStatus status, MatchType type, String hospitalId,
+                                              Long count, Double scoreSum, Long scoredCount) {
+        return new MatchRepository.StatisticsRow() {
+            public MatchStatus getStatus() { return status; }
+            public MatchType getMatchType() { return type; }
+            public String getHospitalId() { return hospitalId; }
+            public Long getMatchCount() { return count; }
+            public Double getScoreSum() { return scoreSum; }
+            public Long getScoredCount() { return scoredCount; }
+        };
+    }
+}
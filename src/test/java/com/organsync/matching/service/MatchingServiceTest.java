@@ -1,29 +1,55 @@
 package com.organsync.matching.service;
 
 import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.dto.MatchFilter;
+import com.organsync.matching.dto.MatchPageDto;
 import com.organsync.matching.entity.Compatibility;
 import com.organsync.matching.entity.Match;
 import com.organsync.matching.entity.MatchStatus;
 import com.organsync.matching.entity.MatchType;
 import com.organsync.matching.repository.CompatibilityRepository;
 import com.organsync.matching.repository.MatchRepository;
+import com.organsync.matching.algorithm.GraphReducer;
 import com.organsync.matching.algorithm.MatchingAlgorithmService;
+import com.organsync.matching.monitoring.MatchingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +67,36 @@ class MatchingServiceTest {
     @Mock
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Mock
+    private MatchStatisticsService statisticsService;
+
+    @Mock
+    private LeaderElectionService leaderElection;
+
+    @Mock
+    private MatchSnapshotService snapshotService;
+
+    @Mock
+    private HospitalMatchViewService hospitalViewService;
+
+    @Mock
+    private PairMatchIndexService pairIndex;
+
+    @Mock
+    private BridgeDonorService bridgeDonors;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MatchingResultCache resultCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private MatchingMetrics metrics = new MatchingMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private MatchingService matchingService;
 
@@ -72,6 +128,8 @@ class MatchingServiceTest {
         testCompatibility.setHlaCompatible(true);
         testCompatibility.setCrossmatchCompatible(true);
         testCompatibility.setCompatibilityScore(0.85);
+
+        ReflectionTestUtils.setField(matchingService, "maxChainLength", 5);
     }
 
     @Test
@@ -81,18 +139,49 @@ class MatchingServiceTest {
         List<MatchDto> expectedMatches = Arrays.asList(new MatchDto());
 
         when(compatibilityRepository.findFullyCompatible()).thenReturn(compatibilities);
-        when(algorithmService.findOptimalMatches(compatibilities)).thenReturn(expectedMatches);
-        when(algorithmService.findCycles(compatibilities, 3)).thenReturn(Arrays.asList());
-        when(algorithmService.findChains(eq(compatibilities), any(), eq(5))).thenReturn(Arrays.asList());
+        when(algorithmService.reduce(eq(compatibilities), any(), eq(3), eq(5)))
+                .thenReturn(GraphReducer.Reduction.unreduced(compatibilities, List.of(UUID.randomUUID())));
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<MatchDto>>>getArgument(1).accept(expectedMatches);
+            return null;
+        }).when(algorithmService).findOptimalMatches(eq(compatibilities), any());
+        List<String> streamedStages = new ArrayList<>();
 
         // Act
-        List<MatchDto> result = matchingService.findAllMatches();
+        List<MatchDto> result = matchingService.findAllMatches(new MatchingService.ProgressListener() {
+            @Override
+            public void onProgress(String stage, int percentComplete) { }
+
+            @Override
+            public void onMatches(String stage, List<MatchDto> matches) {
+                streamedStages.add(stage + ":" + matches.size());
+            }
+        });
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
+        assertEquals(List.of("blossom:1"), streamedStages);
         verify(compatibilityRepository).findFullyCompatible();
-        verify(algorithmService).findOptimalMatches(compatibilities);
+        verify(algorithmService).findCycles(eq(compatibilities), eq(3), any());
+        verify(algorithmService).findChains(eq(compatibilities), any(), eq(5), any());
+        verify(resultCache).put(any(), eq(result));
+    }
+
+    @Test
+    void testFindAllMatchesReturnsCachedResultForUnchangedPool() {
+        List<Compatibility> compatibilities = List.of(testCompatibility);
+        List<MatchDto> cached = List.of(new MatchDto());
+        when(compatibilityRepository.findFullyCompatible()).thenReturn(compatibilities);
+        when(algorithmService.fingerprint(eq(compatibilities), any(), eq(3), eq(5))).thenReturn("fingerprint");
+        when(resultCache.get("fingerprint")).thenReturn(Optional.of(cached));
+
+        List<MatchDto> result = matchingService.findAllMatches();
+
+        assertEquals(cached, result);
+        verify(algorithmService, never()).findOptimalMatches(any(), any());
+        verify(algorithmService, never()).findCycles(any(), anyInt(), any());
+        verify(resultCache, never()).put(any(), any());
     }
 
     @Test
@@ -126,9 +215,9 @@ class MatchingServiceTest {
     @Test
     void testUpdateMatchStatus() {
         // Arrange
-        String newStatus = "APPROVED";
+        String newStatus = "CONFIRMED";
         when(matchRepository.findById(testMatchId)).thenReturn(Optional.of(testMatch));
-        when(matchRepository.save(any(Match.class))).thenReturn(testMatch);
+        when(matchRepository.saveAndFlush(any(Match.class))).thenReturn(testMatch);
 
         // Act
         MatchDto result = matchingService.updateMatchStatus(testMatchId, newStatus);
@@ -136,11 +225,143 @@ class MatchingServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(testMatchId, result.getId());
+        assertEquals("CONFIRMED", result.getStatus());
         verify(matchRepository).findById(testMatchId);
-        verify(matchRepository).save(any(Match.class));
+        verify(matchRepository).saveAndFlush(any(Match.class));
+        verify(statisticsService).recordStatusChange(testMatch, MatchStatus.PENDING);
         verify(kafkaTemplate).send(eq("match.status.updated"), eq(testMatchId.toString()), any());
     }
 
+    @Test
+    void testUpdateMatchStatusRejectsIllegalTransition() {
+        when(matchRepository.findById(testMatchId)).thenReturn(Optional.of(testMatch));
+
+        assertThrows(IllegalMatchTransitionException.class,
+                () -> matchingService.updateMatchStatus(testMatchId, "COMPLETED"));
+
+        assertEquals(MatchStatus.PENDING, testMatch.getStatus());
+        verify(matchRepository, never()).saveAndFlush(any(Match.class));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void testRejectingMatchFreesItsPairsForRepair() {
+        when(matchRepository.findById(testMatchId)).thenReturn(Optional.of(testMatch));
+        when(matchRepository.saveAndFlush(any(Match.class))).thenReturn(testMatch);
+
+        matchingService.updateMatchStatus(testMatchId, "REJECTED");
+
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof PairsFreedEvent freed
+                && freed.getPairIds().equals(Set.of(testPairId1, testPairId2))));
+    }
+
+    @Test
+    void testRepairSearchesAroundFreedPairsAndSavesReplacements() {
+        ReflectionTestUtils.setField(matchingService, "repairBudgetMs", 200L);
+        ReflectionTestUtils.setField(matchingService, "repairMaxCycleLength", 3);
+        UUID partner = UUID.randomUUID();
+        Compatibility toPartner = new Compatibility();
+        toPartner.setDonorPairId(testPairId1);
+        toPartner.setRecipientPairId(partner);
+        when(compatibilityRepository.findFullyCompatibleTouching(Set.of(testPairId1)))
+                .thenReturn(List.of(toPartner));
+        when(compatibilityRepository.findFullyCompatibleAmong(Set.of(testPairId1, partner)))
+                .thenReturn(List.of(toPartner));
+        when(pairIndex.findActiveMatchIds(any())).thenReturn(Map.of());
+        MatchDto replacement = new MatchDto("TWO_WAY_CYCLE", "PENDING", List.of(testPairId1, partner), 0.8, null);
+        when(algorithmService.findRepairCycles(eq(List.of(toPartner)), eq(Set.of(testPairId1)), eq(Set.of()), eq(3), anyLong()))
+                .thenReturn(List.of(replacement));
+        when(matchRepository.save(any(Match.class))).thenAnswer(invocation -> {
+            Match match = invocation.getArgument(0);
+            match.setId(UUID.randomUUID());
+            return match;
+        });
+
+        List<MatchDto> saved = matchingService.repairFreedPairs(List.of(testPairId1));
+
+        assertEquals(1, saved.size());
+        assertEquals("PENDING", saved.get(0).getStatus());
+        assertEquals("TWO_WAY_CYCLE", saved.get(0).getMatchType());
+        verify(compatibilityRepository, never()).findFullyCompatible();
+        verify(kafkaTemplate).send(eq("match.found"), any(), any());
+    }
+
+    @Test
+    void testRepairSearchesChainsThroughFreedPairsFromAvailableDonors() {
+        ReflectionTestUtils.setField(matchingService, "repairBudgetMs", 200L);
+        ReflectionTestUtils.setField(matchingService, "repairMaxCycleLength", 3);
+        UUID source = UUID.randomUUID();
+        UUID cyclePartner = UUID.randomUUID();
+        Compatibility sourceToFreed = new Compatibility();
+        sourceToFreed.setDonorPairId(source);
+        sourceToFreed.setRecipientPairId(testPairId1);
+        MatchDto cycle = new MatchDto("TWO_WAY_CYCLE", "PENDING", List.of(testPairId2, cyclePartner), 0.8, null);
+        when(algorithmService.findRepairCycles(any(), eq(Set.of(testPairId1, testPairId2)), any(), eq(3), anyLong()))
+                .thenReturn(List.of(cycle));
+        when(pairIndex.findActiveMatchIds(any())).thenReturn(Map.of());
+        when(bridgeDonors.getAvailableDonors()).thenReturn(Set.of(source));
+        when(compatibilityRepository.findFullyCompatibleInto(Set.of(testPairId1, testPairId2)))
+                .thenReturn(List.of(sourceToFreed));
+        MatchDto chain = new MatchDto("CHAIN", "PENDING", List.of(source, testPairId1), 0.7, null);
+        when(algorithmService.extendChainsThrough(any(), eq(Set.of(source)), eq(Set.of(testPairId1, testPairId2)),
+                argThat(unavailable -> unavailable.containsAll(List.of(testPairId2, cyclePartner))), eq(5)))
+                .thenReturn(List.of(chain));
+        when(matchRepository.save(any(Match.class))).thenAnswer(invocation -> {
+            Match match = invocation.getArgument(0);
+            match.setId(UUID.randomUUID());
+            return match;
+        });
+
+        List<MatchDto> saved = matchingService.repairFreedPairs(List.of(testPairId1, testPairId2));
+
+        assertEquals(List.of("TWO_WAY_CYCLE", "CHAIN"), saved.stream().map(MatchDto::getMatchType).toList());
+    }
+
+    @Test
+    void testUpdateMatchStatusRejectsStaleVersion() {
+        testMatch.setVersion(3L);
+        when(matchRepository.findById(testMatchId)).thenReturn(Optional.of(testMatch));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> matchingService.updateMatchStatus(testMatchId, "CONFIRMED", 2L));
+
+        verify(matchRepository, never()).saveAndFlush(any(Match.class));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void testTransitionMatchesUpdatesCycleInOneStatementAndOneEvent() {
+        Match second = new Match(MatchType.TWO_WAY_CYCLE, MatchStatus.PENDING, List.of(UUID.randomUUID()), 0.7, "HOSPITAL_002");
+        second.setId(UUID.randomUUID());
+        second.setVersion(0L);
+        testMatch.setVersion(0L);
+        List<UUID> ids = List.of(testMatchId, second.getId());
+        when(matchRepository.findByIdIn(any())).thenReturn(List.of(testMatch, second));
+        when(matchRepository.transitionStatus(any(), eq(MatchStatus.PENDING), eq(MatchStatus.CONFIRMED), any())).thenReturn(2);
+
+        List<MatchDto> result = matchingService.transitionMatches(ids, MatchStatus.CONFIRMED);
+
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(dto -> "CONFIRMED".equals(dto.getStatus()) && dto.getVersion() == 1L));
+        verify(matchRepository, times(1)).transitionStatus(any(), any(), any(), any());
+        verify(hospitalViewService).recordStatusChanges(List.of(testMatch, second), MatchStatus.CONFIRMED);
+        verify(kafkaTemplate).send(eq(MatchingService.STATUS_BATCH_TOPIC), any(), any());
+        verify(kafkaTemplate, never()).send(eq("match.status.updated"), any(), any());
+    }
+
+    @Test
+    void testTransitionMatchesFailsWhenAMatchChangedConcurrently() {
+        Match second = new Match(MatchType.TWO_WAY_CYCLE, MatchStatus.PENDING, List.of(UUID.randomUUID()), 0.7, "HOSPITAL_002");
+        second.setId(UUID.randomUUID());
+        when(matchRepository.findByIdIn(any())).thenReturn(List.of(testMatch, second));
+        when(matchRepository.transitionStatus(any(), eq(MatchStatus.PENDING), eq(MatchStatus.CONFIRMED), any())).thenReturn(1);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> matchingService.transitionMatches(List.of(testMatchId, second.getId()), MatchStatus.CONFIRMED));
+
+        verifyNoInteractions(hospitalViewService, kafkaTemplate);
+    }
+
     @Test
     void testUpdateMatchStatusNotFound() {
         // Arrange
@@ -159,10 +380,12 @@ class MatchingServiceTest {
     @Test
     void testGetMatchStatistics() {
         // Arrange
-        when(matchRepository.count()).thenReturn(100L);
-        when(matchRepository.countByStatus("PENDING")).thenReturn(30L);
-        when(matchRepository.countByStatus("COMPLETED")).thenReturn(50L);
-        when(matchRepository.averageCompatibilityScore()).thenReturn(0.75);
+        MatchingService.MatchStatistics stats = new MatchingService.MatchStatistics();
+        stats.setTotalMatches(100L);
+        stats.setPendingMatches(30L);
+        stats.setCompletedMatches(50L);
+        stats.setAverageCompatibilityScore(0.75);
+        when(statisticsService.getStatistics()).thenReturn(stats);
 
         // Act
         MatchingService.MatchStatistics result = matchingService.getMatchStatistics();
@@ -174,10 +397,103 @@ class MatchingServiceTest {
         assertEquals(50L, result.getCompletedMatches());
         assertEquals(0.75, result.getAverageCompatibilityScore());
 
-        verify(matchRepository).count();
-        verify(matchRepository).countByStatus("PENDING");
-        verify(matchRepository).countByStatus("COMPLETED");
-        verify(matchRepository).averageCompatibilityScore();
+        verify(statisticsService).getStatistics();
+        verifyNoInteractions(matchRepository);
+    }
+
+    private static MatchRepository.KeysetKey key(Match match) {
+        return new MatchRepository.KeysetKey() {
+            @Override
+            public UUID getId() {
+                return match.getId();
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return match.getCreatedAt();
+            }
+        };
+    }
+
+    @Test
+    void testFindMatchesKeysetPage() {
+        // Arrange
+        Match older = new Match(MatchType.CHAIN, MatchStatus.PENDING,
+                Arrays.asList(testPairId2, testPairId1), 0.7, "HOSPITAL_001");
+        older.setId(UUID.randomUUID());
+        older.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        testMatch.setCreatedAt(LocalDateTime.of(2024, 1, 2, 10, 0));
+
+        when(matchRepository.findKeysForKeysetPage(eq(MatchStatus.PENDING), isNull(), eq("HOSPITAL_001"),
+                isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(Arrays.asList(key(testMatch), key(older)));
+        when(matchRepository.findByIdIn(any())).thenReturn(Arrays.asList(older, testMatch));
+
+        // Act
+        MatchFilter filter = new MatchFilter("pending", null, "HOSPITAL_001", null, null, null);
+        MatchPageDto page = matchingService.findMatches(filter, null, 2);
+
+        // Assert: keyset order is preserved and a full page yields a cursor to the next one
+        assertEquals(2, page.getSize());
+        assertEquals(testMatchId, page.getItems().get(0).getId());
+        assertEquals(older.getId(), page.getItems().get(1).getId());
+        assertNotNull(page.getNextCursor());
+
+        when(matchRepository.findKeysForKeysetPage(any(), any(), any(), any(), any(), any(),
+                eq(older.getCreatedAt()), eq(older.getId()), any()))
+                .thenReturn(Arrays.asList());
+        MatchPageDto next = matchingService.findMatches(filter, page.getNextCursor(), 2);
+        assertEquals(0, next.getSize());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void testFindMatchesSkipsMatchDeletedBetweenQueriesAndKeepsItsCursor() {
+        Match deleted = new Match(MatchType.CHAIN, MatchStatus.PENDING,
+                Arrays.asList(testPairId2, testPairId1), 0.7, "HOSPITAL_001");
+        deleted.setId(UUID.randomUUID());
+        deleted.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        testMatch.setCreatedAt(LocalDateTime.of(2024, 1, 2, 10, 0));
+        when(matchRepository.findKeysForKeysetPage(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Arrays.asList(key(testMatch), key(deleted)));
+        when(matchRepository.findByIdIn(any())).thenReturn(List.of(testMatch));
+
+        MatchPageDto page = matchingService.findMatches(new MatchFilter(), null, 2);
+
+        assertEquals(1, page.getSize());
+        assertEquals(testMatchId, page.getItems().get(0).getId());
+        // The next page starts after the deleted match rather than returning it again
+        when(matchRepository.findKeysForKeysetPage(any(), any(), any(), any(), any(), any(),
+                eq(deleted.getCreatedAt()), eq(deleted.getId()), any()))
+                .thenReturn(List.of());
+        assertEquals(0, matchingService.findMatches(new MatchFilter(), page.getNextCursor(), 2).getSize());
+    }
+
+    @Test
+    void testExportReadsEachPageInItsOwnReadOnlyTransaction() {
+        testMatch.setCreatedAt(LocalDateTime.of(2024, 1, 2, 10, 0));
+        when(matchRepository.findKeysForKeysetPage(any(), any(), any(), any(), any(), any(), isNull(), isNull(), any()))
+                .thenReturn(List.of(key(testMatch)));
+        when(matchRepository.findKeysForKeysetPage(any(), any(), any(), any(), any(), any(),
+                eq(testMatch.getCreatedAt()), eq(testMatchId), any()))
+                .thenReturn(List.of());
+        when(matchRepository.findByIdIn(any())).thenReturn(List.of(testMatch));
+        List<MatchDto> exported = new ArrayList<>();
+
+        assertEquals(1, matchingService.exportMatches(new MatchFilter(), 1, exported::add));
+
+        assertEquals(testMatchId, exported.get(0).getId());
+        ArgumentCaptor<TransactionDefinition> transactions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(transactions.capture());
+        assertTrue(transactions.getAllValues().stream().allMatch(TransactionDefinition::isReadOnly));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testFindMatchesRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> matchingService.findMatches(new MatchFilter(), "not-a-cursor", 10));
+        verifyNoInteractions(matchRepository);
     }
 
     @Test
@@ -185,6 +501,7 @@ class MatchingServiceTest {
         // Arrange
         UUID pairId = UUID.randomUUID();
         List<MatchDto> newMatches = Arrays.asList(new MatchDto());
+        when(leaderElection.isLeader()).thenReturn(true);
         when(algorithmService.findOptimalMatches(any())).thenReturn(newMatches);
         when(matchRepository.save(any(Match.class))).thenReturn(testMatch);
 
@@ -194,6 +511,139 @@ class MatchingServiceTest {
         // Assert
         verify(compatibilityRepository).saveAll(any());
         verify(matchRepository).save(any(Match.class));
+        verify(statisticsService).recordCreated(testMatch);
+        verify(hospitalViewService).recordCreated(testMatch);
         verify(kafkaTemplate).send(eq("match.found"), any(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testProcessPairRegistrationOnFollowerLeavesMatchingToLeader() {
+        when(leaderElection.isLeader()).thenReturn(false);
+
+        matchingService.processPairRegistration(UUID.randomUUID());
+
+        verify(compatibilityRepository).saveAll(any());
+        verifyNoInteractions(algorithmService, matchRepository, kafkaTemplate);
+    }
+
+    @Test
+    void testRematchSkipsMatchesOfPairsAlreadyMatched() {
+        UUID freePair = UUID.randomUUID();
+        MatchDto conflicting = new MatchDto();
+        conflicting.setPairIds(Arrays.asList(testPairId1, testPairId2));
+        MatchDto free = new MatchDto();
+        free.setPairIds(Arrays.asList(freePair, UUID.randomUUID()));
+        when(algorithmService.findOptimalMatches(any())).thenReturn(Arrays.asList(conflicting, free));
+        when(pairIndex.findActiveMatchIds(any())).thenReturn(Map.of(testPairId1, Set.of(testMatchId)));
+        when(matchRepository.save(any(Match.class))).thenReturn(testMatch);
+
+        assertEquals(1, matchingService.rematchPool());
+
+        verify(matchRepository).save(argThat((Match match) -> match.getPairIds().contains(freePair)));
+        verify(pairIndex).recordCreated(testMatch);
+    }
+
+    @Test
+    void testRematchExtendsChainsWithPairsRegisteredOnAnyReplica() {
+        UUID source = UUID.randomUUID();
+        UUID newPair = UUID.randomUUID();
+        Compatibility sourceToNew = new Compatibility();
+        sourceToNew.setDonorPairId(source);
+        sourceToNew.setRecipientPairId(newPair);
+        when(algorithmService.findOptimalMatches(any())).thenReturn(List.of());
+        when(pairIndex.findActiveMatchIds(any())).thenReturn(Map.of());
+        when(bridgeDonors.getAvailableDonors()).thenReturn(Set.of(source));
+        // Registered on a follower: the leader only learns of it from the compatibilities table
+        when(compatibilityRepository.findDonorPairsFirstSeenAfter(any())).thenReturn(List.of(newPair));
+        when(compatibilityRepository.findFullyCompatibleInto(Set.of(newPair))).thenReturn(List.of(sourceToNew));
+
+        matchingService.rematchPool();
+        matchingService.rematchPool();
+
+        // The first rematch searches from every available donor, the second through the new pair
+        verify(algorithmService).extendChains(any(), eq(Set.of(source)), isNull(), any(), eq(5));
+        verify(algorithmService).extendChains(any(), eq(Set.of(source)), eq(newPair), any(), eq(5));
+        verify(bridgeDonors).getDonorsAvailableSince(any());
+    }
+
+    @Test
+    void testRepairRunsARematchRequestedWhileItHeldThePool() {
+        ReflectionTestUtils.setField(matchingService, "repairMaxCycleLength", 3);
+        // A registration found the repair holding the pool and left its rematch to whoever held it
+        ((AtomicBoolean) ReflectionTestUtils.getField(matchingService, "rematchRequested")).set(true);
+        when(algorithmService.findOptimalMatches(any())).thenReturn(List.of());
+
+        matchingService.repairFreedPairs(List.of(testPairId1));
+
+        verify(algorithmService).findRepairCycles(any(), eq(Set.of(testPairId1)), any(), eq(3), anyLong());
+        verify(algorithmService).findOptimalMatches(any());
+    }
+
+    @Test
+    void testRematchPersistsNothingOnceLeadershipIsLost() {
+        MatchDto match = new MatchDto();
+        match.setPairIds(Arrays.asList(testPairId1, testPairId2));
+        when(algorithmService.findOptimalMatches(any())).thenReturn(List.of(match));
+        doThrow(new LeadershipLostException("replica-a")).when(leaderElection).fenceWrites();
+
+        assertEquals(0, matchingService.rematchPool());
+
+        verify(matchRepository, never()).save(any(Match.class));
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void testConcurrentRegistrationsNeverMatchAPairTwice() throws Exception {
+        when(leaderElection.isLeader()).thenReturn(true);
+        // Every rematch finds the same match, as runs over the same pool do
+        MatchDto candidate = new MatchDto();
+        candidate.setPairIds(Arrays.asList(testPairId1, testPairId2));
+        CountDownLatch firstRematchRunning = new CountDownLatch(1);
+        CountDownLatch secondRegistrationDone = new CountDownLatch(1);
+        when(algorithmService.findOptimalMatches(any())).thenAnswer(invocation -> {
+            firstRematchRunning.countDown();
+            secondRegistrationDone.await(5, TimeUnit.SECONDS);
+            return List.of(candidate);
+        });
+
+        // Saved matches only become visible to the held-pair check once their transaction commits
+        List<Match> uncommitted = Collections.synchronizedList(new ArrayList<>());
+        List<Match> committed = Collections.synchronizedList(new ArrayList<>());
+        when(matchRepository.save(any(Match.class))).thenAnswer(invocation -> {
+            Match match = invocation.getArgument(0);
+            match.setId(UUID.randomUUID());
+            uncommitted.add(match);
+            return match;
+        });
+        doAnswer(invocation -> {
+            synchronized (uncommitted) {
+                committed.addAll(uncommitted);
+                uncommitted.clear();
+            }
+            return null;
+        }).when(transactionManager).commit(any());
+        when(pairIndex.findActiveMatchIds(any())).thenAnswer(invocation -> {
+            Collection<UUID> pairIds = invocation.getArgument(0);
+            Map<UUID, Set<UUID>> active = new HashMap<>();
+            synchronized (committed) {
+                committed.forEach(match -> match.getPairIds().stream().filter(pairIds::contains)
+                        .forEach(pair -> active.computeIfAbsent(pair, p -> new HashSet<>()).add(match.getId())));
+            }
+            return active;
+        });
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(
+                () -> matchingService.processPairRegistration(testPairId1));
+        assertTrue(firstRematchRunning.await(5, TimeUnit.SECONDS));
+        matchingService.processPairRegistration(testPairId2);
+        secondRegistrationDone.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        // The second registration was coalesced into the running rematch, which went again
+        verify(algorithmService, times(2)).findOptimalMatches(any());
+        List<UUID> matchedPairs = committed.stream().flatMap(match -> match.getPairIds().stream()).toList();
+        assertEquals(Set.copyOf(matchedPairs).size(), matchedPairs.size());
+        assertEquals(1, committed.size());
+    }
+}
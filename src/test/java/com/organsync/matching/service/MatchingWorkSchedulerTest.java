@@ -0,0 +1,104 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.service.MatchingWorkScheduler.WorkKind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingWorkSchedulerTest {
+
+    private MatchingWorkScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // Workers are not started; tests drive the queues through poll()
+        scheduler = new MatchingWorkScheduler();
+        ReflectionTestUtils.setField(scheduler, "urgentPriority", 8);
+        ReflectionTestUtils.setField(scheduler, "agingSeconds", 30L);
+        ReflectionTestUtils.setField(scheduler, "capacity", 3);
+        at(0);
+    }
+
+    @Test
+    void testUrgentWorkJumpsRoutineBacklog() {
+        UUID routine = UUID.randomUUID();
+        UUID urgent = UUID.randomUUID();
+        scheduler.submit(WorkKind.REGISTRATION, routine, 0, () -> { });
+        scheduler.submit(WorkKind.REGISTRATION, urgent, 9, () -> { });
+
+        assertEquals(urgent, scheduler.poll(false).pairId);
+        // Reserved workers never pick up routine work
+        assertNull(scheduler.poll(true));
+        assertEquals(routine, scheduler.poll(false).pairId);
+    }
+
+    @Test
+    void testWaitingRoutineWorkAgesPastNewUrgentWork() {
+        UUID routine = UUID.randomUUID();
+        UUID urgent = UUID.randomUUID();
+        scheduler.submit(WorkKind.REGISTRATION, routine, 0, () -> { });
+        at(9 * 30_000);
+        scheduler.submit(WorkKind.REMATCH, urgent, 8, () -> { });
+
+        assertEquals(routine, scheduler.poll(false).pairId);
+        assertEquals(urgent, scheduler.poll(true).pairId);
+    }
+
+    @Test
+    void testSubmitRejectsWhenBacklogFull() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(WorkKind.TRIGGER, null, 5, () -> { });
+        }
+
+        assertThrows(TaskRejectedException.class,
+                () -> scheduler.submit(WorkKind.TRIGGER, null, 5, () -> { }));
+        assertEquals(3, scheduler.size());
+    }
+
+    @Test
+    void testSubmitBlockingGivesUpWhenBacklogStaysFull() {
+        ReflectionTestUtils.setField(scheduler, "submitTimeoutMs", 50L);
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(WorkKind.TRIGGER, null, 5, () -> { });
+        }
+
+        assertThrows(TaskRejectedException.class,
+                () -> scheduler.submitBlocking(WorkKind.REGISTRATION, UUID.randomUUID(), 5, () -> { }));
+        assertEquals(3, scheduler.size());
+    }
+
+    @Test
+    void testFailedWorkCompletesExceptionallyAndWorkerCarriesOn() throws Exception {
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "workers", 1);
+        ReflectionTestUtils.setField(scheduler, "urgentWorkers", 0);
+        scheduler.start();
+        try {
+            CompletableFuture<Void> failed = scheduler.submit(WorkKind.REGISTRATION, UUID.randomUUID(), 5, () -> {
+                throw new AssertionError("worker-killing error");
+            });
+            ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, error.getCause());
+
+            scheduler.submit(WorkKind.REGISTRATION, UUID.randomUUID(), 5, () -> { }).get(5, TimeUnit.SECONDS);
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    private void at(long epochMillis) {
+        ReflectionTestUtils.setField(scheduler, "clock", Clock.fixed(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,59 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.entity.Match;
+import com.organsync.matching.entity.MatchStatus;
+import com.organsync.matching.entity.MatchType;
+import com.organsync.matching.repository.MatchRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "organsync.matching.migrations.pair-ids-array.enabled=true")
+@Import(PairIdsArrayMigration.class)
+class PairIdsArrayMigrationTest {
+
+    @Autowired
+    private PairIdsArrayMigration migration;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testCopiesLegacyMembershipIntoArrayColumn() {
+        Match legacy = matchRepository.save(new Match(MatchType.THREE_WAY_CYCLE, MatchStatus.PENDING, null, 0.8, "HOSPITAL_001"));
+        List<UUID> current = List.of(UUID.randomUUID(), UUID.randomUUID());
+        Match migrated = matchRepository.save(new Match(MatchType.TWO_WAY_CYCLE, MatchStatus.PENDING, current, 0.7, "HOSPITAL_001"));
+        Match orphan = matchRepository.save(new Match(MatchType.CHAIN, MatchStatus.PENDING, null, 0.6, "HOSPITAL_001"));
+        matchRepository.flush();
+
+        jdbcTemplate.execute("CREATE TABLE match_pairs (match_id UUID NOT NULL, pair_id UUID)");
+        List<UUID> pairs = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        for (UUID pairId : pairs) {
+            jdbcTemplate.update("INSERT INTO match_pairs (match_id, pair_id) VALUES (?, ?)", legacy.getId(), pairId);
+        }
+
+        assertEquals(2, migration.migrate());
+        // Re-running finds nothing left to migrate
+        assertEquals(0, migration.migrate());
+
+        entityManager.clear();
+        assertEquals(pairs, matchRepository.findById(legacy.getId()).orElseThrow().getPairIds());
+        assertEquals(current, matchRepository.findById(migrated.getId()).orElseThrow().getPairIds());
+        // A match without legacy rows is marked migrated instead of being selected on every run
+        assertEquals(List.of(), matchRepository.findById(orphan.getId()).orElseThrow().getPairIds());
+    }
+}
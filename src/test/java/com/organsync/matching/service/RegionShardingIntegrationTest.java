@@ -0,0 +1,99 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.algorithm.RegionPartitioner;
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.entity.Compatibility;
+import com.organsync.matching.repository.CompatibilityRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sharded matching end to end through an embedded broker: shard ownership comes from the region
+ * run topic assignment, each shard is matched from its own slice of the pool, and the
+ * cross-region pass finds the exchange whose pairs sit in different shards.
+ */
+@SpringBootTest(properties = {
+        "organsync.matching.sharding.enabled=true",
+        "organsync.matching.sharding.shards=2",
+        "organsync.matching.sharding.region-timeout-seconds=60",
+        "organsync.matching.sharding.run-interval-ms=3600000",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.apache.kafka=WARN"
+})
+class RegionShardingIntegrationTest {
+
+    private static EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private RegionShardCoordinator coordinator;
+
+    @Autowired
+    private CompatibilityRepository compatibilityRepository;
+
+    @DynamicPropertySource
+    static void kafkaProperties(DynamicPropertyRegistry registry) {
+        broker = new EmbeddedKafkaKraftBroker(1, 2, "matching.region.runs", "matching.region.results",
+                "donor.registered", "donor.updated", "donor.deleted", "match.found", "match.status.updated");
+        broker.afterPropertiesSet();
+        registry.add("spring.kafka.bootstrap-servers", broker::getBrokersAsString);
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        if (broker != null) {
+            broker.destroy();
+        }
+    }
+
+    @Test
+    void testRegionsMatchedPerShardPlusCrossRegionPass() throws Exception {
+        compatibilityRepository.deleteAll();
+        UUID north1 = UUID.randomUUID(), north2 = UUID.randomUUID();
+        UUID south1 = UUID.randomUUID(), south2 = UUID.randomUUID();
+        // Two singleton regions that land on different shards, joined only by a long-haul exchange
+        UUID east = UUID.randomUUID();
+        UUID west = UUID.randomUUID();
+        while (RegionPartitioner.shardOf(east.toString(), 2) == RegionPartitioner.shardOf(west.toString(), 2)) {
+            west = UUID.randomUUID();
+        }
+        compatibilityRepository.saveAll(List.of(
+                compatibility(north1, north2, 0.9, 20.0), compatibility(north2, north1, 0.8, 20.0),
+                compatibility(south1, south2, 0.7, 15.0), compatibility(south2, south1, 0.9, 15.0),
+                compatibility(east, west, 0.8, 2500.0), compatibility(west, east, 0.6, 2500.0)));
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (coordinator.getOwnedShards().size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(Set.of(0, 1), coordinator.getOwnedShards());
+
+        List<MatchDto> matches = coordinator.runSharded((stage, percentComplete) -> { });
+
+        Set<Set<UUID>> exchanges = matches.stream()
+                .map(match -> new HashSet<>(match.getPairIds()))
+                .collect(Collectors.toSet());
+        assertTrue(exchanges.contains(Set.of(north1, north2)));
+        assertTrue(exchanges.contains(Set.of(south1, south2)));
+        assertTrue(exchanges.contains(Set.of(east, west)));
+    }
+
+    private static Compatibility compatibility(UUID donor, UUID recipient, double score, double distanceKm) {
+        Compatibility compatibility = new Compatibility(donor, recipient, true, true, true, score);
+        compatibility.setDistanceKm(distanceKm);
+        return compatibility;
+    }
+}
@@ -0,0 +1,189 @@
+package com.organsync.matching.service;
+
+import com.organsync.matching.dto.CompatibilityDto;
+import com.organsync.matching.dto.MatchDto;
+import com.organsync.matching.dto.SimulationRequest;
+import com.organsync.matching.dto.SimulationResultDto;
+import com.organsync.matching.entity.Compatibility;
+import com.organsync.matching.monitoring.MatchingMetrics;
+import com.organsync.matching.repository.CompatibilityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimulationServiceTest {
+
+    @Mock
+    private CompatibilityRepository compatibilityRepository;
+
+    @Mock
+    private MatchingService matchingService;
+
+    @Mock
+    private BridgeDonorService bridgeDonors;
+
+    @Spy
+    private MatchingMetrics metrics = new MatchingMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks
+    private SimulationService simulationService;
+
+    private final UUID pairA = UUID.randomUUID();
+    private final UUID pairB = UUID.randomUUID();
+    private final UUID pairC = UUID.randomUUID();
+    private List<Compatibility> livePool;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(simulationService, "maxCycleLength", 3);
+        ReflectionTestUtils.setField(simulationService, "maxChainLength", 5);
+        ReflectionTestUtils.setField(simulationService, "snapshotTtlSeconds", 60L);
+        livePool = new ArrayList<>(Arrays.asList(compatibility(pairA, pairB, 0.9)));
+    }
+
+    private void stubPoolAndAlgorithms() {
+        when(compatibilityRepository.findFullyCompatible()).thenReturn(livePool);
+        // One match per compatibility is enough to observe what the algorithms were given
+        when(matchingService.matchPool(any(), any(), anyInt(), anyInt(), any())).thenAnswer(invocation -> {
+            List<Compatibility> pool = invocation.getArgument(0);
+            return pool.stream().map(c -> match(c.getDonorPairId(), c.getRecipientPairId())).collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    void testAddedCompatibilityIsSimulatedWithoutTouchingLivePool() {
+        stubPoolAndAlgorithms();
+        SimulationRequest request = new SimulationRequest();
+        request.setAddedCompatibilities(List.of(new CompatibilityDto(pairB, pairC, true, true, true, 0.7)));
+
+        SimulationResultDto result = simulationService.run(request);
+        simulationService.run(new SimulationRequest());
+
+        assertEquals(1, result.getBaseline().getMatchCount());
+        assertEquals(2, result.getScenario().getMatchCount());
+        assertEquals(1, result.getPairsCoveredDelta());
+        assertEquals(List.of(pairB, pairC), result.getAddedMatches().get(0).getPairIds());
+        assertTrue(result.getRemovedMatches().isEmpty());
+        assertEquals(1, livePool.size());
+        // Second simulation reuses the cached snapshot
+        verify(compatibilityRepository, times(1)).findFullyCompatible();
+    }
+
+    @Test
+    void testRemovedPairAndThresholdDropMatches() {
+        stubPoolAndAlgorithms();
+        SimulationRequest request = new SimulationRequest();
+        request.setRemovedPairIds(List.of(pairA));
+
+        SimulationResultDto result = simulationService.run(request);
+
+        assertEquals(0, result.getScenario().getMatchCount());
+        assertEquals(1, result.getRemovedMatches().size());
+        assertEquals(-2, result.getPairsCoveredDelta());
+
+        SimulationRequest threshold = new SimulationRequest();
+        threshold.setMinCompatibilityScore(0.95);
+        assertEquals(1, simulationService.run(threshold).getRemovedMatches().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBaselineStartsChainsFromLiveDonorsAndScenarioAddsItsOwn() {
+        stubPoolAndAlgorithms();
+        when(bridgeDonors.getAvailableDonors()).thenReturn(Set.of(pairA));
+        SimulationRequest request = new SimulationRequest();
+        request.setAltruisticDonorIds(List.of(pairC));
+
+        simulationService.run(request);
+
+        ArgumentCaptor<Set<UUID>> donors = ArgumentCaptor.forClass(Set.class);
+        verify(matchingService, times(2)).matchPool(any(), donors.capture(), eq(3), eq(5), any());
+        assertEquals(Set.of(pairA), donors.getAllValues().get(0));
+        assertEquals(Set.of(pairA, pairC), donors.getAllValues().get(1));
+    }
+
+    @Test
+    void testTimedOutSimulationIsCancelled() throws Exception {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.initialize();
+        ReflectionTestUtils.setField(simulationService, "simulationExecutor", executor);
+        ReflectionTestUtils.setField(simulationService, "timeoutSeconds", 1L);
+        when(compatibilityRepository.findFullyCompatible()).thenReturn(livePool);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        // A run that only stops at a stage boundary once it has been interrupted
+        when(matchingService.matchPool(any(), any(), anyInt(), anyInt(), any())).thenAnswer(invocation -> {
+            MatchingService.ProgressListener progress = invocation.getArgument(4);
+            try {
+                while (true) {
+                    progress.onProgress("blossom", 20);
+                    Thread.onSpinWait();
+                }
+            } catch (CancellationException e) {
+                cancelled.countDown();
+                throw e;
+            }
+        });
+
+        try {
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> simulationService.simulate(new SimulationRequest()).get());
+            assertInstanceOf(TimeoutException.class, error.getCause());
+            assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testCycleKeyIgnoresRotation() {
+        MatchDto cycle = match(pairA, pairB, pairC);
+        cycle.setMatchType("THREE_WAY_CYCLE");
+        MatchDto rotated = match(pairB, pairC, pairA);
+        rotated.setMatchType("THREE_WAY_CYCLE");
+
+        assertEquals(SimulationService.matchKey(cycle), SimulationService.matchKey(rotated));
+    }
+
+    private static Compatibility compatibility(UUID donor, UUID recipient, double score) {
+        Compatibility compatibility = new Compatibility();
+        compatibility.setDonorPairId(donor);
+        compatibility.setRecipientPairId(recipient);
+        compatibility.setCompatibilityScore(score);
+        return compatibility;
+    }
+
+    private static MatchDto match(UUID... pairIds) {
+        MatchDto match = new MatchDto();
+        match.setMatchType("TWO_WAY_CYCLE");
+        match.setPairIds(Arrays.asList(pairIds));
+        return match;
+    }
+}